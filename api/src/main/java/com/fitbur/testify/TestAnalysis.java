@@ -0,0 +1,36 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify;
+
+/**
+ * The locations shared by the testify annotation processor, which generates
+ * the analysis of test classes at compile time, and the test runners that
+ * read it.
+ *
+ * @author saden
+ */
+public final class TestAnalysis {
+
+    /**
+     * The classpath location of generated analyses. The analysis of a class is
+     * located at this location followed by the binary name of the class.
+     */
+    public static final String GENERATED_LOCATION = "META-INF/testify/analysis/";
+
+    private TestAnalysis() {
+    }
+
+}
@@ -18,6 +18,7 @@ package com.fitbur.testify.di;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * A contract that defines methods for working with various dependency injection
@@ -155,6 +156,17 @@ public interface ServiceLocator {
      */
     void replaceWithConstant(Set<Class<?>> contracts, String name, Object instance);
 
+    /**
+     * Replace all beans that implement the given contract with a constant with
+     * the given name whose instance is created by the given supplier the first
+     * time the contract is resolved.
+     *
+     * @param contract the contract of the constant
+     * @param name the name of the service
+     * @param supplier the supplier of the service instance
+     */
+    void replaceWithLazyConstant(Class<?> contract, String name, Supplier<?> supplier);
+
     /**
      * Remove a service with the given descriptor.
      *
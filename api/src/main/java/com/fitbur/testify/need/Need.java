@@ -50,4 +50,25 @@ public @interface Need {
      */
     NeedScope scope() default NeedScope.METHOD;
 
+    /**
+     * The contracts of other needs this need requires. The need is initialized
+     * after the needs whose instances provide these contracts and the
+     * providing need instances are available through
+     * {@link NeedDescriptor#getDependencies()}.
+     *
+     * @return the required contracts
+     */
+    Class<?>[] requires() default {};
+
+    /**
+     * The contracts provided by the need. A need that declares its contracts
+     * is provisioned lazily, the first time one of its contracts is resolved
+     * by a service or a test class field, and only its declared contracts can
+     * be resolved. A need that does not declare its contracts is always
+     * provisioned.
+     *
+     * @return the provided contracts
+     */
+    Class<?>[] contracts() default {};
+
 }
@@ -81,12 +81,57 @@ public @interface NeedContainer {
 
     /**
      * A flag to indicate whether to wait for all container ports to be
-     * reachable.
+     * reachable and for the configured wait strategies to pass.
      *
      * @return health check URI.
      */
     boolean await() default true;
 
+    /**
+     * A regular expression a line of the container output must match before
+     * the container is ready.
+     *
+     * @return the log line pattern.
+     */
+    String awaitLog() default "";
+
+    /**
+     * A HTTP path one of the container ports must answer with a success or
+     * redirect status before the container is ready (i.e. "/health").
+     *
+     * @return the HTTP path.
+     */
+    String awaitHttp() default "";
+
+    /**
+     * A JDBC URL a connection must be opened to before the container is ready.
+     * The "{host}" and "{port}" placeholders are replaced with the container
+     * address and each of its ports (i.e.
+     * "jdbc:postgresql://{host}:{port}/postgres?user=postgres"). The JDBC
+     * driver must be on the test classpath.
+     *
+     * @return the JDBC URL.
+     */
+    String awaitJdbc() default "";
+
+    /**
+     * A command that must exit with a zero exit code when executed in the
+     * container before the container is ready.
+     *
+     * @return the command.
+     */
+    String[] awaitExec() default {};
+
+    /**
+     * A command executed in a container reused from an earlier need, before
+     * the need is first used, to reset the state the earlier need left the
+     * container in. It must exit with a zero exit code. Containers are only
+     * reused if their container need declares a reset command.
+     *
+     * @return the command.
+     */
+    String[] reset() default {};
+
     /**
      * Sets the delay between retries. Note that the time unit is in
      * {@link #unit()}.
@@ -133,4 +178,25 @@ public @interface NeedContainer {
      */
     TimeUnit unit() default TimeUnit.MILLISECONDS;
 
+    /**
+     * The contracts of other needs this need requires. The need is initialized
+     * after the needs whose instances provide these contracts and the
+     * providing need instances are available through
+     * {@link NeedDescriptor#getDependencies()}.
+     *
+     * @return the required contracts
+     */
+    Class<?>[] requires() default {};
+
+    /**
+     * The contracts provided by the need. A need that declares its contracts
+     * is provisioned lazily, the first time one of its contracts is resolved
+     * by a service or a test class field, and only its declared contracts can
+     * be resolved. A need that does not declare its contracts is always
+     * provisioned.
+     *
+     * @return the provided contracts
+     */
+    Class<?>[] contracts() default {};
+
 }
@@ -15,6 +15,11 @@
  */
 package com.fitbur.testify.need;
 
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
 /**
  * A contract that defines methods for creating and destroying a container need.
  *
@@ -23,4 +28,18 @@ package com.fitbur.testify.need;
  */
 public interface NeedContainerProvider<T> extends NeedProvider<T> {
 
+    /**
+     * Prepare the given container needs before any test runs, for example by
+     * downloading their images, so that initializing them later is faster.
+     * The container needs are the ones declared by all the test classes found
+     * on the classpath. By default nothing is prepared.
+     *
+     * @param needContainers the container needs declared by test classes
+     * @param executor the executor blocking work should be run on
+     * @return a completion stage that completes when the needs are prepared
+     */
+    default CompletionStage<Void> prefetch(Set<NeedContainer> needContainers, Executor executor) {
+        return CompletableFuture.completedFuture(null);
+    }
+
 }
@@ -18,6 +18,8 @@ package com.fitbur.testify.need;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A small configuration object that contains need contextual information. This
@@ -32,6 +34,7 @@ public class NeedContext {
     private final NeedDescriptor descriptor;
     private final Map<String, NeedInstance> instances;
     private final Object configuration;
+    private final AtomicBoolean injected = new AtomicBoolean();
 
     public NeedContext(NeedProvider provider,
             NeedDescriptor descriptor,
@@ -79,6 +82,18 @@ public class NeedContext {
         return instances.values().stream().findFirst();
     }
 
+    /**
+     * Find the first need instance that provides the given contract.
+     *
+     * @param contract the contract
+     * @return an optional containing a need instance, empty optional otherwise
+     */
+    public Optional<NeedInstance> findInstance(Class<?> contract) {
+        return instances.values().stream()
+                .filter(p -> ((Set<Class<?>>) p.getContracts()).stream().anyMatch(contract::isAssignableFrom))
+                .findFirst();
+    }
+
     /**
      * Get the need configuration configuration object.
      *
@@ -88,6 +103,15 @@ public class NeedContext {
         return configuration;
     }
 
+    /**
+     * Mark the need as injected into a test.
+     *
+     * @return true if the need is injected for the first time, false otherwise
+     */
+    public boolean markInjected() {
+        return injected.compareAndSet(false, true);
+    }
+
     @Override
     public int hashCode() {
         int hash = 5;
@@ -16,7 +16,10 @@
 package com.fitbur.testify.need;
 
 import java.lang.annotation.Annotation;
+import static java.util.Collections.emptyMap;
+import java.util.Map;
 import java.util.Optional;
+import static java.util.Optional.ofNullable;
 import java.util.Set;
 
 /**
@@ -55,6 +58,41 @@ public interface NeedDescriptor {
      */
     String getTestMethodName();
 
+    /**
+     * Get the name of the need. The name is unique within the JVM so needs
+     * created for test classes and methods that run concurrently can use it to
+     * name the resources they create without colliding. Descriptors that are
+     * not created by testify default to the test class and method names,
+     * which are not unique.
+     *
+     * @return the unique need name
+     */
+    default String getName() {
+        return getTestClassName() + "_" + getTestMethodName();
+    }
+
+    /**
+     * Get the instances of the needs this need requires keyed by the required
+     * contract. Descriptors that are not created by testify default to no
+     * dependencies.
+     *
+     * @return a map containing the required need instances
+     */
+    default Map<Class<?>, NeedInstance> getDependencies() {
+        return emptyMap();
+    }
+
+    /**
+     * Find the instance of a need that provides the given required contract.
+     *
+     * @param contract the required contract
+     * @return an optional containing the need instance, empty optional
+     * otherwise
+     */
+    default Optional<NeedInstance> findDependency(Class<?> contract) {
+        return ofNullable(getDependencies().get(contract));
+    }
+
     /**
      * Get annotation of the given type.
      *
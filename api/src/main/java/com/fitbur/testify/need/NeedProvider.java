@@ -16,6 +16,9 @@
 package com.fitbur.testify.need;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
 /**
  * A contract that defines methods for creating and destroying a need.
@@ -54,6 +57,24 @@ public interface NeedProvider<T> {
      */
     Map<String, NeedInstance> init(NeedDescriptor descriptor, T configuration);
 
+    /**
+     * Asynchronously initialize the need with the given descriptor and
+     * configuration. By default the need is initialized by calling
+     * {@link #init(com.fitbur.testify.need.NeedDescriptor, java.lang.Object)}
+     * on the given executor. Providers that can start a need without blocking
+     * a thread should override this method.
+     *
+     * @param descriptor the need descriptor
+     * @param configuration the need configuration context object
+     * @param executor the executor blocking work should be run on
+     * @return a completion stage of a map containing unique need instances
+     */
+    default CompletionStage<Map<String, NeedInstance>> initAsync(NeedDescriptor descriptor,
+            T configuration,
+            Executor executor) {
+        return CompletableFuture.supplyAsync(() -> init(descriptor, configuration), executor);
+    }
+
     /**
      * Destroy the need with the given descriptor and configuration.
      *
@@ -63,6 +84,23 @@ public interface NeedProvider<T> {
     default void destroy(NeedDescriptor descriptor, T configuration) {
     }
 
+    /**
+     * Asynchronously destroy the need with the given descriptor and
+     * configuration. By default the need is destroyed by calling
+     * {@link #destroy(com.fitbur.testify.need.NeedDescriptor, java.lang.Object)}
+     * on the given executor.
+     *
+     * @param descriptor the need descriptor
+     * @param configuration the need configuration context object
+     * @param executor the executor blocking work should be run on
+     * @return a completion stage that completes when the need is destroyed
+     */
+    default CompletionStage<Void> destroyAsync(NeedDescriptor descriptor,
+            T configuration,
+            Executor executor) {
+        return CompletableFuture.runAsync(() -> destroy(descriptor, configuration), executor);
+    }
+
     /**
      * Clean up of the need with the given descriptor and configuration.
      *
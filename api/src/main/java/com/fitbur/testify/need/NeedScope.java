@@ -22,8 +22,9 @@ package com.fitbur.testify.need;
  */
 public enum NeedScope {
     /**
-     * Indicates the need is global and should be started and stopped before and
-     * after test suites.
+     * Indicates the need is global and should be started once and shared by
+     * all test classes that declare it. The need is cleaned before it is
+     * handed to a new test class and stopped on JVM shutdown.
      */
     SUITE,
     /**
@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.Optional;
 import static java.util.Optional.ofNullable;
 import java.util.Set;
+import java.util.function.Function;
 import static java.util.stream.Collectors.toSet;
 import static java.util.stream.Stream.of;
 import org.slf4j.Logger;
@@ -56,6 +57,7 @@ public class TestContext {
     private int fieldCount;
     private final Logger logger;
     private int constructorCount;
+    private volatile TestInjectionPlan injectionPlan;
 
     public TestContext(String name, Class<?> testClass, Logger logger) {
         this.name = name;
@@ -132,6 +134,24 @@ public class TestContext {
                 .findFirst();
     }
 
+    /**
+     * Get the injection plan of the test class. The plan is created with the
+     * given planner the first time it is requested and reused afterwards.
+     *
+     * @param planner the function that creates the injection plan
+     * @return the injection plan
+     */
+    public TestInjectionPlan getInjectionPlan(Function<TestContext, TestInjectionPlan> planner) {
+        TestInjectionPlan result = injectionPlan;
+
+        if (result == null) {
+            result = planner.apply(this);
+            injectionPlan = result;
+        }
+
+        return result;
+    }
+
     public void setCutDescriptor(CutDescriptor descriptor) {
         this.cutDescriptor = descriptor;
     }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify;
+
+import com.fitbur.guava.common.collect.ImmutableList;
+import com.fitbur.testify.descriptor.FieldDescriptor;
+import com.fitbur.testify.descriptor.ParameterDescriptor;
+import java.util.List;
+
+/**
+ * An immutable plan that describes which test class field is injected into
+ * which class under test constructor argument. The plan is created once per
+ * test class by running the test injectors against a
+ * {@link TestInjectionRecorder} and then replayed for every test method, so
+ * field and constructor argument matching is not repeated.
+ *
+ * @author saden
+ */
+public class TestInjectionPlan {
+
+    private final List<Step> fakeSteps;
+    private final List<Step> realSteps;
+
+    public TestInjectionPlan(List<Step> fakeSteps, List<Step> realSteps) {
+        this.fakeSteps = ImmutableList.copyOf(fakeSteps);
+        this.realSteps = ImmutableList.copyOf(realSteps);
+    }
+
+    public List<Step> getFakeSteps() {
+        return fakeSteps;
+    }
+
+    public List<Step> getRealSteps() {
+        return realSteps;
+    }
+
+    /**
+     * Reify the fake fields of the test class and store them in the
+     * constructor arguments.
+     *
+     * @param reifier the test reifier
+     * @param arguments the class under test constructor arguments
+     */
+    public void replayFakes(TestReifier reifier, Object[] arguments) {
+        replay(fakeSteps, reifier, arguments);
+    }
+
+    /**
+     * Reify the real fields of the test class and store them in the
+     * constructor arguments.
+     *
+     * @param reifier the test reifier
+     * @param arguments the class under test constructor arguments
+     */
+    public void replayReals(TestReifier reifier, Object[] arguments) {
+        replay(realSteps, reifier, arguments);
+    }
+
+    void replay(List<Step> steps, TestReifier reifier, Object[] arguments) {
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            arguments[step.getIndex()] = reifier.reifyField(step.getField(), step.getParameter());
+        }
+    }
+
+    /**
+     * A single injection of a test class field into a constructor argument.
+     */
+    public static class Step {
+
+        private final FieldDescriptor field;
+        private final ParameterDescriptor parameter;
+        private final int index;
+
+        public Step(FieldDescriptor field, ParameterDescriptor parameter) {
+            this.field = field;
+            this.parameter = parameter;
+            this.index = parameter.getIndex();
+        }
+
+        public FieldDescriptor getField() {
+            return field;
+        }
+
+        public ParameterDescriptor getParameter() {
+            return parameter;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return "Step{" + "field=" + field.getName() + ", index=" + index + '}';
+        }
+
+    }
+
+}
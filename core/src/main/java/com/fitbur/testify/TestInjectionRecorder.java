@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify;
+
+import static com.fitbur.guava.common.base.Preconditions.checkState;
+import com.fitbur.testify.descriptor.CutDescriptor;
+import com.fitbur.testify.descriptor.FieldDescriptor;
+import com.fitbur.testify.descriptor.ParameterDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A test reifier that does not create any instances but records the fields
+ * the test injectors ask it to reify. It is used to compile the matching
+ * performed by test injectors into a {@link TestInjectionPlan}.
+ *
+ * @author saden
+ */
+public class TestInjectionRecorder implements TestReifier {
+
+    /**
+     * The placeholder stored in the constructor arguments for recorded fields
+     * so that injectors see the argument as taken.
+     */
+    public static final Object PLACEHOLDER = new Object();
+
+    private final List<TestInjectionPlan.Step> steps = new ArrayList<>();
+
+    @Override
+    public Object reifyField(FieldDescriptor fieldDescriptor, ParameterDescriptor parameterDescriptor) {
+        steps.add(new TestInjectionPlan.Step(fieldDescriptor, parameterDescriptor));
+
+        return PLACEHOLDER;
+    }
+
+    @Override
+    public Object reifyCut(CutDescriptor cutDescriptor, Object[] arguments) {
+        checkState(false, "Class under test '%s' can not be recorded.", cutDescriptor.getTypeName());
+        //not reachable
+        return null;
+    }
+
+    public List<TestInjectionPlan.Step> getSteps() {
+        return steps;
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify;
+
+import com.fitbur.testify.descriptor.FieldDescriptor;
+import com.fitbur.testify.descriptor.ParameterDescriptor;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import static java.util.Optional.ofNullable;
+
+/**
+ * A small context class that contains the state of a single test method
+ * invocation. The test instance and the instances reified for the test class
+ * fields, the class under test constructor parameters and the class under test
+ * belong to one invocation while the descriptors of the test context only
+ * contain metadata that is shared by all invocations of the test class.
+ *
+ * @author saden
+ */
+public class TestInvocation {
+
+    private final Object testInstance;
+    private final Map<FieldDescriptor, Object> fieldInstances = new HashMap<>();
+    private final Map<ParameterDescriptor, Object> parameterInstances = new HashMap<>();
+    private Object cutInstance;
+    private Object[] cutArguments;
+
+    public TestInvocation(Object testInstance) {
+        this.testInstance = testInstance;
+    }
+
+    public Object getTestInstance() {
+        return testInstance;
+    }
+
+    public Optional<Object> getInstance(FieldDescriptor descriptor) {
+        return ofNullable(fieldInstances.get(descriptor));
+    }
+
+    public void setInstance(FieldDescriptor descriptor, Object instance) {
+        fieldInstances.put(descriptor, instance);
+    }
+
+    public Optional<Object> getInstance(ParameterDescriptor descriptor) {
+        return ofNullable(parameterInstances.get(descriptor));
+    }
+
+    public void setInstance(ParameterDescriptor descriptor, Object instance) {
+        parameterInstances.put(descriptor, instance);
+    }
+
+    public Optional<Object> getCutInstance() {
+        return ofNullable(cutInstance);
+    }
+
+    public void setCutInstance(Object cutInstance) {
+        this.cutInstance = cutInstance;
+    }
+
+    public Object[] getCutArguments() {
+        return cutArguments;
+    }
+
+    public void setCutArguments(Object[] cutArguments) {
+        this.cutArguments = cutArguments;
+    }
+
+    @Override
+    public String toString() {
+        return "TestInvocation{" + "testInstance=" + testInstance
+                + ", fieldInstances=" + fieldInstances.size()
+                + ", cutInstance=" + cutInstance
+                + '}';
+    }
+
+}
@@ -16,27 +16,45 @@
 package com.fitbur.testify;
 
 import static com.fitbur.guava.common.base.Preconditions.checkState;
+import com.fitbur.guava.common.collect.ImmutableList;
+import com.fitbur.guava.common.collect.ImmutableSet;
 import com.fitbur.guava.common.collect.Lists;
+import static com.fitbur.testify.TestNeedExecutor.join;
+import static com.fitbur.testify.TestNeedExecutor.joinCompleted;
 import com.fitbur.testify.di.ServiceLocator;
 import com.fitbur.testify.need.NeedContainer;
 import com.fitbur.testify.need.NeedContainerProvider;
 import com.fitbur.testify.need.NeedContext;
 import com.fitbur.testify.need.NeedDescriptor;
 import com.fitbur.testify.need.NeedInstance;
+import com.fitbur.testify.need.NeedProvider;
 import com.fitbur.testify.need.NeedScope;
 import java.lang.annotation.Annotation;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
-import java.util.HashSet;
+import static java.util.Collections.synchronizedList;
+import static java.util.Collections.synchronizedMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
-import static java.util.stream.Collectors.toCollection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
 
 /**
- * A class for managing container based needs.
+ * A class for managing container based needs. Container needs of the class
+ * scope are managed together with suite scoped container needs, which are
+ * shared through the {@link TestNeedRegistry} instead of being created for
+ * every test class.
  *
  * @author saden
  */
@@ -45,56 +63,138 @@ public class TestNeedContainers {
     private final TestContext testContext;
     private final String name;
     private final NeedScope scope;
-    private Set<NeedContext> needContexts;
+    private final TestNeedRegistry registry;
+    private final TestNeedGraph graph;
+    private List<CompletableFuture<NeedContext>> needContexts;
+    private Map<List<Object>, NeedContainerProvider> lazyNeeds;
+    private Map<List<Object>, CompletableFuture<NeedContext>> provisionedNeeds;
+    private Map<NeedContext, List<Object>> suiteNeeds;
 
     public TestNeedContainers(TestContext testContext,
             String name,
             NeedScope scope) {
+        this(testContext, name, scope, new TestNeedGraph());
+    }
+
+    public TestNeedContainers(TestContext testContext,
+            String name,
+            NeedScope scope,
+            TestNeedGraph graph) {
+        this(testContext, name, scope, graph, TestNeedRegistry.INSTANCE);
+    }
+
+    public TestNeedContainers(TestContext testContext,
+            String name,
+            NeedScope scope,
+            TestNeedGraph graph,
+            TestNeedRegistry registry) {
         this.testContext = testContext;
         this.name = name;
         this.scope = scope;
+        this.graph = graph;
+        this.registry = registry;
     }
 
+    /**
+     * Start initializing the container needs. Container needs are initialized
+     * concurrently on the {@link TestNeedExecutor} in the order of their
+     * dependencies and are only waited for when they are injected, cleaned or
+     * destroyed. Container needs that declare their contracts are only
+     * initialized once a contract is resolved.
+     *
+     * @param <T> the annotation type
+     */
     public <T extends Annotation> void init() {
-        needContexts = new HashSet<>();
+        needContexts = synchronizedList(new ArrayList<>());
+        lazyNeeds = new LinkedHashMap<>();
+        provisionedNeeds = new ConcurrentHashMap<>();
+        suiteNeeds = synchronizedMap(new IdentityHashMap<>());
         ServiceLoader<NeedContainerProvider> serviceLoader = ServiceLoader.load(NeedContainerProvider.class);
         ArrayList<NeedContainerProvider> providers = Lists.newArrayList(serviceLoader);
+        Set<NeedContainer> needContainers = testContext.getAnnotations(NeedContainer.class);
 
-        providers.parallelStream().forEach(provider -> {
-            testContext.getAnnotations(NeedContainer.class).parallelStream().filter(p -> p.scope() == scope).map(p -> {
-                NeedDescriptor descriptor = new TestNeedDescriptor(testContext, name);
-                Object configuration = provider.configuration(descriptor);
+        for (NeedContainerProvider provider : providers) {
+            for (NeedContainer needContainer : needContainers) {
+                Set<Class<?>> requires = ImmutableSet.copyOf(needContainer.requires());
 
-                testContext.getConfigMethod(configuration.getClass())
-                        .map(m -> m.getMethod())
-                        .ifPresent(m -> {
-                            AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
-                                try {
-                                    m.setAccessible(true);
-                                    m.invoke(descriptor.getTestInstance(), configuration);
-                                } catch (Exception e) {
-                                    checkState(false, "Call to config method '%s' in test class '%s' failed.",
-                                            m.getName(), descriptor.getTestClassName());
-                                }
+                if (needContainer.scope() == scope && needContainer.contracts().length != 0) {
+                    //provisioned when one of its contracts is resolved
+                    lazyNeeds.put(ImmutableList.of(provider.getClass(), needContainer), provider);
+                } else if (needContainer.scope() == scope) {
+                    needContexts.add(graph.add(needContainer, requires, p -> create(provider, needContainer, p)));
+                } else if (scope == NeedScope.CLASS && needContainer.scope() == NeedScope.SUITE) {
+                    //the provider is part of the key as every provider is
+                    //handed every container annotation
+                    List<Object> key = ImmutableList.of(provider.getClass(), needContainer);
 
-                                return null;
-                            });
-                        });
+                    needContexts.add(graph.add(needContainer, requires, p -> CompletableFuture.supplyAsync(() -> {
+                        NeedContext needContext = registry.acquire(key,
+                                () -> join(create(provider, needContainer, p)));
+                        suiteNeeds.put(needContext, key);
 
-                Map<String, NeedInstance> instances = provider.init(descriptor, configuration);
-                NeedContext needContext = new NeedContext(provider, descriptor, instances, configuration);
-
-                return needContext;
+                        return needContext;
+                    }, TestNeedExecutor.INSTANCE)));
+                }
+            }
+        }
+    }
 
-            }).collect(toCollection(() -> needContexts));
+    /**
+     * Provision the given lazy container need the first time one of its
+     * contracts is resolved. The need is cleaned before it is returned just
+     * like the container needs that are injected eagerly.
+     *
+     * @param key the lazy container need key
+     * @return the need context
+     */
+    NeedContext provision(List<Object> key) {
+        CompletableFuture<NeedContext> needContext = provisionedNeeds.computeIfAbsent(key, p -> {
+            NeedContainer needContainer = (NeedContainer) p.get(1);
+            CompletableFuture<NeedContext> provisioned = graph.add(needContainer,
+                    ImmutableSet.copyOf(needContainer.requires()),
+                    dependencies -> create(lazyNeeds.get(p), needContainer, dependencies))
+                    .thenApply(this::prepare);
+            needContexts.add(provisioned);
 
+            return provisioned;
         });
 
+        return join(needContext);
+    }
+
+    CompletableFuture<NeedContext> create(NeedContainerProvider provider,
+            NeedContainer needContainer,
+            Map<Class<?>, NeedInstance> dependencies) {
+        NeedDescriptor descriptor = new TestNeedDescriptor(testContext, name, dependencies);
+        Object configuration = provider.configuration(descriptor);
+
+        testContext.getConfigMethod(configuration.getClass())
+                .map(m -> m.getMethod())
+                .ifPresent(m -> {
+                    AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
+                        try {
+                            m.setAccessible(true);
+                            m.invoke(descriptor.getTestInstance(), configuration);
+                        } catch (Exception e) {
+                            checkState(false, "Call to config method '%s' in test class '%s' failed.",
+                                    m.getName(), descriptor.getTestClassName());
+                        }
+
+                        return null;
+                    });
+                });
+
+        CompletionStage<Map<String, NeedInstance>> instances
+                = provider.initAsync(descriptor, configuration, TestNeedExecutor.INSTANCE);
+
+        return instances.toCompletableFuture()
+                .thenApply(p -> new NeedContext(provider, descriptor, p, configuration));
     }
 
     public void inject(ServiceLocator serviceLocator) {
-        needContexts.parallelStream().forEach(p -> {
-            p.getProvider().clean(p.getDescriptor(), p.getConfiguration());
+        graph.start();
+        join(snapshot()).parallelStream().forEach(p -> {
+            prepare(p);
             serviceLocator.addConstant(UUID.randomUUID().toString(), p);
             p.getInstances().forEach((k, v) -> {
                 serviceLocator.addConstant(
@@ -103,12 +203,103 @@ public class TestNeedContainers {
                 serviceLocator.addConstant(k, v);
             });
         });
+
+        //lazy needs provisioned by a previous test method were injected above
+        lazyNeeds.keySet().stream().filter(p -> !provisionedNeeds.containsKey(p)).forEach(key -> {
+            NeedContainer needContainer = (NeedContainer) key.get(1);
+
+            for (Class<?> contract : needContainer.contracts()) {
+                serviceLocator.replaceWithLazyConstant(contract, UUID.randomUUID().toString(), () -> {
+                    NeedContext needContext = provision(key);
+                    Optional<NeedInstance> instance = needContext.findInstance(contract);
+                    checkState(instance.isPresent(), "Container need '%s' does not provide contract '%s'.",
+                            needContainer.value(), contract.getSimpleName());
+
+                    return instance.get().getInstance();
+                });
+            }
+        });
+    }
+
+    /**
+     * Clean the given container need before it is used by a test. Shared
+     * needs are cleaned when they are handed to another test class so they are
+     * only cleaned here before their first use.
+     *
+     * @param needContext the need context
+     * @return the need context
+     */
+    NeedContext prepare(NeedContext needContext) {
+        if (needContext.markInjected() || !isShared(needContext)) {
+            needContext.getProvider().clean(needContext.getDescriptor(), needContext.getConfiguration());
+        }
+
+        return needContext;
+    }
+
+    public void clean() {
+        graph.start();
+        join(snapshot()).parallelStream()
+                .filter(p -> !isShared(p))
+                .forEach(p -> {
+                    p.getProvider().clean(p.getDescriptor(), p.getConfiguration());
+                });
     }
 
     public void destory() {
-        needContexts.parallelStream().forEach(p -> {
-            p.getProvider().destroy(p.getDescriptor(), p.getConfiguration());
-        });
+        graph.start();
+
+        //container needs are destroyed after the needs that depend on them
+        TreeMap<Integer, List<NeedContext>> levels = joinCompleted(snapshot()).stream()
+                .filter(p -> !suiteNeeds.containsKey(p))
+                .collect(groupingBy(graph::getDepth, TreeMap::new, toList()));
+
+        RuntimeException failure = null;
+
+        for (List<NeedContext> level : levels.descendingMap().values()) {
+            try {
+                join(level.stream().map(this::destroy).collect(toList()));
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+        //suite scoped needs are released for the next test class
+        suiteNeeds.values().forEach(registry::release);
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    CompletableFuture<Void> destroy(NeedContext needContext) {
+        NeedProvider provider = needContext.getProvider();
+        CompletionStage<Void> destroyed = provider.destroyAsync(needContext.getDescriptor(),
+                needContext.getConfiguration(),
+                TestNeedExecutor.INSTANCE);
+
+        return destroyed.toCompletableFuture();
+    }
+
+    List<CompletableFuture<NeedContext>> snapshot() {
+        synchronized (needContexts) {
+            return new ArrayList<>(needContexts);
+        }
+    }
+
+    /**
+     * Determine if the given need is a suite scoped need currently used by
+     * other test classes and therefore must not be cleaned.
+     *
+     * @param needContext the need context
+     * @return true if the need is shared, false otherwise
+     */
+    boolean isShared(NeedContext needContext) {
+        List<Object> key = suiteNeeds.get(needContext);
+
+        return key != null && registry.getReferences(key) > 1;
     }
 
 }
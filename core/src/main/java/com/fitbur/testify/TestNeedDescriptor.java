@@ -16,10 +16,16 @@
 package com.fitbur.testify;
 
 import com.fitbur.testify.need.NeedDescriptor;
+import com.fitbur.testify.need.NeedInstance;
+import static java.lang.String.format;
 import java.lang.annotation.Annotation;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+import java.util.Map;
 import java.util.Optional;
 import static java.util.Optional.ofNullable;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import static java.util.stream.Collectors.toSet;
 import static java.util.stream.Stream.of;
 
@@ -30,14 +36,28 @@ import static java.util.stream.Stream.of;
  */
 public class TestNeedDescriptor implements NeedDescriptor {
 
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
     private final TestContext testContext;
     private final String methodName;
+    private final String name;
+    private final Map<Class<?>, NeedInstance> dependencies;
 
     public TestNeedDescriptor(
             TestContext testContext,
             String methodName) {
+        this(testContext, methodName, emptyMap());
+    }
+
+    public TestNeedDescriptor(
+            TestContext testContext,
+            String methodName,
+            Map<Class<?>, NeedInstance> dependencies) {
         this.testContext = testContext;
         this.methodName = methodName;
+        this.dependencies = unmodifiableMap(dependencies);
+        this.name = format("%s_%s_%d",
+                testContext.getTestClassName(), methodName, SEQUENCE.incrementAndGet());
     }
 
     @Override
@@ -60,6 +80,16 @@ public class TestNeedDescriptor implements NeedDescriptor {
         return methodName;
     }
 
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Map<Class<?>, NeedInstance> getDependencies() {
+        return dependencies;
+    }
+
     @Override
     public <T extends Annotation> Optional<T> getAnnotation(Class<T> type) {
         T result = testContext.getTestInstance().getClass().getAnnotation(type);
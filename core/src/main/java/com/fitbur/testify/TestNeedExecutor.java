@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A JVM-wide executor needs are initialized and destroyed on. Starting a need
+ * typically blocks on I/O so needs are run on their own pool of daemon threads
+ * instead of the common fork join pool used by parallel streams.
+ *
+ * @author saden
+ */
+public class TestNeedExecutor implements Executor {
+
+    public static final TestNeedExecutor INSTANCE = new TestNeedExecutor();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(new DaemonThreadFactory());
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    /**
+     * Wait for all the given futures to complete and get their results. All
+     * futures are waited for even if one of them fails so that the needs
+     * which did start can still be destroyed.
+     *
+     * @param <T> the result type
+     * @param futures the futures
+     * @return the results in the order of the given futures
+     */
+    public static <T> List<T> join(List<CompletableFuture<T>> futures) {
+        join(CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])));
+
+        return futures.stream().map(CompletableFuture::join).collect(toList());
+    }
+
+    /**
+     * Wait for the given future to complete and get its result. The cause of a
+     * failed future is rethrown as is.
+     *
+     * @param <T> the result type
+     * @param future the future
+     * @return the result of the future
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for all the given futures to complete and get the results of the
+     * futures that completed normally. Failures are ignored as they are
+     * reported when the futures are joined.
+     *
+     * @param <T> the result type
+     * @param futures the futures
+     * @return the results of the futures that completed normally
+     */
+    public static <T> List<T> joinCompleted(List<CompletableFuture<T>> futures) {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+                .handle((result, error) -> result)
+                .join();
+
+        return futures.stream()
+                .filter(p -> !p.isCompletedExceptionally())
+                .map(CompletableFuture::join)
+                .collect(toList());
+    }
+
+    static class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "testify-need-" + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify;
+
+import com.fitbur.testify.need.NeedContext;
+import com.fitbur.testify.need.NeedInstance;
+import static java.lang.String.format;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * A graph of needs that depend on the contracts of other needs. Needs that do
+ * not require any contract are initialized right away and concurrently. A
+ * need that requires contracts is initialized as soon as the needs providing
+ * all of its contracts are initialized and is handed the need instances that
+ * provide them. The needs of a graph can also depend on the needs of a parent
+ * graph (i.e. method scoped needs on class scoped needs). The graph is started
+ * the first time its needs are waited for, at which point a need whose
+ * contracts are not provided by any need fails.
+ *
+ * @author saden
+ */
+public class TestNeedGraph {
+
+    private final TestNeedGraph parent;
+    private final Map<Class<?>, NeedInstance> contracts = new LinkedHashMap<>();
+    private final Map<NeedInstance, Integer> instanceDepths = new IdentityHashMap<>();
+    private final Map<NeedContext, Integer> depths = new IdentityHashMap<>();
+    private final List<Node> pending = new ArrayList<>();
+    private final CompletableFuture<Void> finished = new CompletableFuture<>();
+    private int running;
+    private boolean started;
+
+    public TestNeedGraph() {
+        this(null);
+    }
+
+    public TestNeedGraph(TestNeedGraph parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Add a need to the graph. A need that does not require any contract is
+     * created by the given factory right away, otherwise it is created once
+     * all the required contracts are provided.
+     *
+     * @param need the need being added, used to describe the need
+     * @param requires the contracts required by the need
+     * @param factory the factory that creates the need given the instances
+     * providing the required contracts
+     * @return a future need context
+     */
+    public CompletableFuture<NeedContext> add(Object need,
+            Set<Class<?>> requires,
+            Function<Map<Class<?>, NeedInstance>, CompletableFuture<NeedContext>> factory) {
+        Node node = new Node(need, requires, factory);
+
+        synchronized (this) {
+            if (!requires.isEmpty()) {
+                pending.add(node);
+            } else {
+                node.dependencies = new HashMap<>();
+                running++;
+            }
+        }
+
+        if (requires.isEmpty()) {
+            CompletableFuture<NeedContext> future;
+
+            try {
+                future = factory.apply(node.dependencies);
+            } catch (RuntimeException | Error e) {
+                synchronized (this) {
+                    running--;
+                }
+
+                throw e;
+            }
+
+            future.whenCompleteAsync((result, error) -> completed(node, result, error), TestNeedExecutor.INSTANCE);
+        } else {
+            update();
+        }
+
+        return node.result;
+    }
+
+    /**
+     * Start the graph. Needs that wait for contracts no need provides are
+     * failed once no other need of the graph is being initialized. Needs can
+     * still be added to a started graph (i.e. lazy needs provisioned when one
+     * of their contracts is resolved), they are initialized right away if the
+     * contracts they require are provided and failed otherwise. Starting a
+     * graph also starts its parent.
+     */
+    public void start() {
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+
+            started = true;
+
+            if (parent != null) {
+                running++;
+            }
+        }
+
+        if (parent != null) {
+            parent.start();
+            parent.finished.whenCompleteAsync((result, error) -> {
+                synchronized (this) {
+                    running--;
+                }
+
+                update();
+            }, TestNeedExecutor.INSTANCE);
+        } else {
+            update();
+        }
+    }
+
+    /**
+     * Get the depth of the given need in the graph. Needs that do not depend
+     * on other needs of the graph have a depth of 0 and needs that depend on
+     * other needs are deeper than all the needs they depend on.
+     *
+     * @param needContext the need context
+     * @return the depth of the need
+     */
+    public synchronized int getDepth(NeedContext needContext) {
+        return depths.getOrDefault(needContext, 0);
+    }
+
+    synchronized Optional<NeedInstance> find(Class<?> contract) {
+        NeedInstance instance = contracts.get(contract);
+
+        if (instance == null) {
+            instance = contracts.entrySet().stream()
+                    .filter(p -> contract.isAssignableFrom(p.getKey()))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        if (instance == null && parent != null) {
+            return parent.find(contract);
+        }
+
+        return Optional.ofNullable(instance);
+    }
+
+    Optional<Map<Class<?>, NeedInstance>> resolve(Set<Class<?>> requires) {
+        Map<Class<?>, NeedInstance> dependencies = new HashMap<>();
+
+        for (Class<?> contract : requires) {
+            Optional<NeedInstance> instance = find(contract);
+
+            if (!instance.isPresent()) {
+                return empty();
+            }
+
+            dependencies.put(contract, instance.get());
+        }
+
+        return of(dependencies);
+    }
+
+    void completed(Node node, NeedContext needContext, Throwable error) {
+        synchronized (this) {
+            running--;
+
+            if (needContext != null) {
+                int depth = node.dependencies.values().stream()
+                        .mapToInt(p -> instanceDepths.getOrDefault(p, -1) + 1)
+                        .max()
+                        .orElse(0);
+
+                depths.put(needContext, depth);
+                for (NeedInstance instance : needContext.getInstances().values()) {
+                    instanceDepths.put(instance, depth);
+
+                    for (Object contract : instance.getContracts()) {
+                        contracts.putIfAbsent((Class<?>) contract, instance);
+                    }
+                }
+            }
+        }
+
+        if (error == null) {
+            node.result.complete(needContext);
+        } else {
+            node.result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+        }
+
+        update();
+    }
+
+    void update() {
+        List<Node> ready = new ArrayList<>();
+        List<Node> stalled = new ArrayList<>();
+        boolean done;
+
+        synchronized (this) {
+            for (Iterator<Node> iterator = pending.iterator(); iterator.hasNext();) {
+                Node node = iterator.next();
+                Optional<Map<Class<?>, NeedInstance>> dependencies = resolve(node.requires);
+
+                if (dependencies.isPresent()) {
+                    iterator.remove();
+                    node.dependencies = dependencies.get();
+                    ready.add(node);
+                    running++;
+                }
+            }
+
+            done = started && running == 0;
+
+            if (done) {
+                stalled.addAll(pending);
+                pending.clear();
+            }
+        }
+
+        for (Node node : ready) {
+            CompletableFuture<NeedContext> future;
+
+            try {
+                future = node.factory.apply(node.dependencies);
+            } catch (RuntimeException | Error e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+
+            future.whenCompleteAsync((result, error) -> completed(node, result, error), TestNeedExecutor.INSTANCE);
+        }
+
+        stalled.forEach(p -> p.result.completeExceptionally(new IllegalStateException(
+                format("Need '%s' requires contracts %s that are not provided by any need.",
+                        p.need, p.requires))));
+
+        if (done) {
+            finished.complete(null);
+        }
+    }
+
+    static class Node {
+
+        private final Object need;
+        private final Set<Class<?>> requires;
+        private final Function<Map<Class<?>, NeedInstance>, CompletableFuture<NeedContext>> factory;
+        private final CompletableFuture<NeedContext> result = new CompletableFuture<>();
+        private Map<Class<?>, NeedInstance> dependencies;
+
+        Node(Object need,
+                Set<Class<?>> requires,
+                Function<Map<Class<?>, NeedInstance>, CompletableFuture<NeedContext>> factory) {
+            this.need = need;
+            this.requires = requires;
+            this.factory = factory;
+        }
+
+    }
+
+}
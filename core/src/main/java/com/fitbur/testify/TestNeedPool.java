@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify;
+
+import static com.fitbur.testify.TestNeedExecutor.join;
+import static com.fitbur.testify.TestNeedExecutor.joinCompleted;
+import com.fitbur.testify.need.NeedContext;
+import com.fitbur.testify.need.NeedDescriptor;
+import com.fitbur.testify.need.NeedProvider;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A JVM-wide pool of pre-warmed method scoped needs. Needs are pooled by a
+ * fingerprint of the need and its configuration. Each pool keeps as many
+ * idle needs ready, in addition to the needs handed out, as configured with
+ * the {@value #SIZE_PROPERTY} system property. Needs are pre-warmed in the
+ * background when a need is handed out and are cleaned in the background when
+ * they are returned to a pool that is not full, otherwise they are destroyed.
+ * Only needs whose provider implements
+ * {@link NeedProvider#clean(com.fitbur.testify.need.NeedDescriptor, java.lang.Object)}
+ * can be pooled, other needs are created and destroyed for every test method.
+ * Pooling is disabled by default and idle needs are destroyed on JVM shutdown.
+ *
+ * @author saden
+ */
+public class TestNeedPool {
+
+    /**
+     * The system property used to configure the number of idle needs kept in
+     * each pool. A value of 0, the default, disables pooling.
+     */
+    public static final String SIZE_PROPERTY = "testify.need.pool.size";
+    public static final TestNeedPool INSTANCE = new TestNeedPool(Integer.getInteger(SIZE_PROPERTY, 0));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::clear));
+    }
+
+    private final int size;
+    private final Map<Object, Pool> pools = new ConcurrentHashMap<>();
+
+    public TestNeedPool(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Determine if needs of the given provider can be pooled.
+     *
+     * @param providerType the need provider type
+     * @return true if the needs can be pooled, false otherwise
+     */
+    public boolean isPoolable(Class<? extends NeedProvider> providerType) {
+        if (size <= 0) {
+            return false;
+        }
+
+        try {
+            //a need that is not cleaned would leak state between test methods
+            return providerType.getMethod("clean", NeedDescriptor.class, Object.class)
+                    .getDeclaringClass() != NeedProvider.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Take a need from the pool with the given fingerprint, creating it with
+     * the given factory if no need is ready, and refill the pool in the
+     * background.
+     *
+     * @param fingerprint the need fingerprint
+     * @param factory the factory used to create needs
+     * @return a future need context
+     */
+    public CompletableFuture<NeedContext> acquire(Object fingerprint,
+            Supplier<CompletableFuture<NeedContext>> factory) {
+        return pools.computeIfAbsent(fingerprint, p -> new Pool()).acquire(factory);
+    }
+
+    /**
+     * Clean the given need in the background and return it to the pool with
+     * the given fingerprint, or destroy it if the pool is full.
+     *
+     * @param fingerprint the need fingerprint
+     * @param needContext the need context
+     */
+    public void release(Object fingerprint, NeedContext needContext) {
+        Pool pool = pools.get(fingerprint);
+
+        if (pool == null) {
+            destroy(needContext);
+        } else {
+            pool.release(needContext);
+        }
+    }
+
+    /**
+     * Destroy all idle needs.
+     */
+    public void clear() {
+        List<CompletableFuture<NeedContext>> idle = new ArrayList<>();
+        pools.values().forEach(p -> idle.addAll(p.drain()));
+        pools.clear();
+
+        join(joinCompleted(idle).stream().map(TestNeedPool::destroy).collect(toList()));
+    }
+
+    static CompletableFuture<Void> destroy(NeedContext needContext) {
+        NeedProvider provider = needContext.getProvider();
+        CompletionStage<Void> destroyed = provider.destroyAsync(needContext.getDescriptor(),
+                needContext.getConfiguration(),
+                TestNeedExecutor.INSTANCE);
+
+        return destroyed.toCompletableFuture();
+    }
+
+    class Pool {
+
+        //idle needs that are ready, pre-warming or being cleaned
+        private final Deque<CompletableFuture<NeedContext>> idle = new ArrayDeque<>();
+
+        synchronized CompletableFuture<NeedContext> acquire(Supplier<CompletableFuture<NeedContext>> factory) {
+            CompletableFuture<NeedContext> needContext = idle.poll();
+
+            if (needContext == null) {
+                needContext = create(factory);
+            }
+
+            //pre-warmed needs are initialized while the test method runs
+            while (idle.size() < size) {
+                idle.add(create(factory));
+            }
+
+            return needContext;
+        }
+
+        CompletableFuture<NeedContext> create(Supplier<CompletableFuture<NeedContext>> factory) {
+            CompletableFuture<NeedContext> needContext = factory.get();
+
+            //a need that failed to initialize is never handed out by the pool
+            needContext.whenComplete((result, error) -> {
+                if (error != null) {
+                    discard(needContext);
+                }
+            });
+
+            return needContext;
+        }
+
+        synchronized void discard(CompletableFuture<NeedContext> needContext) {
+            idle.remove(needContext);
+        }
+
+        void release(NeedContext needContext) {
+            synchronized (this) {
+                if (idle.size() < size) {
+                    idle.add(CompletableFuture.supplyAsync(() -> {
+                        needContext.getProvider().clean(needContext.getDescriptor(),
+                                needContext.getConfiguration());
+
+                        return needContext;
+                    }, TestNeedExecutor.INSTANCE));
+
+                    return;
+                }
+            }
+
+            destroy(needContext).join();
+        }
+
+        synchronized List<CompletableFuture<NeedContext>> drain() {
+            List<CompletableFuture<NeedContext>> drained = new ArrayList<>(idle);
+            idle.clear();
+
+            return drained;
+        }
+
+    }
+
+}
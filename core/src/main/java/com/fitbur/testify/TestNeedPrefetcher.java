@@ -0,0 +1,203 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify;
+
+import com.fitbur.asm.AnnotationVisitor;
+import com.fitbur.asm.ClassReader;
+import com.fitbur.asm.ClassVisitor;
+import static com.fitbur.asm.Opcodes.ASM5;
+import com.fitbur.asm.Type;
+import com.fitbur.guava.common.collect.ImmutableSet;
+import com.fitbur.guava.common.collect.Lists;
+import com.fitbur.testify.need.NeedContainer;
+import com.fitbur.testify.need.NeedContainerProvider;
+import com.fitbur.testify.need.NeedContainers;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A JVM-wide prefetcher of container needs. The first time a test runner is
+ * created the test classes on the classpath are scanned for
+ * {@link NeedContainer} declarations in the background and every container
+ * need provider is handed the declared container needs to prepare them, for
+ * example by downloading their images, while the first test classes run.
+ * Only classpath directories are scanned and class files are read without
+ * loading classes that do not declare container needs. Prefetching is
+ * enabled by default and can be disabled with the {@value #ENABLED_PROPERTY}
+ * system property.
+ *
+ * @author saden
+ */
+public class TestNeedPrefetcher {
+
+    /**
+     * The system property used to enable or disable prefetching.
+     */
+    public static final String ENABLED_PROPERTY = "testify.need.prefetch";
+    public static final TestNeedPrefetcher INSTANCE
+            = new TestNeedPrefetcher(Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true")));
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("testify");
+    private static final Set<String> DESCRIPTORS = ImmutableSet.of(
+            Type.getDescriptor(NeedContainer.class),
+            Type.getDescriptor(NeedContainers.class));
+
+    private final boolean enabled;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile CompletableFuture<Void> prefetched = CompletableFuture.completedFuture(null);
+
+    public TestNeedPrefetcher(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Start prefetching container needs in the background if prefetching is
+     * enabled and has not already been started.
+     *
+     * @param classLoader the class loader of the test classes
+     */
+    public void start(ClassLoader classLoader) {
+        if (!enabled || !started.compareAndSet(false, true)) {
+            return;
+        }
+
+        prefetched = CompletableFuture.runAsync(() -> prefetch(classLoader), TestNeedExecutor.INSTANCE)
+                .exceptionally(e -> {
+                    //prefetching is an optimization, the needs are prepared
+                    //again when they are initialized
+                    LOGGER.warn("Prefetching container needs failed due to: '{}'", e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Get a future that completes once the container needs found by the last
+     * prefetch have been prepared.
+     *
+     * @return the prefetch future
+     */
+    public CompletableFuture<Void> getPrefetched() {
+        return prefetched;
+    }
+
+    void prefetch(ClassLoader classLoader) {
+        Set<NeedContainer> needContainers = scan(classLoader);
+
+        if (needContainers.isEmpty()) {
+            return;
+        }
+
+        LOGGER.debug("Prefetching {} container needs", needContainers.size());
+        ServiceLoader<NeedContainerProvider> serviceLoader
+                = ServiceLoader.load(NeedContainerProvider.class, classLoader);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (NeedContainerProvider<?> provider : serviceLoader) {
+            futures.add(provider.prefetch(needContainers, TestNeedExecutor.INSTANCE).toCompletableFuture());
+        }
+
+        TestNeedExecutor.join(futures);
+    }
+
+    /**
+     * Find the container needs declared by the classes in the classpath
+     * directories of the given class loader.
+     *
+     * @param classLoader the class loader
+     * @return the declared container needs
+     */
+    public Set<NeedContainer> scan(ClassLoader classLoader) {
+        Set<NeedContainer> needContainers = new LinkedHashSet<>();
+
+        try {
+            for (URL url : Collections.list(classLoader.getResources(""))) {
+                if (!"file".equals(url.getProtocol())) {
+                    continue;
+                }
+
+                Path root = Paths.get(url.toURI());
+
+                try (Stream<Path> paths = Files.walk(root)) {
+                    paths.filter(p -> p.toString().endsWith(".class"))
+                            .filter(this::isDeclaring)
+                            .map(p -> getClassName(root, p))
+                            .forEach(p -> needContainers.addAll(getNeedContainers(p, classLoader)));
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            LOGGER.warn("Scanning the classpath for container needs failed due to: '{}'", e.getMessage());
+        }
+
+        return needContainers;
+    }
+
+    boolean isDeclaring(Path path) {
+        AtomicBoolean declaring = new AtomicBoolean();
+
+        try (InputStream stream = Files.newInputStream(path)) {
+            new ClassReader(stream).accept(new ClassVisitor(ASM5) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                    if (DESCRIPTORS.contains(desc)) {
+                        declaring.set(true);
+                    }
+
+                    return null;
+                }
+            }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        } catch (IOException | RuntimeException e) {
+            //class files that can not be read do not declare container needs
+        }
+
+        return declaring.get();
+    }
+
+    String getClassName(Path root, Path path) {
+        String name = root.relativize(path).toString();
+
+        return name.substring(0, name.length() - ".class".length())
+                .replace(path.getFileSystem().getSeparator(), ".");
+    }
+
+    Set<NeedContainer> getNeedContainers(String className, ClassLoader classLoader) {
+        try {
+            //the class is not initialized
+            Class<?> type = Class.forName(className, false, classLoader);
+
+            return new LinkedHashSet<>(Lists.newArrayList(type.getAnnotationsByType(NeedContainer.class)));
+        } catch (ClassNotFoundException | LinkageError e) {
+            return Collections.emptySet();
+        }
+    }
+
+}
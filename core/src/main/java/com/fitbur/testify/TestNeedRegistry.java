@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify;
+
+import com.fitbur.testify.need.NeedContext;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A JVM-wide registry of suite scoped needs. A suite scoped need is created by
+ * the first test class that declares it and shared with every test class that
+ * declares an equal need afterwards. The registry counts the test classes
+ * using a need and cleans the need when it is handed to a new user after all
+ * previous users released it. Needs are destroyed when the registry is cleared,
+ * at the latest on JVM shutdown.
+ *
+ * @author saden
+ */
+public class TestNeedRegistry {
+
+    public static final TestNeedRegistry INSTANCE = new TestNeedRegistry();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::clear));
+    }
+
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Get the need registered with the given key, creating it with the given
+     * factory if it does not exist, and register the caller as a user of the
+     * need.
+     *
+     * @param key the need key
+     * @param factory the factory used to create the need
+     * @return the shared need context
+     */
+    public NeedContext acquire(Object key, Supplier<NeedContext> factory) {
+        return entries.computeIfAbsent(key, p -> new Entry()).acquire(factory);
+    }
+
+    /**
+     * Unregister the caller as a user of the need registered with the given
+     * key. The need is kept for the next user.
+     *
+     * @param key the need key
+     */
+    public void release(Object key) {
+        Entry entry = entries.get(key);
+
+        if (entry != null) {
+            entry.release();
+        }
+    }
+
+    /**
+     * Get the number of users of the need registered with the given key.
+     *
+     * @param key the need key
+     * @return the number of users
+     */
+    public int getReferences(Object key) {
+        Entry entry = entries.get(key);
+
+        return entry == null ? 0 : entry.getReferences();
+    }
+
+    /**
+     * Destroy all needs regardless of their users.
+     */
+    public void clear() {
+        entries.values().forEach(Entry::destroy);
+        entries.clear();
+    }
+
+    static class Entry {
+
+        private NeedContext context;
+        private int references;
+
+        synchronized NeedContext acquire(Supplier<NeedContext> factory) {
+            if (context == null) {
+                context = factory.get();
+            } else if (references == 0) {
+                //a need is only cleaned when no other test class is using it
+                context.getProvider().clean(context.getDescriptor(), context.getConfiguration());
+            }
+
+            references++;
+
+            return context;
+        }
+
+        synchronized void release() {
+            if (references > 0) {
+                references--;
+            }
+        }
+
+        synchronized int getReferences() {
+            return references;
+        }
+
+        synchronized void destroy() {
+            if (context != null) {
+                context.getProvider().destroy(context.getDescriptor(), context.getConfiguration());
+                context = null;
+            }
+        }
+
+    }
+
+}
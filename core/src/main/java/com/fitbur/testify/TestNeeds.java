@@ -16,22 +16,43 @@
 package com.fitbur.testify;
 
 import static com.fitbur.guava.common.base.Preconditions.checkState;
+import com.fitbur.guava.common.collect.ImmutableList;
+import com.fitbur.guava.common.collect.ImmutableSet;
+import static com.fitbur.testify.TestNeedExecutor.join;
+import static com.fitbur.testify.TestNeedExecutor.joinCompleted;
 import com.fitbur.testify.di.ServiceLocator;
 import com.fitbur.testify.need.Need;
 import com.fitbur.testify.need.NeedContext;
 import com.fitbur.testify.need.NeedDescriptor;
+import com.fitbur.testify.need.NeedInstance;
 import com.fitbur.testify.need.NeedProvider;
 import com.fitbur.testify.need.NeedScope;
 import java.lang.annotation.Annotation;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.synchronizedList;
+import static java.util.Collections.synchronizedMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
-import static java.util.stream.Collectors.toSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
 
 /**
- * A class for managing needs.
+ * A class for managing needs. Needs of the class scope are managed together
+ * with suite scoped needs, which are shared through the
+ * {@link TestNeedRegistry} instead of being created for every test class.
+ * Method scoped needs are taken from the {@link TestNeedPool} if they can be
+ * pooled.
  *
  * @author saden
  */
@@ -40,62 +61,163 @@ public class TestNeeds {
     private final TestContext testContext;
     private final String name;
     private final NeedScope scope;
-    private Set<NeedContext> needContexts;
-    private Map instances;
-    private NeedContext needContext;
+    private final TestNeedRegistry registry;
+    private final TestNeedPool pool;
+    private final TestNeedGraph graph;
+    private List<CompletableFuture<NeedContext>> needContexts;
+    private List<Need> lazyNeeds;
+    private Map<Need, CompletableFuture<NeedContext>> provisionedNeeds;
+    private Map<NeedContext, Need> suiteNeeds;
+    private Map<NeedContext, Object> pooledNeeds;
 
     public TestNeeds(TestContext testContext, String name, NeedScope scope) {
+        this(testContext, name, scope, new TestNeedGraph());
+    }
+
+    public TestNeeds(TestContext testContext, String name, NeedScope scope, TestNeedGraph graph) {
+        this(testContext, name, scope, graph, TestNeedRegistry.INSTANCE, TestNeedPool.INSTANCE);
+    }
+
+    public TestNeeds(TestContext testContext,
+            String name,
+            NeedScope scope,
+            TestNeedGraph graph,
+            TestNeedRegistry registry,
+            TestNeedPool pool) {
         this.testContext = testContext;
         this.name = name;
         this.scope = scope;
+        this.graph = graph;
+        this.registry = registry;
+        this.pool = pool;
     }
 
+    /**
+     * Get the graph the needs are initialized in. Need containers that share
+     * the graph can provide contracts to the needs and the other way around.
+     *
+     * @return the need graph
+     */
+    public TestNeedGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Start initializing the needs. Needs are initialized concurrently on the
+     * {@link TestNeedExecutor} in the order of their dependencies and are only
+     * waited for when they are injected, cleaned or destroyed. Needs that
+     * declare their contracts are only initialized once a contract is resolved.
+     *
+     * @param <T> the annotation type
+     */
     public <T extends Annotation> void init() {
-        needContexts = testContext
-                .getAnnotations(Need.class)
-                .parallelStream()
-                .filter(p -> p.scope() == scope)
-                .map(p -> {
-                    try {
-                        Class<? extends NeedProvider> providerClass = p.value();
-                        NeedProvider provider = providerClass.newInstance();
-                        NeedDescriptor descriptor = new TestNeedDescriptor(testContext, name);
-                        Object configuration = provider.configuration(descriptor);
-                        testContext.getConfigMethod(configuration.getClass())
-                                .map(m -> m.getMethod())
-                                .ifPresent(m -> {
-                                    AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
-                                        try {
-                                            m.setAccessible(true);
-                                            m.invoke(descriptor.getTestInstance(), configuration);
-                                        } catch (Exception e) {
-                                            checkState(false, "Call to config method '%s' in test class '%s' failed.",
-                                                    m.getName(), descriptor.getTestClassName());
-                                        }
-
-                                        return null;
-                                    });
-                                });
-
-                        instances = provider.init(descriptor, configuration);
-                        needContext = new NeedContext(provider,
-                                descriptor,
-                                instances,
-                                configuration);
-
-                        return needContext;
-                    } catch (InstantiationException | IllegalAccessException e) {
-                        checkState(false, "Need provider '%s' could not be instanticated.",
-                                p.value().getSimpleName());
-                        return null;
-                    }
-                })
-                .collect(toSet());
+        Set<Need> needs = testContext.getAnnotations(Need.class);
+
+        suiteNeeds = synchronizedMap(new IdentityHashMap<>());
+        pooledNeeds = synchronizedMap(new IdentityHashMap<>());
+        needContexts = synchronizedList(new ArrayList<>());
+        lazyNeeds = new ArrayList<>();
+        provisionedNeeds = new ConcurrentHashMap<>();
+
+        for (Need need : needs) {
+            Set<Class<?>> requires = ImmutableSet.copyOf(need.requires());
+
+            if (need.scope() == scope && need.contracts().length != 0) {
+                //provisioned when one of its contracts is resolved
+                lazyNeeds.add(need);
+            } else if (need.scope() == scope) {
+                needContexts.add(add(need, requires));
+            } else if (scope == NeedScope.CLASS && need.scope() == NeedScope.SUITE) {
+                needContexts.add(graph.add(need, requires, p -> CompletableFuture.supplyAsync(() -> {
+                    NeedContext needContext = registry.acquire(need, () -> join(create(need, p)));
+                    suiteNeeds.put(needContext, need);
+
+                    return needContext;
+                }, TestNeedExecutor.INSTANCE)));
+            }
+        }
+    }
+
+    CompletableFuture<NeedContext> add(Need need, Set<Class<?>> requires) {
+        if (scope == NeedScope.METHOD && requires.isEmpty() && pool.isPoolable(need.value())) {
+            return graph.add(need, requires, p -> acquire(need));
+        }
+
+        return graph.add(need, requires, p -> create(need, p));
+    }
+
+    /**
+     * Provision the given lazy need the first time one of its contracts is
+     * resolved. The need is cleaned before it is returned just like the needs
+     * that are injected eagerly.
+     *
+     * @param need the lazy need
+     * @return the need context
+     */
+    NeedContext provision(Need need) {
+        CompletableFuture<NeedContext> needContext = provisionedNeeds.computeIfAbsent(need, p -> {
+            CompletableFuture<NeedContext> provisioned = add(p, ImmutableSet.copyOf(p.requires()))
+                    .thenApply(this::prepare);
+            needContexts.add(provisioned);
+
+            return provisioned;
+        });
+
+        return join(needContext);
+    }
+
+    CompletableFuture<NeedContext> acquire(Need need) {
+        //config methods are declared by the test class so needs configured by
+        //a config method are only shared by the methods of the test class
+        Object fingerprint = testContext.getConfigMethods().isEmpty()
+                ? need
+                : ImmutableList.of(need, testContext.getTestClass());
+
+        return pool.acquire(fingerprint, () -> create(need, emptyMap())).thenApply(p -> {
+            pooledNeeds.put(p, fingerprint);
+
+            return p;
+        });
+    }
+
+    CompletableFuture<NeedContext> create(Need need, Map<Class<?>, NeedInstance> dependencies) {
+        try {
+            Class<? extends NeedProvider> providerClass = need.value();
+            NeedProvider provider = providerClass.newInstance();
+            NeedDescriptor descriptor = new TestNeedDescriptor(testContext, name, dependencies);
+            Object configuration = provider.configuration(descriptor);
+            testContext.getConfigMethod(configuration.getClass())
+                    .map(m -> m.getMethod())
+                    .ifPresent(m -> {
+                        AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
+                            try {
+                                m.setAccessible(true);
+                                m.invoke(descriptor.getTestInstance(), configuration);
+                            } catch (Exception e) {
+                                checkState(false, "Call to config method '%s' in test class '%s' failed.",
+                                        m.getName(), descriptor.getTestClassName());
+                            }
+
+                            return null;
+                        });
+                    });
+
+            CompletionStage<Map<String, NeedInstance>> instances
+                    = provider.initAsync(descriptor, configuration, TestNeedExecutor.INSTANCE);
+
+            return instances.toCompletableFuture()
+                    .thenApply(p -> new NeedContext(provider, descriptor, p, configuration));
+        } catch (InstantiationException | IllegalAccessException e) {
+            checkState(false, "Need provider '%s' could not be instanticated.",
+                    need.value().getSimpleName());
+            return null;
+        }
     }
 
     public void inject(ServiceLocator serviceLocator) {
-        needContexts.parallelStream().forEach(p -> {
-            p.getProvider().clean(p.getDescriptor(), p.getConfiguration());
+        graph.start();
+        join(snapshot()).parallelStream().forEach(p -> {
+            prepare(p);
             serviceLocator.addConstant(UUID.randomUUID().toString(), p);
             p.getInstances().forEach((k, v) -> {
                 serviceLocator.replaceWithConstant(
@@ -105,12 +227,106 @@ public class TestNeeds {
                 serviceLocator.addConstant(k, v);
             });
         });
+
+        //lazy needs provisioned by a previous test method were injected above
+        lazyNeeds.stream().filter(p -> !provisionedNeeds.containsKey(p)).forEach(need -> {
+            for (Class<?> contract : need.contracts()) {
+                serviceLocator.replaceWithLazyConstant(contract, UUID.randomUUID().toString(), () -> {
+                    NeedContext needContext = provision(need);
+                    Optional<NeedInstance> instance = needContext.findInstance(contract);
+                    checkState(instance.isPresent(), "Need '%s' does not provide contract '%s'.",
+                            need.value().getSimpleName(), contract.getSimpleName());
+
+                    return instance.get().getInstance();
+                });
+            }
+        });
+    }
+
+    /**
+     * Clean the given need before it is used by a test. Shared and pooled
+     * needs are cleaned when they are handed to another test so they are only
+     * cleaned here before their first use.
+     *
+     * @param needContext the need context
+     * @return the need context
+     */
+    NeedContext prepare(NeedContext needContext) {
+        boolean handedOver = isShared(needContext) || pooledNeeds.containsKey(needContext);
+
+        if (needContext.markInjected() || !handedOver) {
+            needContext.getProvider().clean(needContext.getDescriptor(), needContext.getConfiguration());
+        }
+
+        return needContext;
+    }
+
+    public void clean() {
+        graph.start();
+        join(snapshot()).parallelStream()
+                .filter(p -> !isShared(p))
+                .forEach(p -> {
+                    p.getProvider().clean(p.getDescriptor(), p.getConfiguration());
+                });
     }
 
     public void destory() {
-        needContexts.parallelStream().forEach(p -> {
-            p.getProvider().destroy(p.getDescriptor(), p.getConfiguration());
-        });
+        graph.start();
+
+        //needs are destroyed after the needs that depend on them
+        TreeMap<Integer, List<NeedContext>> levels = joinCompleted(snapshot()).stream()
+                .filter(p -> !suiteNeeds.containsKey(p))
+                .filter(p -> !pooledNeeds.containsKey(p))
+                .collect(groupingBy(graph::getDepth, TreeMap::new, toList()));
+
+        RuntimeException failure = null;
+
+        for (List<NeedContext> level : levels.descendingMap().values()) {
+            try {
+                join(level.stream().map(this::destroy).collect(toList()));
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+        pooledNeeds.forEach((k, v) -> pool.release(v, k));
+
+        //suite scoped needs are released for the next test class
+        suiteNeeds.values().forEach(registry::release);
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    CompletableFuture<Void> destroy(NeedContext needContext) {
+        NeedProvider provider = needContext.getProvider();
+        CompletionStage<Void> destroyed = provider.destroyAsync(needContext.getDescriptor(),
+                needContext.getConfiguration(),
+                TestNeedExecutor.INSTANCE);
+
+        return destroyed.toCompletableFuture();
+    }
+
+    List<CompletableFuture<NeedContext>> snapshot() {
+        synchronized (needContexts) {
+            return new ArrayList<>(needContexts);
+        }
+    }
+
+    /**
+     * Determine if the given need is a suite scoped need currently used by
+     * other test classes and therefore must not be cleaned.
+     *
+     * @param needContext the need context
+     * @return true if the need is shared, false otherwise
+     */
+    boolean isShared(NeedContext needContext) {
+        Need need = suiteNeeds.get(needContext);
+
+        return need != null && registry.getReferences(need) > 1;
     }
 
 }
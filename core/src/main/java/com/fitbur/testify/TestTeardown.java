@@ -0,0 +1,221 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify;
+
+import static com.fitbur.guava.common.base.Preconditions.checkState;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A class for tearing down test methods in the background so the next test
+ * method can be set up while the previous one is torn down. Teardown tasks
+ * run on a pool of daemon threads shared by all test classes. The number of
+ * threads is configured with the {@value #THREADS_PROPERTY} system property
+ * and a value of 0 runs teardown tasks on the calling thread. When all
+ * threads are busy submitting a teardown task blocks until one of them
+ * completes. Test runners drain their pending teardown tasks at the end of
+ * the test class to surface teardown failures, either to the failure handler
+ * the task was submitted with or by rethrowing them, and pending teardown
+ * tasks are waited for on JVM shutdown.
+ *
+ * @author saden
+ */
+public class TestTeardown {
+
+    /**
+     * The system property used to configure the number of threads teardown
+     * tasks are run on.
+     */
+    public static final String THREADS_PROPERTY = "testify.teardown.threads";
+
+    private final Executor executor;
+    private final Semaphore permits;
+    private final List<Task> pending = new ArrayList<>();
+
+    public TestTeardown() {
+        this(SharedExecutor.INSTANCE, SharedExecutor.PERMITS);
+    }
+
+    public TestTeardown(Executor executor, Semaphore permits) {
+        this.executor = executor;
+        this.permits = permits;
+    }
+
+    /**
+     * Run the given teardown task in the background, waiting for a free
+     * thread if all threads are busy.
+     *
+     * @param task the teardown task
+     */
+    public void submit(Runnable task) {
+        submit(task, null);
+    }
+
+    /**
+     * Run the given teardown task in the background, waiting for a free
+     * thread if all threads are busy. If the task fails the failure is passed
+     * to the given failure handler when the teardown tasks are drained.
+     *
+     * @param task the teardown task
+     * @param failureHandler the failure handler
+     */
+    public void submit(Runnable task, Consumer<Throwable> failureHandler) {
+        permits.acquireUninterruptibly();
+
+        CompletableFuture<Void> future;
+
+        try {
+            future = CompletableFuture.runAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+
+        future.whenComplete((result, error) -> permits.release());
+
+        synchronized (pending) {
+            pending.add(new Task(future, failureHandler));
+        }
+    }
+
+    /**
+     * Wait for all submitted teardown tasks to complete on the calling thread.
+     * Failures of tasks submitted with a failure handler are passed to their
+     * handler, and the failure of the first failed task without a handler is
+     * rethrown once all tasks completed.
+     */
+    public void drain() {
+        List<Task> tasks;
+
+        synchronized (pending) {
+            tasks = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        RuntimeException unhandled = null;
+
+        for (Task task : tasks) {
+            try {
+                task.future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+
+                if (task.failureHandler != null) {
+                    task.failureHandler.accept(cause);
+                } else if (unhandled == null) {
+                    unhandled = cause instanceof RuntimeException
+                            ? (RuntimeException) cause
+                            : new IllegalStateException(cause);
+                }
+            }
+        }
+
+        if (unhandled != null) {
+            throw unhandled;
+        }
+    }
+
+    static int getThreads() {
+        String value = System.getProperty(THREADS_PROPERTY, "2").trim();
+        int threads;
+
+        try {
+            threads = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            checkState(false, "System property '%s' value '%s' is not a number.", THREADS_PROPERTY, value);
+            //not reachable
+            throw new IllegalStateException(e);
+        }
+
+        checkState(threads >= 0, "System property '%s' value '%s' is negative.", THREADS_PROPERTY, value);
+
+        return threads;
+    }
+
+    /**
+     * A submitted teardown task.
+     */
+    static class Task {
+
+        private final CompletableFuture<Void> future;
+        private final Consumer<Throwable> failureHandler;
+
+        Task(CompletableFuture<Void> future, Consumer<Throwable> failureHandler) {
+            this.future = future;
+            this.failureHandler = failureHandler;
+        }
+
+    }
+
+    /**
+     * Lazily created JVM-wide pool so concurrently running test classes share
+     * one bound on the number of teardown threads.
+     */
+    static class SharedExecutor {
+
+        static final int THREADS = getThreads();
+        static final Executor INSTANCE;
+        static final Semaphore PERMITS = new Semaphore(THREADS == 0 ? Integer.MAX_VALUE : THREADS);
+
+        static {
+            if (THREADS == 0) {
+                INSTANCE = Runnable::run;
+            } else {
+                ExecutorService executor = Executors.newFixedThreadPool(THREADS, new DaemonThreadFactory());
+                INSTANCE = executor;
+
+                //teardown threads are daemon threads, do not let the JVM exit
+                //before pending containers and servers are stopped
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    executor.shutdown();
+
+                    try {
+                        executor.awaitTermination(1, TimeUnit.MINUTES);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+            }
+        }
+
+    }
+
+    static class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "testify-teardown-" + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+
+    }
+
+}
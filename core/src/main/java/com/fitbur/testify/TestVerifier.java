@@ -27,5 +27,5 @@ public interface TestVerifier {
 
     void configuration();
 
-    void wiring();
+    void wiring(TestInvocation invocation);
 }
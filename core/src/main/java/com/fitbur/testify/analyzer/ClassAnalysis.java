@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.analyzer;
+
+import com.fitbur.asm.ClassVisitor;
+import com.fitbur.asm.FieldVisitor;
+import com.fitbur.asm.MethodVisitor;
+import static com.fitbur.asm.Opcodes.ACC_SYNTHETIC;
+import static com.fitbur.asm.Opcodes.ASM5;
+import com.fitbur.testify.TestAnalysis;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of visiting the fields and methods of a class. An analysis is
+ * recorded once per class file and replayed to the test and cut class
+ * analyzers instead of parsing the class file again. Analyses can also be
+ * generated at compile time by the testify annotation processor as a resource
+ * located at {@link TestAnalysis#GENERATED_LOCATION} followed by the binary
+ * name of the analyzed class. Synthetic members are not part of an analysis,
+ * so analyses of class files match the source model the processor sees.
+ * Analyses are stored as text, each line describing a member as
+ * {@code field|method <access> <name> <descriptor>}.
+ *
+ * @author saden
+ */
+public class ClassAnalysis {
+
+    private final String hash;
+    private final List<Member> members = new ArrayList<>();
+
+    public ClassAnalysis(String hash) {
+        this.hash = hash;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public List<Member> getMembers() {
+        return members;
+    }
+
+    void addField(int access, String name, String desc) {
+        members.add(new Member(true, access, name, desc));
+    }
+
+    void addMethod(int access, String name, String desc) {
+        members.add(new Member(false, access, name, desc));
+    }
+
+    /**
+     * Read the members of an analysis written by {@link #write(Writer)} or
+     * generated by the testify annotation processor.
+     *
+     * @param hash the hash of the analyzed class
+     * @param reader the reader positioned at the first member
+     * @return the analysis
+     * @throws IOException thrown if the analysis could not be read
+     * @throws NumberFormatException thrown if a member access is malformed
+     */
+    public static ClassAnalysis read(String hash, BufferedReader reader) throws IOException {
+        ClassAnalysis analysis = new ClassAnalysis(hash);
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            String[] parts = line.split(" ");
+
+            if (parts.length != 4) {
+                continue;
+            }
+
+            int access = Integer.parseInt(parts[1]);
+
+            if ("field".equals(parts[0])) {
+                analysis.addField(access, parts[2], parts[3]);
+            } else {
+                analysis.addMethod(access, parts[2], parts[3]);
+            }
+        }
+
+        return analysis;
+    }
+
+    /**
+     * Write the members of this analysis one per line.
+     *
+     * @param writer the writer
+     * @throws IOException thrown if the analysis could not be written
+     */
+    public void write(Writer writer) throws IOException {
+        for (Member member : members) {
+            writer.write(String.format("%s %d %s %s%n",
+                    member.field ? "field" : "method",
+                    member.access,
+                    member.name,
+                    member.desc));
+        }
+    }
+
+    /**
+     * Create a class visitor that records the non-synthetic fields and methods
+     * it visits in this analysis.
+     *
+     * @return a recording class visitor
+     */
+    public ClassVisitor recorder() {
+        return new ClassVisitor(ASM5) {
+            @Override
+            public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+                if ((access & ACC_SYNTHETIC) == 0) {
+                    addField(access, name, desc);
+                }
+
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+                if ((access & ACC_SYNTHETIC) == 0) {
+                    addMethod(access, name, desc);
+                }
+
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Replay the recorded fields and methods to the given class visitor in the
+     * order they appear in the class file. Generic signatures and declared
+     * exceptions are not recorded.
+     *
+     * @param visitor the class visitor
+     */
+    public void accept(ClassVisitor visitor) {
+        for (Member member : members) {
+            if (member.field) {
+                visitor.visitField(member.access, member.name, member.desc, null, null);
+            } else {
+                visitor.visitMethod(member.access, member.name, member.desc, null, null);
+            }
+        }
+
+        visitor.visitEnd();
+    }
+
+    /**
+     * A field or method declared in the analyzed class.
+     */
+    public static class Member {
+
+        private final boolean field;
+        private final int access;
+        private final String name;
+        private final String desc;
+
+        Member(boolean field, int access, String name, String desc) {
+            this.field = field;
+            this.access = access;
+            this.name = name;
+            this.desc = desc;
+        }
+
+        public boolean isField() {
+            return field;
+        }
+
+        public int getAccess() {
+            return access;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDesc() {
+            return desc;
+        }
+
+    }
+
+}
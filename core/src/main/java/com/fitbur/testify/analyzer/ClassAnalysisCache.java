@@ -0,0 +1,200 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.analyzer;
+
+import com.fitbur.asm.ClassReader;
+import com.fitbur.asm.ClassVisitor;
+import static com.fitbur.guava.common.base.Preconditions.checkState;
+import static com.fitbur.guava.common.hash.Hashing.sha1;
+import static com.fitbur.guava.common.io.ByteStreams.toByteArray;
+import static com.fitbur.testify.TestAnalysis.GENERATED_LOCATION;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.URL;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import java.util.Map;
+import java.util.Optional;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A JVM-wide registry of class analyses backed by an optional on-disk cache
+ * that is private to the user, by default in {@code ~/.testify/analysis}.
+ * Analyses on disk are keyed by a hash of the class file bytes so a changed
+ * class is always analyzed again, and forked JVMs and repeated runs skip
+ * parsing unchanged class files. Analyses of test classes generated at compile
+ * time by the testify annotation processor are written by the same compilation
+ * as the test class and take precedence over parsing class files.
+ *
+ * @author saden
+ */
+public class ClassAnalysisCache {
+
+    /**
+     * The system property used to configure the on-disk cache directory. An
+     * empty value disables the on-disk cache.
+     */
+    public static final String DIRECTORY_PROPERTY = "testify.analysis.cache.dir";
+    public static final ClassAnalysisCache INSTANCE = new ClassAnalysisCache(getDefaultDirectory());
+
+    private final Optional<Path> directory;
+    private final Map<Class<?>, ClassAnalysis> analyses = new ConcurrentHashMap<>();
+
+    public ClassAnalysisCache(Optional<Path> directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Visit the fields and methods of the given class with the given class
+     * visitor using a cached analysis of the class if one is available.
+     *
+     * @param type the class being analyzed
+     * @param visitor the class visitor
+     */
+    public void accept(Class<?> type, ClassVisitor visitor) {
+        analyses.computeIfAbsent(type, this::analyze).accept(visitor);
+    }
+
+    public Optional<Path> getDirectory() {
+        return directory;
+    }
+
+    ClassAnalysis analyze(Class<?> type) {
+        Optional<ClassAnalysis> generated = generated(type);
+
+        if (generated.isPresent()) {
+            return generated.get();
+        }
+
+        byte[] bytes = read(type);
+        String hash = sha1().hashBytes(bytes).toString();
+
+        Optional<ClassAnalysis> stored = load(hash);
+
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        ClassAnalysis analysis = new ClassAnalysis(hash);
+        new ClassReader(bytes).accept(analysis.recorder(),
+                ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        store(analysis);
+
+        return analysis;
+    }
+
+    Optional<ClassAnalysis> generated(Class<?> type) {
+        String resource = GENERATED_LOCATION + type.getName();
+        ClassLoader classLoader = type.getClassLoader();
+
+        if (classLoader == null) {
+            return empty();
+        }
+
+        URL url = classLoader.getResource(resource);
+
+        if (url == null) {
+            return empty();
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), UTF_8))) {
+            return of(ClassAnalysis.read(url.toString(), reader));
+        } catch (IOException | NumberFormatException e) {
+            checkState(false, "Generated analysis '%s' could not be read.\n%s", resource, e.getMessage());
+            //not reachable
+            throw new IllegalStateException(e);
+        }
+    }
+
+    byte[] read(Class<?> type) {
+        String resource = type.getName().replace('.', '/') + ".class";
+        ClassLoader classLoader = type.getClassLoader();
+
+        try (InputStream stream = classLoader == null
+                ? ClassLoader.getSystemResourceAsStream(resource)
+                : classLoader.getResourceAsStream(resource)) {
+            checkState(stream != null, "Class file of '%s' not found.", type.getName());
+
+            return toByteArray(stream);
+        } catch (IOException e) {
+            checkState(false, "Class file of '%s' could not be read.\n%s", type.getName(), e.getMessage());
+            //not reachable
+            throw new IllegalStateException(e);
+        }
+    }
+
+    Optional<ClassAnalysis> load(String hash) {
+        if (!directory.isPresent()) {
+            return empty();
+        }
+
+        Path path = directory.get().resolve(hash);
+
+        if (!Files.isRegularFile(path)) {
+            return empty();
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(path, UTF_8)) {
+            //the first line of an entry is the hash of the analyzed class
+            return hash.equals(reader.readLine()) ? of(ClassAnalysis.read(hash, reader)) : empty();
+        } catch (IOException | NumberFormatException e) {
+            //a stale or corrupt entry is simply analyzed and stored again
+            return empty();
+        }
+    }
+
+    void store(ClassAnalysis analysis) {
+        if (!directory.isPresent()) {
+            return;
+        }
+
+        try {
+            Path cacheDirectory = Files.createDirectories(directory.get());
+            Path temp = Files.createTempFile(cacheDirectory, analysis.getHash(), ".tmp");
+
+            try (Writer writer = Files.newBufferedWriter(temp, UTF_8)) {
+                writer.write(analysis.getHash());
+                writer.write(System.lineSeparator());
+                analysis.write(writer);
+            }
+
+            Files.move(temp, cacheDirectory.resolve(analysis.getHash()), ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            //the on-disk cache is an optimization, failing to write to it is
+            //not a test failure
+        }
+    }
+
+    static Optional<Path> getDefaultDirectory() {
+        String value = System.getProperty(DIRECTORY_PROPERTY);
+
+        if (value == null) {
+            return of(Paths.get(System.getProperty("user.home"), ".testify", "analysis"));
+        }
+
+        return value.trim().isEmpty() ? empty() : of(Paths.get(value));
+    }
+
+}
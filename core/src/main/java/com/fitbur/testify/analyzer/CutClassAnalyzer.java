@@ -97,7 +97,9 @@ public class CutClassAnalyzer extends ClassVisitor {
 
     private Class<?> getClass(Type type) {
         try {
-            return forName(type.getInternalName().replace('/', '.'));
+            //do not trigger the static initializers of collaborator types
+            ClassLoader classLoader = context.getCutDescriptor().getField().getType().getClassLoader();
+            return forName(type.getInternalName().replace('/', '.'), false, classLoader);
         } catch (ClassNotFoundException e) {
             checkState(false, "Class '%s' not found in the classpath.", type.getClassName());
             //not reachable;
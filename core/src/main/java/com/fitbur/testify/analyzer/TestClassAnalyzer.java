@@ -42,7 +42,7 @@ import static java.util.stream.Stream.of;
 public class TestClassAnalyzer extends ClassVisitor {
 
     public static final String CONSTRUCTOR_NAME = "<init>";
-    public static final String STATIC_NAME = "<cinit>";
+    public static final String STATIC_NAME = "<clinit>";
     private final TestContext context;
     private int fieldOrder = 0;
     private int methodOrder = 0;
@@ -119,7 +119,8 @@ public class TestClassAnalyzer extends ClassVisitor {
 
     private Class<?> getClass(String className) {
         try {
-            return forName(className);
+            //do not trigger the static initializers of parameter types
+            return forName(className, false, context.getTestClass().getClassLoader());
         } catch (ClassNotFoundException e) {
             checkState(false, "Class '%s' not found in the classpath.", className);
             //not reachable;
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.descriptor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import static java.lang.invoke.MethodType.methodType;
+import java.lang.reflect.Constructor;
+import static java.security.AccessController.doPrivileged;
+import java.security.PrivilegedAction;
+
+/**
+ * A constructor invoker backed by a method handle. The method handle is looked
+ * up once per constructor so creating the class under test on every test
+ * method does not go through reflective access checks.
+ *
+ * @author saden
+ */
+public class ConstructorInvoker {
+
+    private final Constructor<?> constructor;
+    private final MethodHandle handle;
+
+    public ConstructorInvoker(Constructor<?> constructor) {
+        this.constructor = constructor;
+
+        MethodHandle constructorHandle = doPrivileged((PrivilegedAction<MethodHandle>) () -> {
+            try {
+                constructor.setAccessible(true);
+
+                return MethodHandles.lookup().unreflectConstructor(constructor);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        this.handle = constructorHandle
+                .asSpreader(Object[].class, constructor.getParameterCount())
+                .asType(methodType(Object.class, Object[].class));
+    }
+
+    public Constructor<?> getConstructor() {
+        return constructor;
+    }
+
+    /**
+     * Create a new instance with the given constructor arguments.
+     *
+     * @param arguments the constructor arguments
+     * @return a new instance
+     * @throws Throwable the exception thrown by the constructor
+     */
+    public Object newInstance(Object[] arguments) throws Throwable {
+        return (Object) handle.invokeExact(arguments);
+    }
+
+}
@@ -23,7 +23,6 @@ import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
-import static java.util.Optional.empty;
 import static java.util.Optional.ofNullable;
 import java.util.Set;
 import static java.util.stream.Collectors.toSet;
@@ -38,8 +37,8 @@ public class CutDescriptor {
 
     private final Field field;
     private Constructor<?> constructor;
-    private Object[] arguments;
-    private Optional<Object> instance = empty();
+    private volatile FieldAccessor accessor;
+    private volatile ConstructorInvoker invoker;
 
     public CutDescriptor(Field field) {
         this.field = field;
@@ -73,16 +72,42 @@ public class CutDescriptor {
         return field.getDeclaredAnnotation(Cut.class) != null;
     }
 
-    public Optional<Object> getInstance() {
-        return instance;
+    public Constructor<?> getConstructor() {
+        return constructor;
     }
 
-    public void setInstance(Object instance) {
-        this.instance = ofNullable(instance);
+    /**
+     * Get the accessor used to read and write the cut field. The accessor is
+     * created on first use and reused afterwards.
+     *
+     * @return the field accessor
+     */
+    public FieldAccessor getAccessor() {
+        FieldAccessor result = accessor;
+
+        if (result == null) {
+            result = new FieldAccessor(field);
+            accessor = result;
+        }
+
+        return result;
     }
 
-    public Constructor<?> getConstructor() {
-        return constructor;
+    /**
+     * Get the invoker used to call the cut class constructor. The invoker is
+     * created on first use and reused afterwards.
+     *
+     * @return the constructor invoker
+     */
+    public ConstructorInvoker getInvoker() {
+        ConstructorInvoker result = invoker;
+
+        if (result == null) {
+            result = new ConstructorInvoker(constructor);
+            invoker = result;
+        }
+
+        return result;
     }
 
     public <T extends Annotation> Optional<T> getAnnotation(Class<T> type) {
@@ -123,21 +148,13 @@ public class CutDescriptor {
 
     public void setConstructor(Constructor<?> constructor) {
         this.constructor = constructor;
-    }
-
-    public Object[] getArguments() {
-        return arguments;
-    }
-
-    public void setArguments(Object[] arguments) {
-        this.arguments = arguments;
+        this.invoker = null;
     }
 
     @Override
     public int hashCode() {
         int hash = 7;
         hash = 53 * hash + Objects.hashCode(this.field);
-        hash = 53 * hash + Objects.hashCode(this.instance);
         hash = 53 * hash + Objects.hashCode(this.constructor);
         return hash;
     }
@@ -154,15 +171,12 @@ public class CutDescriptor {
         if (!Objects.equals(this.field, other.field)) {
             return false;
         }
-        if (!Objects.equals(this.instance, other.instance)) {
-            return false;
-        }
         return Objects.equals(this.constructor, other.constructor);
     }
 
     @Override
     public String toString() {
-        return "CutDescriptor{" + "field=" + field + ", instance=" + instance + ", constructor=" + constructor + '}';
+        return "CutDescriptor{" + "field=" + field + ", constructor=" + constructor + '}';
     }
 
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.descriptor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import static java.lang.invoke.MethodHandles.dropArguments;
+import static java.lang.invoke.MethodType.methodType;
+import java.lang.reflect.Field;
+import static java.lang.reflect.Modifier.isStatic;
+import static java.security.AccessController.doPrivileged;
+import java.security.PrivilegedAction;
+
+/**
+ * A field accessor backed by method handles. The method handles are looked up
+ * once per field so reading and writing a field on every test method does not
+ * go through reflective access checks.
+ *
+ * @author saden
+ */
+public class FieldAccessor {
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    public FieldAccessor(Field field) {
+        this.field = field;
+
+        MethodHandle[] handles = doPrivileged((PrivilegedAction<MethodHandle[]>) () -> {
+            try {
+                field.setAccessible(true);
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+                return new MethodHandle[]{
+                    lookup.unreflectGetter(field),
+                    lookup.unreflectSetter(field)
+                };
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        MethodHandle fieldGetter = handles[0];
+        MethodHandle fieldSetter = handles[1];
+
+        //static fields do not take a target argument
+        if (isStatic(field.getModifiers())) {
+            fieldGetter = dropArguments(fieldGetter, 0, Object.class);
+            fieldSetter = dropArguments(fieldSetter, 0, Object.class);
+        }
+
+        this.getter = fieldGetter.asType(methodType(Object.class, Object.class));
+        this.setter = fieldSetter.asType(methodType(void.class, Object.class, Object.class));
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * Get the value of the field.
+     *
+     * @param target the object whose field should be read
+     * @return the value of the field
+     */
+    public Object get(Object target) {
+        try {
+            return (Object) getter.invokeExact(target);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Set the value of the field.
+     *
+     * @param target the object whose field should be modified
+     * @param value the new value of the field
+     */
+    public void set(Object target, Object value) {
+        try {
+            setter.invokeExact(target, value);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
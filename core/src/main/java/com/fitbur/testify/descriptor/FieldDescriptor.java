@@ -21,7 +21,6 @@ import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
-import static java.util.Optional.empty;
 import static java.util.Optional.ofNullable;
 import java.util.Set;
 import static java.util.stream.Collectors.toSet;
@@ -36,7 +35,7 @@ public class FieldDescriptor {
 
     private final Field field;
     private final Integer order;
-    private Optional<Object> instance = empty();
+    private volatile FieldAccessor accessor;
 
     public FieldDescriptor(Field field, Integer order) {
         this.field = field;
@@ -63,16 +62,25 @@ public class FieldDescriptor {
         return field.getType().getSimpleName();
     }
 
-    public Integer getOrder() {
-        return order;
-    }
+    /**
+     * Get the accessor used to read and write the field. The accessor is
+     * created on first use and reused afterwards.
+     *
+     * @return the field accessor
+     */
+    public FieldAccessor getAccessor() {
+        FieldAccessor result = accessor;
+
+        if (result == null) {
+            result = new FieldAccessor(field);
+            accessor = result;
+        }
 
-    public Optional<Object> getInstance() {
-        return instance;
+        return result;
     }
 
-    public void setInstance(Object instance) {
-        this.instance = ofNullable(instance);
+    public Integer getOrder() {
+        return order;
     }
 
     public <T extends Annotation> Optional<T> getAnnotation(Class<T> type) {
@@ -123,7 +131,6 @@ public class FieldDescriptor {
         int hash = 3;
         hash = 67 * hash + Objects.hashCode(this.field);
         hash = 67 * hash + Objects.hashCode(this.order);
-        hash = 67 * hash + Objects.hashCode(this.instance);
         return hash;
     }
 
@@ -139,17 +146,13 @@ public class FieldDescriptor {
         if (!Objects.equals(this.field, other.field)) {
             return false;
         }
-        if (!Objects.equals(this.order, other.order)) {
-            return false;
-        }
-        return Objects.equals(this.instance, other.instance);
+        return Objects.equals(this.order, other.order);
     }
 
     @Override
     public String toString() {
         return "FieldDescriptor{" + "field=" + field
                 + ", order=" + order
-                + ", instance=" + instance
                 + '}';
     }
 
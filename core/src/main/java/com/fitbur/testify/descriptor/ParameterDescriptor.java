@@ -20,8 +20,6 @@ import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
 import java.util.Objects;
 import java.util.Optional;
-import static java.util.Optional.empty;
-import static java.util.Optional.ofNullable;
 import java.util.Set;
 import static java.util.stream.Collectors.toSet;
 import static java.util.stream.Stream.of;
@@ -37,7 +35,6 @@ public class ParameterDescriptor {
 
     private final Parameter parameter;
     private final Integer index;
-    private Optional<Object> instance = empty();
 
     public ParameterDescriptor(Parameter parameter, Integer index) {
         this.parameter = parameter;
@@ -68,14 +65,6 @@ public class ParameterDescriptor {
         return parameter.getType().getSimpleName();
     }
 
-    public Optional<Object> getInstance() {
-        return instance;
-    }
-
-    public void setInstance(Object instance) {
-        this.instance = ofNullable(instance);
-    }
-
     public <T extends Annotation> Optional<T> getAnnotation(Class<T> type) {
         return of(parameter.getDeclaredAnnotation(type))
                 .filter(p -> p.annotationType().equals(type))
@@ -114,7 +103,6 @@ public class ParameterDescriptor {
         int hash = 7;
         hash = 59 * hash + Objects.hashCode(this.parameter);
         hash = 59 * hash + Objects.hashCode(this.index);
-        hash = 59 * hash + Objects.hashCode(this.instance);
         return hash;
     }
 
@@ -130,15 +118,12 @@ public class ParameterDescriptor {
         if (!Objects.equals(this.parameter, other.parameter)) {
             return false;
         }
-        if (!Objects.equals(this.index, other.index)) {
-            return false;
-        }
-        return Objects.equals(this.instance, other.instance);
+        return Objects.equals(this.index, other.index);
     }
 
     @Override
     public String toString() {
-        return "ParameterDescriptor{" + "parameter=" + parameter + ", index=" + index + ", instance=" + instance + '}';
+        return "ParameterDescriptor{" + "parameter=" + parameter + ", index=" + index + '}';
     }
 
 }
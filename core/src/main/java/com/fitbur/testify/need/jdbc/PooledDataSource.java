@@ -0,0 +1,352 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.jdbc;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A lightweight connection pool that wraps the data source of a JDBC based
+ * need. Physical connections are opened once and reused so connection churn
+ * is kept out of test time. The pool records how long tests wait to borrow
+ * connections and detects connections that are not returned before the
+ * metrics are reset, typically when the need is cleaned between tests.
+ *
+ * @author saden
+ */
+public class PooledDataSource implements DataSource, AutoCloseable {
+
+    /**
+     * The system property used to configure the maximum number of connections
+     * of pooled data sources. A size of zero, the default, disables pooling of
+     * need data sources.
+     */
+    public static final String SIZE_PROPERTY = "testify.jdbc.pool.size";
+
+    /**
+     * The system property used to configure how long to wait to borrow a
+     * connection in milliseconds.
+     */
+    public static final String TIMEOUT_PROPERTY = "testify.jdbc.pool.timeout";
+
+    /**
+     * The system property used to record where leaked connections were
+     * borrowed.
+     */
+    public static final String TRACE_PROPERTY = "testify.jdbc.pool.trace";
+
+    private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger("jdbc");
+
+    private final DataSource dataSource;
+    private final long timeout;
+    private final boolean trace;
+    private final Semaphore permits;
+    private final Deque<Connection> idle = new ConcurrentLinkedDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private volatile boolean closed;
+
+    public PooledDataSource(DataSource dataSource, int size, long timeout, boolean trace) {
+        this.dataSource = dataSource;
+        this.timeout = timeout;
+        this.trace = trace;
+        this.permits = new Semaphore(size, true);
+    }
+
+    /**
+     * Wrap the given data source in a pooled data source configured by system
+     * properties if pooling is enabled.
+     *
+     * @param dataSource the need data source
+     * @return a pooled data source, or the given data source if pooling is
+     * disabled
+     */
+    public static DataSource of(DataSource dataSource) {
+        int size = Integer.getInteger(SIZE_PROPERTY, 0);
+
+        if (size <= 0) {
+            return dataSource;
+        }
+
+        return new PooledDataSource(dataSource,
+                size,
+                Long.getLong(TIMEOUT_PROPERTY, 30_000),
+                Boolean.getBoolean(TRACE_PROPERTY));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Pooled data source is closed.");
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new SQLException(String.format(
+                        "Connection could not be borrowed within %d ms, %d connections are active.",
+                        timeout, active.size()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while borrowing connection.", e);
+        }
+
+        long wait = System.nanoTime() - start;
+        borrows.incrementAndGet();
+        totalWaitNanos.addAndGet(wait);
+        maxWaitNanos.accumulateAndGet(wait, Math::max);
+
+        try {
+            Connection connection = idle.pollFirst();
+
+            if (connection == null || connection.isClosed()) {
+                connection = dataSource.getConnection();
+            }
+
+            PooledConnection pooled = new PooledConnection(connection,
+                    trace ? new Throwable("Connection borrowed here") : null);
+            active.add(pooled);
+
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    pooled);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        //connections of other users are not pooled
+        return dataSource.getConnection(username, password);
+    }
+
+    /**
+     * Get the metrics of the pool collected since the metrics were last reset.
+     *
+     * @return the pool metrics
+     */
+    public PooledDataSourceMetrics getMetrics() {
+        return new PooledDataSourceMetrics(borrows.get(),
+                totalWaitNanos.get(),
+                maxWaitNanos.get(),
+                active.size(),
+                idle.size(),
+                0);
+    }
+
+    /**
+     * Reset the metrics of the pool. Connections that are still borrowed are
+     * considered leaked, they are reported, closed and their permits returned
+     * to the pool.
+     *
+     * @return the pool metrics collected since the metrics were last reset
+     */
+    public PooledDataSourceMetrics reset() {
+        List<PooledConnection> leaked = new ArrayList<>(active);
+        leaked.forEach(p -> {
+            if (p.trace == null) {
+                LOGGER.warn("Connection borrowed by thread '{}' {} ms ago was not returned.",
+                        p.thread, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - p.borrowed));
+            } else {
+                LOGGER.warn("Connection borrowed by thread '{}' {} ms ago was not returned.",
+                        p.thread, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - p.borrowed), p.trace);
+            }
+
+            p.reclaim();
+        });
+
+        return new PooledDataSourceMetrics(borrows.getAndSet(0),
+                totalWaitNanos.getAndSet(0),
+                maxWaitNanos.getAndSet(0),
+                active.size(),
+                idle.size(),
+                leaked.size());
+    }
+
+    /**
+     * Close all idle and borrowed connections of the pool.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        new ArrayList<>(active).forEach(PooledConnection::reclaim);
+
+        Connection connection;
+
+        while ((connection = idle.pollFirst()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return dataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        dataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        dataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return dataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return dataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : dataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || dataSource.isWrapperFor(iface);
+    }
+
+    void release(PooledConnection pooled) {
+        if (!active.remove(pooled)) {
+            return;
+        }
+
+        Connection connection = pooled.connection;
+
+        try {
+            //the next borrower expects a connection in its default state
+            if (!closed && !connection.isClosed()) {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+
+                connection.clearWarnings();
+                idle.addFirst(connection);
+            } else {
+                closeQuietly(connection);
+            }
+        } catch (SQLException e) {
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            //the connection is discarded either way
+        }
+    }
+
+    /**
+     * The invocation handler of a borrowed connection.
+     */
+    class PooledConnection implements InvocationHandler {
+
+        private final Connection connection;
+        private final Throwable trace;
+        private final String thread = Thread.currentThread().getName();
+        private final long borrowed = System.nanoTime();
+        private volatile boolean returned;
+
+        PooledConnection(Connection connection, Throwable trace) {
+            this.connection = connection;
+            this.trace = trace;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(this);
+                    }
+
+                    return null;
+                case "isClosed":
+                    return returned || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + connection;
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection is closed.");
+            }
+
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        void reclaim() {
+            returned = true;
+
+            if (active.remove(this)) {
+                closeQuietly(connection);
+                permits.release();
+            }
+        }
+
+    }
+
+}
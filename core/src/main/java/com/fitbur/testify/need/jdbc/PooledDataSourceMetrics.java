@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.jdbc;
+
+/**
+ * The metrics of a {@link PooledDataSource} collected since the metrics were
+ * last reset, typically by the previous test.
+ *
+ * @author saden
+ */
+public class PooledDataSourceMetrics {
+
+    private final long borrows;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final int active;
+    private final int idle;
+    private final int leaks;
+
+    public PooledDataSourceMetrics(long borrows,
+            long totalWaitNanos,
+            long maxWaitNanos,
+            int active,
+            int idle,
+            int leaks) {
+        this.borrows = borrows;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.active = active;
+        this.idle = idle;
+        this.leaks = leaks;
+    }
+
+    /**
+     * Get the number of connections borrowed.
+     *
+     * @return the number of borrowed connections
+     */
+    public long getBorrows() {
+        return borrows;
+    }
+
+    /**
+     * Get the total time spent waiting to borrow connections.
+     *
+     * @return the total borrow wait time in nanoseconds
+     */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    /**
+     * Get the longest time spent waiting to borrow a connection.
+     *
+     * @return the maximum borrow wait time in nanoseconds
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    /**
+     * Get the number of connections borrowed and not yet returned.
+     *
+     * @return the number of active connections
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * Get the number of open connections waiting to be borrowed.
+     *
+     * @return the number of idle connections
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * Get the number of connections that were not returned before the metrics
+     * were reset.
+     *
+     * @return the number of leaked connections
+     */
+    public int getLeaks() {
+        return leaks;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 59 * hash + (int) (this.borrows ^ (this.borrows >>> 32));
+        hash = 59 * hash + (int) (this.totalWaitNanos ^ (this.totalWaitNanos >>> 32));
+        hash = 59 * hash + (int) (this.maxWaitNanos ^ (this.maxWaitNanos >>> 32));
+        hash = 59 * hash + this.active;
+        hash = 59 * hash + this.idle;
+        hash = 59 * hash + this.leaks;
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final PooledDataSourceMetrics other = (PooledDataSourceMetrics) obj;
+        if (this.borrows != other.borrows) {
+            return false;
+        }
+        if (this.totalWaitNanos != other.totalWaitNanos) {
+            return false;
+        }
+        if (this.maxWaitNanos != other.maxWaitNanos) {
+            return false;
+        }
+        if (this.active != other.active) {
+            return false;
+        }
+        if (this.idle != other.idle) {
+            return false;
+        }
+        return this.leaks == other.leaks;
+    }
+
+    @Override
+    public String toString() {
+        return "PooledDataSourceMetrics{" + "borrows=" + borrows
+                + ", totalWaitNanos=" + totalWaitNanos
+                + ", maxWaitNanos=" + maxWaitNanos
+                + ", active=" + active
+                + ", idle=" + idle
+                + ", leaks=" + leaks + '}';
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.jdbc;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A statement executed through a {@link RecordingDataSource} along with the
+ * test that was running when it was executed, how long the execution took and
+ * the number of rows it read or wrote.
+ *
+ * @author saden
+ */
+public class QueryRecord {
+
+    private final String test;
+    private final String sql;
+    private final long elapsedNanos;
+    private final AtomicLong rows;
+
+    public QueryRecord(String test, String sql, long elapsedNanos, long rows) {
+        this.test = test;
+        this.sql = sql;
+        this.elapsedNanos = elapsedNanos;
+        this.rows = new AtomicLong(rows);
+    }
+
+    /**
+     * Get the name of the test that executed the statement.
+     *
+     * @return the test name
+     */
+    public String getTest() {
+        return test;
+    }
+
+    /**
+     * Get the SQL of the statement.
+     *
+     * @return the statement SQL
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Get the time it took to execute the statement. Reading the rows of a
+     * query is not included.
+     *
+     * @return the execution time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Get the number of rows written by the statement, or the number of rows
+     * read so far if the statement is a query.
+     *
+     * @return the number of rows
+     */
+    public long getRows() {
+        return rows.get();
+    }
+
+    void addRow() {
+        rows.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryRecord{" + "test=" + test
+                + ", sql=" + sql
+                + ", elapsedNanos=" + elapsedNanos
+                + ", rows=" + rows + '}';
+    }
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.jdbc;
+
+import static java.lang.String.format;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import java.util.function.Function;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Records the statements executed through a {@link RecordingDataSource} in a
+ * buffer per test. Test runners set the name of the running test on the thread
+ * that runs it through {@link #setCurrentTest(java.lang.String)} and the name
+ * is inherited by the threads the test starts, so test methods that run
+ * concurrently are recorded separately. Statements executed on other threads,
+ * such as the request threads of the application under test, are attributed to
+ * the running test only if a single test is running.
+ * Tests can inject the recorder to assert on the number of statements they
+ * executed and how long they took, and {@link #report()} summarizes the
+ * statements of every test along with duplicated and slow statements.
+ *
+ * @author saden
+ */
+public class QueryRecorder {
+
+    /**
+     * The name under which statements executed outside of a test method are
+     * recorded.
+     */
+    public static final String NO_TEST = "(no test)";
+
+    private static final InheritableThreadLocal<String> CURRENT_TEST = new InheritableThreadLocal<>();
+    private static final Set<String> RUNNING_TESTS = ConcurrentHashMap.newKeySet();
+
+    private final long slowNanos;
+    private final Map<String, Queue<QueryRecord>> records
+            = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public QueryRecorder(long slowNanos) {
+        this.slowNanos = slowNanos;
+    }
+
+    /**
+     * Set the name of the test running on the current thread.
+     *
+     * @param test the name of the test, or null if the test finished
+     */
+    public static void setCurrentTest(String test) {
+        String previous = CURRENT_TEST.get();
+
+        if (previous != null) {
+            RUNNING_TESTS.remove(previous);
+        }
+
+        if (test == null) {
+            CURRENT_TEST.remove();
+        } else {
+            CURRENT_TEST.set(test);
+            RUNNING_TESTS.add(test);
+        }
+    }
+
+    /**
+     * Get the name of the test running on the current thread.
+     *
+     * @return the name of the test, or {@link #NO_TEST} if no test is running
+     * or the test can not be determined
+     */
+    public static String getCurrentTest() {
+        String test = CURRENT_TEST.get();
+
+        //pooled threads keep the name they inherited after the test finished
+        if (test != null && RUNNING_TESTS.contains(test)) {
+            return test;
+        }
+
+        List<String> running = new ArrayList<>(RUNNING_TESTS);
+
+        return running.size() == 1 ? running.get(0) : NO_TEST;
+    }
+
+    QueryRecord record(String sql, long elapsedNanos, long rows) {
+        QueryRecord record = new QueryRecord(getCurrentTest(), sql, elapsedNanos, rows);
+        add(record);
+
+        return record;
+    }
+
+    void add(QueryRecord record) {
+        records.computeIfAbsent(record.getTest(), k -> new ConcurrentLinkedQueue<>()).add(record);
+    }
+
+    void addAll(Collection<QueryRecord> testRecords) {
+        testRecords.forEach(this::add);
+    }
+
+    List<QueryRecord> remove(String test) {
+        Queue<QueryRecord> queue = records.remove(test);
+
+        return queue == null ? Collections.emptyList() : new ArrayList<>(queue);
+    }
+
+    /**
+     * Get the execution time above which a statement is considered slow.
+     *
+     * @return the slow statement threshold in nanoseconds
+     */
+    public long getSlowNanos() {
+        return slowNanos;
+    }
+
+    /**
+     * Get the names of the tests that executed statements in the order they
+     * first executed one.
+     *
+     * @return the test names
+     */
+    public List<String> getTests() {
+        synchronized (records) {
+            return new ArrayList<>(records.keySet());
+        }
+    }
+
+    /**
+     * Get the statements executed by the running test.
+     *
+     * @return the recorded statements
+     */
+    public List<QueryRecord> getRecords() {
+        return getRecords(getCurrentTest());
+    }
+
+    /**
+     * Get the statements executed by the given test.
+     *
+     * @param test the name of the test
+     * @return the recorded statements
+     */
+    public List<QueryRecord> getRecords(String test) {
+        Queue<QueryRecord> queue = records.get(test);
+
+        return queue == null ? Collections.emptyList() : new ArrayList<>(queue);
+    }
+
+    /**
+     * Get the number of statements executed by the running test.
+     *
+     * @return the number of statements
+     */
+    public int getCount() {
+        return getRecords().size();
+    }
+
+    /**
+     * Get the total execution time of the statements executed by the running
+     * test.
+     *
+     * @return the total execution time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return getElapsedNanos(getRecords());
+    }
+
+    /**
+     * Get the statements executed more than once by the running test along
+     * with the number of times they were executed. Repeatedly executing the
+     * same statement is typical of N+1 query problems.
+     *
+     * @return a map of statement SQL to the number of executions
+     */
+    public Map<String, Long> getDuplicates() {
+        return getDuplicates(getRecords());
+    }
+
+    /**
+     * Get the statements executed by the running test that took longer than
+     * the slow statement threshold.
+     *
+     * @return the slow statements
+     */
+    public List<QueryRecord> getSlowQueries() {
+        return getSlowQueries(getRecords());
+    }
+
+    /**
+     * Discard the statements recorded for all tests.
+     */
+    public void clear() {
+        records.clear();
+    }
+
+    /**
+     * Summarize the statements executed by each test, including statements
+     * executed more than once and slow statements.
+     *
+     * @return the report
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+
+        for (String test : getTests()) {
+            List<QueryRecord> testRecords = getRecords(test);
+            report.append(format("%s: %d statements in %d ms%n",
+                    test,
+                    testRecords.size(),
+                    NANOSECONDS.toMillis(getElapsedNanos(testRecords))));
+
+            getDuplicates(testRecords).forEach((sql, count)
+                    -> report.append(format("    executed %d times: %s%n", count, sql)));
+
+            getSlowQueries(testRecords).forEach(record
+                    -> report.append(format("    slow, took %d ms: %s%n",
+                            NANOSECONDS.toMillis(record.getElapsedNanos()),
+                            record.getSql())));
+        }
+
+        return report.toString();
+    }
+
+    long getElapsedNanos(Collection<QueryRecord> testRecords) {
+        return testRecords.stream().mapToLong(QueryRecord::getElapsedNanos).sum();
+    }
+
+    Map<String, Long> getDuplicates(Collection<QueryRecord> testRecords) {
+        Map<String, Long> duplicates = new LinkedHashMap<>();
+        testRecords.stream()
+                .map(QueryRecord::getSql)
+                .collect(groupingBy(Function.identity(), LinkedHashMap::new, counting()))
+                .forEach((sql, count) -> {
+                    if (count > 1) {
+                        duplicates.put(sql, count);
+                    }
+                });
+
+        return duplicates;
+    }
+
+    List<QueryRecord> getSlowQueries(Collection<QueryRecord> testRecords) {
+        return testRecords.stream()
+                .filter(p -> p.getElapsedNanos() > slowNanos)
+                .collect(toList());
+    }
+
+}
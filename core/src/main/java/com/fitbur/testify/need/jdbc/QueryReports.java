@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.jdbc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A JVM-wide registry of the live {@link QueryRecorder}s of JDBC needs that
+ * summarizes the statements they recorded once per test class rather than
+ * once per need. Statements are attributed to a test class by the name of
+ * the test that executed them. The statements of a recorder are kept when its
+ * need is destroyed until the test classes that executed them are reported,
+ * and statements executed outside of a test method are discarded.
+ *
+ * @author saden
+ */
+public class QueryReports {
+
+    public static final QueryReports INSTANCE = new QueryReports();
+
+    private final Set<QueryRecorder> recorders = ConcurrentHashMap.newKeySet();
+    private final Map<String, QueryRecorder> testClasses = new ConcurrentHashMap<>();
+
+    /**
+     * Track the statements recorded by the given recorder.
+     *
+     * @param recorder the recorder of a need
+     */
+    public void add(QueryRecorder recorder) {
+        recorders.add(recorder);
+    }
+
+    /**
+     * Stop tracking the given recorder, typically because its need is being
+     * destroyed, and keep the statements it recorded until the test classes
+     * that executed them are reported.
+     *
+     * @param recorder the recorder of a need
+     */
+    public void remove(QueryRecorder recorder) {
+        if (recorders.remove(recorder)) {
+            for (String test : recorder.getTests()) {
+                String testClass = getTestClass(test);
+                List<QueryRecord> records = recorder.remove(test);
+
+                if (testClass != null) {
+                    testClasses.computeIfAbsent(testClass, p -> new QueryRecorder(recorder.getSlowNanos()))
+                            .addAll(records);
+                }
+            }
+        }
+    }
+
+    /**
+     * Summarize the statements executed by the tests of the given test class
+     * on every tracked database and discard them.
+     *
+     * @param testClass the fully qualified name of the test class
+     * @return the report, empty if the test class executed no statements
+     */
+    public String report(String testClass) {
+        QueryRecorder report = testClasses.remove(testClass);
+
+        for (QueryRecorder recorder : recorders) {
+            for (String test : recorder.getTests()) {
+                if (testClass.equals(getTestClass(test))) {
+                    if (report == null) {
+                        report = new QueryRecorder(recorder.getSlowNanos());
+                    }
+
+                    report.addAll(recorder.remove(test));
+                }
+            }
+        }
+
+        return report == null ? "" : report.report();
+    }
+
+    /**
+     * Get the test class of the given test name. Test runners name tests by
+     * their fully qualified class name followed by the method name.
+     *
+     * @param test the name of the test
+     * @return the name of the test class, or null if the statements were not
+     * executed by a test method
+     */
+    String getTestClass(String test) {
+        int index = test.lastIndexOf('.');
+
+        return index == -1 ? null : test.substring(0, index);
+    }
+
+}
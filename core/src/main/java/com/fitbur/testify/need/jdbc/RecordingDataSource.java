@@ -0,0 +1,351 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.jdbc;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * A data source that records every statement executed through it. Connections,
+ * statements and result sets are proxied so the execution time of statements
+ * and the number of rows they write or read are recorded along with the test
+ * that executed them. The data source is its own {@link QueryRecorder} so tests
+ * can inject the recorder of a need by type.
+ *
+ * @author saden
+ */
+public class RecordingDataSource extends QueryRecorder implements DataSource {
+
+    /**
+     * The system property used to enable recording of need data source
+     * statements.
+     */
+    public static final String RECORD_PROPERTY = "testify.jdbc.record";
+
+    /**
+     * The system property used to configure the execution time in milliseconds
+     * above which a recorded statement is reported as slow.
+     */
+    public static final String SLOW_PROPERTY = "testify.jdbc.record.slow";
+
+    private final DataSource dataSource;
+
+    public RecordingDataSource(DataSource dataSource, long slowNanos) {
+        super(slowNanos);
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Wrap the given data source in a recording data source configured by
+     * system properties if recording is enabled.
+     *
+     * @param dataSource the need data source
+     * @return a recording data source, or the given data source if recording
+     * is disabled
+     */
+    public static DataSource of(DataSource dataSource) {
+        if (!Boolean.getBoolean(RECORD_PROPERTY)) {
+            return dataSource;
+        }
+
+        return new RecordingDataSource(dataSource,
+                MILLISECONDS.toNanos(Long.getLong(SLOW_PROPERTY, 100)));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(dataSource.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(dataSource.getConnection(username, password));
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return dataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        dataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        dataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return dataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return dataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : dataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || dataSource.isWrapperFor(iface);
+    }
+
+    Connection connection(Connection connection) {
+        return proxy(Connection.class, new RecordingConnection(connection));
+    }
+
+    static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The invocation handler of a recorded connection.
+     */
+    class RecordingConnection implements InvocationHandler {
+
+        private final Connection connection;
+
+        RecordingConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Recording" + connection;
+                default:
+                    break;
+            }
+
+            Object result = RecordingDataSource.invoke(connection, method, args);
+
+            switch (method.getName()) {
+                case "createStatement":
+                    return proxy(Statement.class,
+                            new RecordingStatement((Statement) result, null, (Connection) proxy));
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class,
+                            new RecordingStatement((Statement) result, (String) args[0], (Connection) proxy));
+                case "prepareCall":
+                    return proxy(CallableStatement.class,
+                            new RecordingStatement((Statement) result, (String) args[0], (Connection) proxy));
+                default:
+                    return result;
+            }
+        }
+
+    }
+
+    /**
+     * The invocation handler of a recorded statement. The SQL of prepared
+     * statements is known when they are prepared while the SQL of plain
+     * statements is passed to the execute methods.
+     */
+    class RecordingStatement implements InvocationHandler {
+
+        private final Statement statement;
+        private final String sql;
+        private final Connection connection;
+        private final List<String> batch = new ArrayList<>();
+        private QueryRecord last;
+
+        RecordingStatement(Statement statement, String sql, Connection connection) {
+            this.statement = statement;
+            this.sql = sql;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Recording" + statement;
+                case "getConnection":
+                    return connection;
+                case "addBatch":
+                    batch.add(args == null ? sql : (String) args[0]);
+                    break;
+                case "clearBatch":
+                    batch.clear();
+                    break;
+                case "execute":
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                    return execute(proxy, method, args);
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return executeBatch(method, args);
+                case "getResultSet":
+                    return resultSet((ResultSet) RecordingDataSource.invoke(statement, method, args), proxy);
+                default:
+                    break;
+            }
+
+            return RecordingDataSource.invoke(statement, method, args);
+        }
+
+        Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+            String executed = args != null && args.length > 0 ? (String) args[0] : sql;
+            long start = System.nanoTime();
+            Object result = null;
+
+            try {
+                result = RecordingDataSource.invoke(statement, method, args);
+            } finally {
+                long rows = 0;
+
+                if (result instanceof Number) {
+                    rows = ((Number) result).longValue();
+                } else if (Boolean.FALSE.equals(result)) {
+                    rows = Math.max(0, statement.getUpdateCount());
+                }
+
+                last = record(executed, System.nanoTime() - start, rows);
+            }
+
+            if (result instanceof ResultSet) {
+                return resultSet((ResultSet) result, proxy);
+            }
+
+            return result;
+        }
+
+        Object executeBatch(Method method, Object[] args) throws Throwable {
+            String executed = String.join("; ", new LinkedHashSet<>(batch));
+            long start = System.nanoTime();
+            Object result = null;
+
+            try {
+                result = RecordingDataSource.invoke(statement, method, args);
+            } finally {
+                long rows = 0;
+
+                if (result instanceof int[]) {
+                    for (int count : (int[]) result) {
+                        rows += Math.max(0, count);
+                    }
+                } else if (result instanceof long[]) {
+                    for (long count : (long[]) result) {
+                        rows += Math.max(0, count);
+                    }
+                }
+
+                batch.clear();
+                last = record(executed, System.nanoTime() - start, rows);
+            }
+
+            return result;
+        }
+
+        Object resultSet(ResultSet resultSet, Object proxy) {
+            if (resultSet == null || last == null) {
+                return resultSet;
+            }
+
+            return RecordingDataSource.proxy(ResultSet.class,
+                    new RecordingResultSet(resultSet, last, (Statement) proxy));
+        }
+
+    }
+
+    /**
+     * The invocation handler of the result set of a recorded statement that
+     * counts the rows read.
+     */
+    static class RecordingResultSet implements InvocationHandler {
+
+        private final ResultSet resultSet;
+        private final QueryRecord record;
+        private final Statement statement;
+
+        RecordingResultSet(ResultSet resultSet, QueryRecord record, Statement statement) {
+            this.resultSet = resultSet;
+            this.record = record;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Recording" + resultSet;
+                case "getStatement":
+                    return statement;
+                default:
+                    break;
+            }
+
+            Object result = RecordingDataSource.invoke(resultSet, method, args);
+
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                record.addRow();
+            }
+
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.di.spring;
+
+import java.util.function.Supplier;
+import org.springframework.beans.factory.FactoryBean;
+
+/**
+ * A factory bean that creates a constant with a supplier the first time the
+ * constant is resolved.
+ *
+ * @author saden
+ */
+public class LazyConstantFactoryBean implements FactoryBean<Object> {
+
+    private final Class<?> type;
+    private final Supplier<?> supplier;
+
+    public LazyConstantFactoryBean(Class<?> type, Supplier<?> supplier) {
+        this.type = type;
+        this.supplier = supplier;
+    }
+
+    @Override
+    public Object getObject() {
+        return supplier.get();
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return type;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return true;
+    }
+
+}
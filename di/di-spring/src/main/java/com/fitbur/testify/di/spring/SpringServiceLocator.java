@@ -34,6 +34,7 @@ import java.util.Optional;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import java.util.Set;
+import java.util.function.Supplier;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import javax.inject.Named;
@@ -322,6 +323,20 @@ public class SpringServiceLocator implements ServiceLocator {
         beanFactory.registerSingleton(name, instance);
     }
 
+    @Override
+    public void replaceWithLazyConstant(Class<?> contract, String name, Supplier<?> supplier) {
+        DefaultListableBeanFactory beanFactory = (DefaultListableBeanFactory) context.getBeanFactory();
+
+        String[] beanNames = BeanFactoryUtils.beanNamesForTypeIncludingAncestors(beanFactory, contract, true, false);
+        for (String beanName : beanNames) {
+            if (beanFactory.containsBeanDefinition(beanName)) {
+                beanFactory.removeBeanDefinition(beanName);
+            }
+        }
+
+        beanFactory.registerSingleton(name, new LazyConstantFactoryBean(contract, supplier));
+    }
+
     @Override
     public void removeService(ServiceDescriptor descriptor) {
         ((BeanDefinitionRegistry) context).removeBeanDefinition(descriptor.getName());
@@ -24,7 +24,9 @@ import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 
 /**
- * A bean factory post processor that insures all Spring beans are lazy loaded.
+ * A bean factory post processor that insures all Spring beans are lazy loaded
+ * and injects test needs. Needs are started asynchronously by the runners
+ * while the application context is constructed and are only waited for here.
  *
  * @author saden
  */
@@ -55,6 +57,7 @@ public class SpringServicePostProcessor implements BeanFactoryPostProcessor {
                 .map(beanFactory::getBeanDefinition)
                 .forEach(p -> p.setLazyInit(true));
 
+        //injecting the needs waits for them to finish initializing
         methodTestNeeds.inject(serviceLocator);
         methodTestNeedContainers.inject(serviceLocator);
 
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.junit.core;
+
+import org.slf4j.bridge.SLF4JBridgeHandler;
+
+/**
+ * Installs the java.util.logging to slf4j bridge while at least one test
+ * class is running. Test classes running concurrently share the bridge so a
+ * class that finishes early does not uninstall it from under the others.
+ *
+ * @author saden
+ */
+public class JUnitLoggingBridge {
+
+    private static int references;
+
+    JUnitLoggingBridge() {
+    }
+
+    /**
+     * Install the bridge if it is not already installed and register the
+     * caller as a user of the bridge.
+     */
+    public static synchronized void install() {
+        if (references++ == 0 && !SLF4JBridgeHandler.isInstalled()) {
+            SLF4JBridgeHandler.removeHandlersForRootLogger();
+            SLF4JBridgeHandler.install();
+        }
+    }
+
+    /**
+     * Unregister the caller as a user of the bridge and uninstall the bridge
+     * once it has no more users.
+     */
+    public static synchronized void uninstall() {
+        if (references > 0 && --references == 0 && SLF4JBridgeHandler.isInstalled()) {
+            SLF4JBridgeHandler.uninstall();
+        }
+    }
+
+}
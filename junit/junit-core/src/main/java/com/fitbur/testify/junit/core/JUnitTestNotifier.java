@@ -16,6 +16,8 @@
 package com.fitbur.testify.junit.core;
 
 import com.fitbur.testify.TestContext;
+import com.fitbur.testify.need.jdbc.QueryRecorder;
+import com.fitbur.testify.need.jdbc.QueryReports;
 import org.junit.internal.AssumptionViolatedException;
 import org.junit.runner.Description;
 import org.junit.runner.notification.Failure;
@@ -84,12 +86,15 @@ public class JUnitTestNotifier extends RunNotifier {
     @Override
     public void fireTestStarted(Description description) throws StoppedByUserException {
         logger.info("Running {}", description.getMethodName());
+        //statements recorded by need data sources are attributed to the test
+        QueryRecorder.setCurrentTest(description.getClassName() + "." + description.getMethodName());
         notifier.fireTestStarted(description);
     }
 
     @Override
     public void fireTestFinished(Description description) {
         logger.debug("Finished {}", description.getMethodName());
+        QueryRecorder.setCurrentTest(null);
         notifier.fireTestFinished(description);
     }
 
@@ -111,4 +116,16 @@ public class JUnitTestNotifier extends RunNotifier {
         notifier.fireTestAssumptionFailed(new Failure(description, e));
     }
 
+    /**
+     * Log the statements recorded for the test methods of the test class. The
+     * statements are reported once the needs of the test class are destroyed.
+     */
+    public void reportQueries() {
+        String report = QueryReports.INSTANCE.report(testContext.getTestClass().getName());
+
+        if (!report.isEmpty()) {
+            logger.info("Statements executed by test class '{}':\n{}", testContext.getTestClassName(), report);
+        }
+    }
+
 }
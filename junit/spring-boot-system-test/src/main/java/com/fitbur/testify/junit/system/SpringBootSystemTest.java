@@ -15,7 +15,6 @@
  */
 package com.fitbur.testify.junit.system;
 
-import com.fitbur.asm.ClassReader;
 import com.fitbur.bytebuddy.ByteBuddy;
 import com.fitbur.bytebuddy.description.type.TypeDescription;
 import com.fitbur.bytebuddy.dynamic.ClassFileLocator;
@@ -32,6 +31,9 @@ import com.fitbur.guava.common.collect.Lists;
 import com.fitbur.testify.App;
 import com.fitbur.testify.Module;
 import com.fitbur.testify.TestContext;
+import com.fitbur.testify.TestInvocation;
+import com.fitbur.testify.TestNeedPrefetcher;
+import com.fitbur.testify.analyzer.ClassAnalysisCache;
 import com.fitbur.testify.analyzer.CutClassAnalyzer;
 import com.fitbur.testify.analyzer.TestClassAnalyzer;
 import com.fitbur.testify.client.ClientInstance;
@@ -39,6 +41,7 @@ import com.fitbur.testify.client.ClientProvider;
 import com.fitbur.testify.descriptor.CutDescriptor;
 import com.fitbur.testify.descriptor.FieldDescriptor;
 import com.fitbur.testify.di.ServiceLocator;
+import com.fitbur.testify.junit.core.JUnitLoggingBridge;
 import com.fitbur.testify.junit.core.JUnitTestNotifier;
 import com.fitbur.testify.junit.system.internal.SpringBootClientDescriptor;
 import com.fitbur.testify.junit.system.internal.SpringBootDescriptor;
@@ -73,7 +76,6 @@ import org.junit.runners.model.Statement;
 import org.junit.runners.model.TestClass;
 import org.slf4j.Logger;
 import static org.slf4j.LoggerFactory.getLogger;
-import org.slf4j.bridge.SLF4JBridgeHandler;
 import org.springframework.boot.Banner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
@@ -93,7 +95,6 @@ public class SpringBootSystemTest extends BlockJUnit4ClassRunner {
     static final Logger LOGGER = getLogger("testify");
     static final ByteBuddy BYTE_BUDDY = new ByteBuddy();
 
-    static final Map<Class, TestContext> TEST_CONTEXTS = new ConcurrentHashMap<>();
     static final Map<SpringApplication, TestContext> APPLICATION_TEST_CONTEXTS;
     static final Map<AnnotationConfigEmbeddedWebApplicationContext, SpringBootDescriptor> CONTEXT_DESCRIPTORS;
     static final Map<SpringApplication, SpringBootDescriptor> APPLICATION_DESCRIPTORS;
@@ -106,6 +107,9 @@ public class SpringBootSystemTest extends BlockJUnit4ClassRunner {
         APPLICATION_DESCRIPTORS = new ConcurrentHashMap<>();
     }
 
+    //test contexts hold the test instance and are never shared between
+    //runners so test classes can run concurrently
+    private final Map<Class, TestContext> testClassContexts = new ConcurrentHashMap<>();
     private SpringApplication application;
     private ClientInstance clientInstance;
     private SpringBootServerInstance serverInstance;
@@ -119,23 +123,22 @@ public class SpringBootSystemTest extends BlockJUnit4ClassRunner {
      */
     public SpringBootSystemTest(Class<?> testClass) throws InitializationError {
         super(testClass);
+        //container needs are prepared while the first test classes run
+        TestNeedPrefetcher.INSTANCE.start(testClass.getClassLoader());
     }
 
     public TestContext getTestContext(Class<?> javaClass) {
         String name = javaClass.getSimpleName();
-        TestContext testContext = TEST_CONTEXTS.computeIfAbsent(javaClass, p -> {
+        TestContext testContext = testClassContexts.computeIfAbsent(javaClass, p -> {
             try {
                 TestContext context = new TestContext(name, javaClass, LOGGER);
 
-                ClassReader testReader = new ClassReader(javaClass.getName());
-                testReader.accept(new TestClassAnalyzer(context), ClassReader.SKIP_DEBUG);
+                ClassAnalysisCache.INSTANCE.accept(javaClass, new TestClassAnalyzer(context));
 
                 CutDescriptor cutDescriptor = context.getCutDescriptor();
 
                 if (cutDescriptor != null) {
-                    String typeName = context.getCutDescriptor().getField().getType().getName();
-                    ClassReader cutReader = new ClassReader(typeName);
-                    cutReader.accept(new CutClassAnalyzer(context), ClassReader.SKIP_DEBUG);
+                    ClassAnalysisCache.INSTANCE.accept(cutDescriptor.getType(), new CutClassAnalyzer(context));
                 }
 
                 return context;
@@ -196,10 +199,7 @@ public class SpringBootSystemTest extends BlockJUnit4ClassRunner {
     @Override
     public void run(RunNotifier notifier) {
         //register slf4j bridge
-        if (!SLF4JBridgeHandler.isInstalled()) {
-            SLF4JBridgeHandler.removeHandlersForRootLogger();
-            SLF4JBridgeHandler.install();
-        }
+        JUnitLoggingBridge.install();
 
         Description description = getDescription();
         TestClass testClass = getTestClass();
@@ -229,9 +229,7 @@ public class SpringBootSystemTest extends BlockJUnit4ClassRunner {
             LOGGER.error("{}", e.getMessage());
             testNotifier.addFailure(e);
         } finally {
-            if (SLF4JBridgeHandler.isInstalled()) {
-                SLF4JBridgeHandler.uninstall();
-            }
+            JUnitLoggingBridge.uninstall();
 
             if (javaClass.getAnnotation(Ignore.class) == null) {
 //                classTestNeeds.destory();
@@ -343,7 +341,8 @@ public class SpringBootSystemTest extends BlockJUnit4ClassRunner {
             throw new IllegalStateException(e);
         }
 
-        SystemTestReifier reifier = new SystemTestReifier(testContext, serviceLocator, testInstance);
+        TestInvocation invocation = new TestInvocation(testInstance);
+        SystemTestReifier reifier = new SystemTestReifier(testContext, serviceLocator, invocation);
         SystemTestCreator creator = new SystemTestCreator(testContext, reifier, serviceLocator);
 
         if (testContext.getCutDescriptor() != null) {
@@ -353,14 +352,14 @@ public class SpringBootSystemTest extends BlockJUnit4ClassRunner {
         Set<FieldDescriptor> real = testContext.getFieldDescriptors()
                 .values()
                 .parallelStream()
-                .filter(p -> !p.getInstance().isPresent())
+                .filter(p -> !invocation.getInstance(p).isPresent())
                 .filter(p -> p.hasAnnotations(descriptor.getServiceAnnotations().getInjectors()))
                 .collect(toSet());
 
         creator.real(real);
 
         SystemTestVerifier verifier = new SystemTestVerifier(testContext, LOGGER);
-        verifier.wiring();
+        verifier.wiring(invocation);
 
         Statement statement = methodInvoker(method, testInstance);
         statement = possiblyExpectingExceptions(method, testInstance, statement);
@@ -381,6 +380,12 @@ public class SpringBootSystemTest extends BlockJUnit4ClassRunner {
 
             descriptor.getTestNeeds().destory();
             descriptor.getTestContainerNeeds().destory();
+
+            //the application of a finished test method is removed from the
+            //shared interceptor maps so they only contain running applications
+            APPLICATION_DESCRIPTORS.remove(application);
+            APPLICATION_TEST_CONTEXTS.remove(application);
+            CONTEXT_DESCRIPTORS.remove(descriptor.getContext());
         }
     }
 
@@ -26,6 +26,7 @@ import com.fitbur.guava.common.base.Throwables;
 import com.fitbur.testify.Real;
 import com.fitbur.testify.TestContext;
 import com.fitbur.testify.TestNeedContainers;
+import com.fitbur.testify.TestNeedGraph;
 import com.fitbur.testify.TestNeeds;
 import com.fitbur.testify.di.ServiceAnnotations;
 import com.fitbur.testify.di.spring.SpringServiceLocator;
@@ -125,16 +126,19 @@ public class SpringBootInterceptor {
         SpringServiceLocator serviceLocator = new SpringServiceLocator(context, serviceAnnotations);
         descriptor.setServiceLocator(serviceLocator);
 
+        TestNeedGraph testNeedGraph = new TestNeedGraph();
         TestNeeds testNeeds = new TestNeeds(testContext,
                 testContext.getName(),
-                NeedScope.METHOD);
+                NeedScope.METHOD,
+                testNeedGraph);
         testNeeds.init();
 
         descriptor.setTestNeeds(testNeeds);
 
         TestNeedContainers testContainerNeeds = new TestNeedContainers(testContext,
                 testContext.getName(),
-                NeedScope.METHOD);
+                NeedScope.METHOD,
+                testNeedGraph);
         testContainerNeeds.init();
         descriptor.setTestContainerNeeds(testContainerNeeds);
 
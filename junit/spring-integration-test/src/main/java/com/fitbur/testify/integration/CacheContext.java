@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import java.lang.annotation.Documented;
+import static java.lang.annotation.ElementType.TYPE;
+import java.lang.annotation.Retention;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation that lets the test methods of a test class share a refreshed
+ * application context through the {@link SpringContextCache} instead of
+ * refreshing a new application context for every test method. Singleton
+ * beans, and any state real collaborators hold, are carried over between the
+ * test methods and test classes that share a context, so only test classes
+ * whose test methods do not depend on a pristine context should be annotated.
+ * Test methods that leave the context in an unusable state can be annotated
+ * with {@link DirtiesContext}.
+ *
+ * @author saden
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface CacheContext {
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import static com.fitbur.guava.common.base.Preconditions.checkState;
+import java.util.Arrays;
+import javax.sql.DataSource;
+import org.junit.runners.model.Statement;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * A statement that evaluates the next statement in a transaction that is
+ * always rolled back.
+ *
+ * @author saden
+ */
+public class RollbackStatement extends Statement {
+
+    private final Statement next;
+    private final ConfigurableApplicationContext context;
+
+    public RollbackStatement(Statement next, ConfigurableApplicationContext context) {
+        this.next = next;
+        this.context = context;
+    }
+
+    @Override
+    public void evaluate() throws Throwable {
+        PlatformTransactionManager transactionManager = getTransactionManager();
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+
+        try {
+            next.evaluate();
+        } finally {
+            if (!status.isCompleted()) {
+                transactionManager.rollback(status);
+            }
+        }
+    }
+
+    PlatformTransactionManager getTransactionManager() {
+        //type lookups do not initialize lazy needs that do not provide the type
+        String[] managers = context.getBeanNamesForType(PlatformTransactionManager.class, true, false);
+        checkState(managers.length <= 1,
+                "Context '%s' has multiple transaction managers %s. Rollback requires a single transaction manager.",
+                context.getId(), Arrays.toString(managers));
+
+        if (managers.length == 1) {
+            return context.getBean(managers[0], PlatformTransactionManager.class);
+        }
+
+        String[] dataSources = context.getBeanNamesForType(DataSource.class, true, false);
+        checkState(dataSources.length == 1,
+                "Context '%s' has no transaction manager and %s data sources. "
+                + "Rollback requires a transaction manager or a single data source.",
+                context.getId(), dataSources.length);
+
+        return new DataSourceTransactionManager(context.getBean(dataSources[0], DataSource.class));
+    }
+
+}
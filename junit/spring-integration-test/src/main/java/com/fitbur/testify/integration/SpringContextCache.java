@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import com.fitbur.testify.di.spring.SpringServiceLocator;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+
+/**
+ * A least recently used cache of refreshed Spring application contexts keyed
+ * by the wiring fingerprint of the test class. A context is taken out of the
+ * cache while a test method uses it and returned to the cache once the test
+ * method completes, so a context is never shared by two tests running at the
+ * same time. Contexts evicted from the cache are closed.
+ *
+ * @author saden
+ */
+public class SpringContextCache {
+
+    /**
+     * The system property used to configure the maximum number of cached
+     * contexts. A value of zero disables caching.
+     */
+    public static final String MAX_SIZE_PROPERTY = "testify.context.cache.size";
+    public static final int DEFAULT_MAX_SIZE = 32;
+
+    private final int maxSize;
+    private final LinkedHashMap<SpringContextKey, SpringServiceLocator> locators;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public SpringContextCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.locators = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Take a cached service locator for the given key out of the cache.
+     *
+     * @param key the wiring fingerprint
+     * @return an optional containing the service locator, empty otherwise
+     */
+    public synchronized Optional<SpringServiceLocator> take(SpringContextKey key) {
+        SpringServiceLocator locator = locators.remove(key);
+
+        if (locator == null || !locator.isActive()) {
+            misses++;
+            return empty();
+        }
+
+        hits++;
+        return of(locator);
+    }
+
+    /**
+     * Return a service locator to the cache. If the cache already contains a
+     * locator for the key or is full the extra locator is destroyed.
+     *
+     * @param key the wiring fingerprint
+     * @param locator the service locator
+     */
+    public void release(SpringContextKey key, SpringServiceLocator locator) {
+        List<SpringServiceLocator> evicted = new ArrayList<>(1);
+
+        synchronized (this) {
+            if (maxSize <= 0 || !locator.isActive() || locators.containsKey(key)) {
+                evicted.add(locator);
+            } else {
+                locators.put(key, locator);
+
+                Iterator<SpringServiceLocator> iterator = locators.values().iterator();
+                while (locators.size() > maxSize && iterator.hasNext()) {
+                    evicted.add(iterator.next());
+                    iterator.remove();
+                    evictions++;
+                }
+            }
+        }
+
+        evicted.forEach(SpringServiceLocator::destroy);
+    }
+
+    /**
+     * Evict and destroy all cached service locators owned by the given test
+     * class.
+     *
+     * @param owner the owning test class
+     */
+    public void evict(Class<?> owner) {
+        List<SpringServiceLocator> evicted = new ArrayList<>();
+
+        synchronized (this) {
+            Iterator<Map.Entry<SpringContextKey, SpringServiceLocator>> iterator
+                    = locators.entrySet().iterator();
+
+            while (iterator.hasNext()) {
+                Map.Entry<SpringContextKey, SpringServiceLocator> entry = iterator.next();
+                Optional<Class<?>> entryOwner = entry.getKey().getOwner();
+
+                if (entryOwner.isPresent() && entryOwner.get().equals(owner)) {
+                    evicted.add(entry.getValue());
+                    iterator.remove();
+                    evictions++;
+                }
+            }
+        }
+
+        evicted.forEach(SpringServiceLocator::destroy);
+    }
+
+    /**
+     * Destroy all cached service locators.
+     */
+    public void clear() {
+        List<SpringServiceLocator> evicted;
+
+        synchronized (this) {
+            evicted = new ArrayList<>(locators.values());
+            locators.clear();
+        }
+
+        evicted.forEach(SpringServiceLocator::destroy);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized int getSize() {
+        return locators.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SpringContextCache{" + "maxSize=" + maxSize + ", size=" + locators.size()
+                + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + '}';
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import com.fitbur.testify.Module;
+import com.fitbur.testify.Scan;
+import com.fitbur.testify.TestContext;
+import com.fitbur.testify.need.Need;
+import com.fitbur.testify.need.NeedContainer;
+import com.fitbur.testify.need.NeedScope;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import static java.util.Optional.empty;
+import java.util.Set;
+import static java.util.stream.Collectors.toList;
+import java.util.stream.Stream;
+
+/**
+ * A fingerprint of the wiring of a test class used to find an already
+ * refreshed application context in the {@link SpringContextCache}. Two test
+ * classes share a key if they load the same modules, scan the same packages
+ * and declare the same needs. Fake collaborators are not part of the key
+ * because they are only handed to the class under test through the
+ * constructor arguments of its per test method service definition.
+ *
+ * @author saden
+ */
+public class SpringContextKey {
+
+    private final List<Class<?>> modules;
+    private final List<String> packages;
+    private final Set<Need> needs;
+    private final Set<NeedContainer> needContainers;
+    private final Class<?> owner;
+
+    SpringContextKey(List<Class<?>> modules,
+            List<String> packages,
+            Set<Need> needs,
+            Set<NeedContainer> needContainers,
+            Class<?> owner) {
+        this.modules = modules;
+        this.packages = packages;
+        this.needs = needs;
+        this.needContainers = needContainers;
+        this.owner = owner;
+    }
+
+    /**
+     * Create a key for the given test context. Only test classes annotated
+     * with {@link CacheContext} are cached. Method scoped needs produce a
+     * new need instance for every test method and are therefore never cached.
+     * Class scoped needs are only shared between the methods of the owning
+     * test class.
+     *
+     * @param testContext the test context
+     * @return an optional containing the key, or empty if the test class
+     * wiring can not be cached.
+     */
+    public static Optional<SpringContextKey> of(TestContext testContext) {
+        Class<?> testClass = testContext.getTestClass();
+
+        if (!testClass.isAnnotationPresent(CacheContext.class)) {
+            return empty();
+        }
+
+        Set<Need> needs = testContext.getAnnotations(Need.class);
+        Set<NeedContainer> needContainers = testContext.getAnnotations(NeedContainer.class);
+
+        boolean methodScoped = Stream.concat(
+                needs.stream().map(Need::scope),
+                needContainers.stream().map(NeedContainer::scope))
+                .anyMatch(p -> p == NeedScope.METHOD);
+
+        if (methodScoped) {
+            return empty();
+        }
+
+        List<Class<?>> modules = Stream.of(testClass.getDeclaredAnnotationsByType(Module.class))
+                .map(Module::value)
+                .distinct()
+                .collect(toList());
+
+        List<String> packages = Stream.of(testClass.getDeclaredAnnotationsByType(Scan.class))
+                .map(Scan::value)
+                .distinct()
+                .collect(toList());
+
+        Class<?> owner = needs.isEmpty() && needContainers.isEmpty() ? null : testClass;
+
+        return Optional.of(new SpringContextKey(modules, packages, needs, needContainers, owner));
+    }
+
+    public List<Class<?>> getModules() {
+        return modules;
+    }
+
+    public List<String> getPackages() {
+        return packages;
+    }
+
+    public Set<Need> getNeeds() {
+        return needs;
+    }
+
+    public Set<NeedContainer> getNeedContainers() {
+        return needContainers;
+    }
+
+    public Optional<Class<?>> getOwner() {
+        return Optional.ofNullable(owner);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 53 * hash + Objects.hashCode(this.modules);
+        hash = 53 * hash + Objects.hashCode(this.packages);
+        hash = 53 * hash + Objects.hashCode(this.needs);
+        hash = 53 * hash + Objects.hashCode(this.needContainers);
+        hash = 53 * hash + Objects.hashCode(this.owner);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final SpringContextKey other = (SpringContextKey) obj;
+        if (!Objects.equals(this.modules, other.modules)) {
+            return false;
+        }
+        if (!Objects.equals(this.packages, other.packages)) {
+            return false;
+        }
+        if (!Objects.equals(this.needs, other.needs)) {
+            return false;
+        }
+        if (!Objects.equals(this.needContainers, other.needContainers)) {
+            return false;
+        }
+        return Objects.equals(this.owner, other.owner);
+    }
+
+    @Override
+    public String toString() {
+        return "SpringContextKey{" + "modules=" + modules + ", packages=" + packages
+                + ", needs=" + needs
+                + ", needContainers=" + needContainers + ", owner=" + owner + '}';
+    }
+
+}
@@ -15,12 +15,16 @@
  */
 package com.fitbur.testify.integration;
 
-import com.fitbur.asm.ClassReader;
 import static com.fitbur.guava.common.base.Preconditions.checkState;
 import com.fitbur.testify.Real;
 import com.fitbur.testify.TestContext;
+import com.fitbur.testify.TestInvocation;
 import com.fitbur.testify.TestNeedContainers;
+import com.fitbur.testify.TestNeedGraph;
+import com.fitbur.testify.TestNeedPrefetcher;
 import com.fitbur.testify.TestNeeds;
+import com.fitbur.testify.TestTeardown;
+import com.fitbur.testify.analyzer.ClassAnalysisCache;
 import com.fitbur.testify.analyzer.CutClassAnalyzer;
 import com.fitbur.testify.analyzer.TestClassAnalyzer;
 import com.fitbur.testify.descriptor.CutDescriptor;
@@ -28,11 +32,16 @@ import com.fitbur.testify.descriptor.FieldDescriptor;
 import com.fitbur.testify.di.ServiceAnnotations;
 import com.fitbur.testify.di.spring.SpringServiceLocator;
 import com.fitbur.testify.di.spring.SpringServicePostProcessor;
+import com.fitbur.testify.junit.core.JUnitLoggingBridge;
 import com.fitbur.testify.junit.core.JUnitTestNotifier;
 import com.fitbur.testify.need.NeedProvider;
 import com.fitbur.testify.need.NeedScope;
+import static java.lang.String.format;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import static java.util.stream.Collectors.toSet;
@@ -53,7 +62,6 @@ import org.junit.runners.model.Statement;
 import org.junit.runners.model.TestClass;
 import org.slf4j.Logger;
 import static org.slf4j.LoggerFactory.getLogger;
-import org.slf4j.bridge.SLF4JBridgeHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
@@ -63,21 +71,35 @@ import org.springframework.context.annotation.AnnotationConfigApplicationContext
  * for running Spring integration test using {@link org.junit.runner.RunWith}.
  * It provides means of creating your class under test, faking certain
  * collaborators or using real collaborators in the Spring application context.
+ * Test classes or methods annotated with {@link Rollback} run in a transaction
+ * that is rolled back after each test method. Test classes annotated with
+ * {@link CacheContext} share refreshed application contexts between their
+ * test methods.
  *
  * @author saden
  */
 public class SpringIntegrationTest extends BlockJUnit4ClassRunner {
 
     static final Logger LOGGER = getLogger("testify");
+    static final SpringContextCache CONTEXT_CACHE = new SpringContextCache(
+            Integer.getInteger(SpringContextCache.MAX_SIZE_PROPERTY, SpringContextCache.DEFAULT_MAX_SIZE));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(CONTEXT_CACHE::clear));
+    }
+
     protected Map<Class, TestContext> testClassContexts = new ConcurrentHashMap<>();
     public Map<Class, SpringServiceLocator> applicationContexts = new ConcurrentHashMap<>();
     public Map<Class, List<NeedProvider>> needProvider = new ConcurrentHashMap<>();
     private ServiceAnnotations serviceAnnotations;
     private SpringServiceLocator serviceLocator;
+    private SpringContextKey contextKey;
     private TestNeedContainers methodTestNeedContainers;
     private TestNeedContainers classTestNeedContainers;
     private TestNeeds methodTestNeeds;
     private TestNeeds classTestNeeds;
+    private final TestTeardown teardown = new TestTeardown();
+    private JUnitTestNotifier testNotifier;
 
     /**
      * Create a new test runner instance for the class under test.
@@ -88,6 +110,8 @@ public class SpringIntegrationTest extends BlockJUnit4ClassRunner {
      */
     public SpringIntegrationTest(Class<?> testClass) throws InitializationError {
         super(testClass);
+        //container needs are prepared while the first test classes run
+        TestNeedPrefetcher.INSTANCE.start(testClass.getClassLoader());
     }
 
     public TestContext getTestContext(Class<?> javaClass) {
@@ -97,14 +121,12 @@ public class SpringIntegrationTest extends BlockJUnit4ClassRunner {
             try {
                 TestContext context = new TestContext(name, javaClass, LOGGER);
 
-                ClassReader testReader = new ClassReader(javaClass.getName());
-                testReader.accept(new TestClassAnalyzer(context), ClassReader.SKIP_DEBUG);
+                ClassAnalysisCache.INSTANCE.accept(javaClass, new TestClassAnalyzer(context));
 
                 CutDescriptor cutDescriptor = context.getCutDescriptor();
 
                 if (cutDescriptor != null) {
-                    ClassReader cutReader = new ClassReader(context.getCutDescriptor().getField().getType().getName());
-                    cutReader.accept(new CutClassAnalyzer(context), ClassReader.SKIP_DEBUG);
+                    ClassAnalysisCache.INSTANCE.accept(cutDescriptor.getType(), new CutClassAnalyzer(context));
                 }
 
                 return context;
@@ -121,18 +143,15 @@ public class SpringIntegrationTest extends BlockJUnit4ClassRunner {
     @Override
     public void run(RunNotifier notifier) {
         //register slf4j bridge
-        if (!SLF4JBridgeHandler.isInstalled()) {
-            SLF4JBridgeHandler.removeHandlersForRootLogger();
-            SLF4JBridgeHandler.install();
-        }
+        JUnitLoggingBridge.install();
 
         Description description = getDescription();
         TestClass testClass = getTestClass();
         Class<?> javaClass = testClass.getJavaClass();
         TestContext testContext = getTestContext(javaClass);
+        contextKey = SpringContextKey.of(testContext).orElse(null);
 
-        JUnitTestNotifier testNotifier
-                = new JUnitTestNotifier(notifier, description, LOGGER, testContext);
+        testNotifier = new JUnitTestNotifier(notifier, description, LOGGER, testContext);
 
         this.serviceAnnotations = new ServiceAnnotations();
         serviceAnnotations.addInjectors(Inject.class, Autowired.class, Real.class);
@@ -143,14 +162,17 @@ public class SpringIntegrationTest extends BlockJUnit4ClassRunner {
             Object testInstance = createTest();
             testContext.setTestInstance(testInstance);
 
+            TestNeedGraph classTestNeedGraph = new TestNeedGraph();
             classTestNeeds = new TestNeeds(testContext,
                     javaClass.getSimpleName(),
-                    NeedScope.CLASS);
+                    NeedScope.CLASS,
+                    classTestNeedGraph);
             classTestNeeds.init();
 
             classTestNeedContainers = new TestNeedContainers(testContext,
                     javaClass.getSimpleName(),
-                    NeedScope.CLASS);
+                    NeedScope.CLASS,
+                    classTestNeedGraph);
 
             classTestNeedContainers.init();
 
@@ -170,15 +192,26 @@ public class SpringIntegrationTest extends BlockJUnit4ClassRunner {
             LOGGER.error("{}", e.getMessage());
             testNotifier.addFailure(e);
         } finally {
-            if (SLF4JBridgeHandler.isInstalled()) {
-                SLF4JBridgeHandler.uninstall();
+            try {
+                //test methods must be torn down before the class needs and
+                //while the slf4j bridge is still installed
+                teardown.drain();
+            } catch (Throwable e) {
+                LOGGER.error("{}", e.getMessage());
+                testNotifier.addFailure(e);
             }
 
+            JUnitLoggingBridge.uninstall();
+
             if (javaClass.getAnnotation(Ignore.class) == null) {
+                CONTEXT_CACHE.evict(javaClass);
                 classTestNeeds.destory();
                 classTestNeedContainers.destory();
+                testNotifier.reportQueries();
             }
 
+            LOGGER.debug("{}", CONTEXT_CACHE);
+
         }
     }
 
@@ -212,34 +245,50 @@ public class SpringIntegrationTest extends BlockJUnit4ClassRunner {
         testContext.setTestInstance(testInstance);
         String testClassName = testContext.getTestClassName();
 
-        AnnotationConfigApplicationContext appContext = new AnnotationConfigApplicationContext();
-        appContext.setId(testClassName);
-        appContext.setAllowBeanDefinitionOverriding(true);
-        appContext.setAllowCircularReferences(false);
-
-        serviceLocator = new SpringServiceLocator(appContext, serviceAnnotations);
+        Optional<SpringServiceLocator> cachedLocator = contextKey == null
+                ? empty()
+                : CONTEXT_CACHE.take(contextKey);
 
+        //method scoped needs can depend on class scoped needs
+        TestNeedGraph methodTestNeedGraph = new TestNeedGraph(classTestNeeds.getGraph());
         methodTestNeeds = new TestNeeds(testContext,
                 method.getName(),
-                NeedScope.METHOD);
+                NeedScope.METHOD,
+                methodTestNeedGraph);
         methodTestNeeds.init();
 
         methodTestNeedContainers = new TestNeedContainers(testContext,
                 method.getName(),
-                NeedScope.METHOD);
+                NeedScope.METHOD,
+                methodTestNeedGraph);
         methodTestNeedContainers.init();
 
-        SpringServicePostProcessor postProcessor = new SpringServicePostProcessor(
-                serviceLocator,
-                methodTestNeeds,
-                methodTestNeedContainers,
-                classTestNeeds,
-                classTestNeedContainers);
-
-        appContext.addBeanFactoryPostProcessor(postProcessor);
+        if (cachedLocator.isPresent()) {
+            //the needs were injected when the cached context was refreshed
+            serviceLocator = cachedLocator.get();
+            classTestNeeds.clean();
+            classTestNeedContainers.clean();
+        } else {
+            AnnotationConfigApplicationContext appContext = new AnnotationConfigApplicationContext();
+            appContext.setId(testClassName);
+            appContext.setAllowBeanDefinitionOverriding(true);
+            appContext.setAllowCircularReferences(false);
+
+            serviceLocator = new SpringServiceLocator(appContext, serviceAnnotations);
+
+            SpringServicePostProcessor postProcessor = new SpringServicePostProcessor(
+                    serviceLocator,
+                    methodTestNeeds,
+                    methodTestNeedContainers,
+                    classTestNeeds,
+                    classTestNeedContainers);
+
+            appContext.addBeanFactoryPostProcessor(postProcessor);
+        }
 
+        TestInvocation invocation = new TestInvocation(testInstance);
         IntegrationTestReifier reifier
-                = new IntegrationTestReifier(testContext, serviceLocator, testInstance);
+                = new IntegrationTestReifier(testContext, serviceLocator, invocation);
         IntegrationTestCreator creator
                 = new IntegrationTestCreator(testContext, reifier, serviceLocator);
 
@@ -250,19 +299,25 @@ public class SpringIntegrationTest extends BlockJUnit4ClassRunner {
         Set<FieldDescriptor> real = testContext.getFieldDescriptors()
                 .values()
                 .parallelStream()
-                .filter(p -> !p.getInstance().isPresent())
+                .filter(p -> !invocation.getInstance(p).isPresent())
                 .filter(p -> p.hasAnnotations(serviceAnnotations.getInjectors()))
                 .collect(toSet());
 
         creator.real(real);
 
         IntegrationTestVerifier verifier = new IntegrationTestVerifier(testContext, LOGGER);
-        verifier.wiring();
+        verifier.wiring(invocation);
 
         Statement statement = methodInvoker(method, testInstance);
         statement = possiblyExpectingExceptions(method, testInstance, statement);
         statement = withBefores(method, testInstance, statement);
         statement = withAfters(method, testInstance, statement);
+
+        if (javaClass.isAnnotationPresent(Rollback.class) || method.getAnnotation(Rollback.class) != null) {
+            //before and after methods share the rolled back transaction
+            statement = new RollbackStatement(statement, serviceLocator.getContext());
+        }
+
         statement = withRules(method, testInstance, statement);
 
         return statement;
@@ -272,12 +327,63 @@ public class SpringIntegrationTest extends BlockJUnit4ClassRunner {
     protected void runChild(FrameworkMethod method, RunNotifier notifier) {
         super.runChild(method, notifier);
         if (method.getAnnotation(Ignore.class) == null) {
-            serviceLocator.destroy();
-            methodTestNeeds.destory();
-            methodTestNeedContainers.destory();
+            Optional<SpringServiceLocator> destroyed = release(method);
+            TestNeeds needs = methodTestNeeds;
+            TestNeedContainers needContainers = methodTestNeedContainers;
+
+            //the next test method is set up while this one is torn down
+            teardown.submit(() -> {
+                destroyed.ifPresent(SpringServiceLocator::destroy);
+                needs.destory();
+                needContainers.destory();
+            }, e -> {
+                LOGGER.error("{}", e.getMessage());
+                //the test method has already finished so the failure is
+                //reported against the test class
+                testNotifier.addFailure(new IllegalStateException(format(
+                        "Teardown of test method '%s' failed.\n%s",
+                        method.getName(), e.getMessage()), e));
+            });
         }
     }
 
+    /**
+     * Return the service locator used by the test method to the context cache
+     * if the test class wiring can be cached and the test method did not dirty
+     * it.
+     *
+     * @param method the test method
+     * @return the service locator that must be destroyed, empty otherwise
+     */
+    private Optional<SpringServiceLocator> release(FrameworkMethod method) {
+        if (serviceLocator == null) {
+            return empty();
+        }
+
+        Optional<SpringServiceLocator> destroyed = empty();
+
+        if (contextKey == null || method.getAnnotation(DirtiesContext.class) != null) {
+            destroyed = of(serviceLocator);
+        } else {
+            CutDescriptor cutDescriptor = getTestContext(getTestClass().getJavaClass()).getCutDescriptor();
+
+            //the class under test is registered for each test method
+            if (cutDescriptor != null && serviceLocator.isActive()) {
+                String cutName = cutDescriptor.getField().getName();
+
+                if (serviceLocator.getContext().containsBeanDefinition(cutName)) {
+                    serviceLocator.removeService(cutName);
+                }
+            }
+
+            CONTEXT_CACHE.release(contextKey, serviceLocator);
+        }
+
+        serviceLocator = null;
+
+        return destroyed;
+    }
+
     private Statement withRules(FrameworkMethod method, Object target,
             Statement statement) {
         List<TestRule> testRules = getTestRules(target);
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.fixture.need;
+
+import com.fitbur.testify.need.NeedDescriptor;
+import com.fitbur.testify.need.NeedInstance;
+import com.fitbur.testify.need.NeedProvider;
+import static java.util.Collections.emptyMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A need provider that counts how often its needs are initialized, cleaned
+ * and destroyed.
+ *
+ * @author saden
+ */
+public class CountingNeed implements NeedProvider<Object> {
+
+    public static final AtomicInteger INITS = new AtomicInteger();
+    public static final AtomicInteger CLEANS = new AtomicInteger();
+    public static final AtomicInteger DESTROYS = new AtomicInteger();
+
+    @Override
+    public Object configuration(NeedDescriptor descriptor) {
+        return new Object();
+    }
+
+    @Override
+    public Map<String, NeedInstance> init(NeedDescriptor descriptor, Object configuration) {
+        INITS.incrementAndGet();
+
+        return emptyMap();
+    }
+
+    @Override
+    public void clean(NeedDescriptor descriptor, Object configuration) {
+        CLEANS.incrementAndGet();
+    }
+
+    @Override
+    public void destroy(NeedDescriptor descriptor, Object configuration) {
+        DESTROYS.incrementAndGet();
+    }
+
+}
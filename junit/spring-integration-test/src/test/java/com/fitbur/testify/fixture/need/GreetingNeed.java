@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.fixture.need;
+
+import com.fitbur.guava.common.collect.ImmutableMap;
+import com.fitbur.guava.common.collect.ImmutableSet;
+import com.fitbur.testify.need.NeedDescriptor;
+import com.fitbur.testify.need.NeedInstance;
+import com.fitbur.testify.need.NeedProvider;
+import java.net.URI;
+import static java.util.Collections.emptyList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import static java.util.Optional.empty;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A need provider that provides a greeting and counts how often its needs are
+ * initialized.
+ *
+ * @author saden
+ */
+public class GreetingNeed implements NeedProvider<Object> {
+
+    public static final AtomicInteger INITS = new AtomicInteger();
+
+    @Override
+    public Object configuration(NeedDescriptor descriptor) {
+        return new Object();
+    }
+
+    @Override
+    public Map<String, NeedInstance> init(NeedDescriptor descriptor, Object configuration) {
+        INITS.incrementAndGet();
+
+        return ImmutableMap.of("greeting", new GreetingInstance("hello"));
+    }
+
+    @Override
+    public void destroy(NeedDescriptor descriptor, Object configuration) {
+    }
+
+    static class GreetingInstance implements NeedInstance<CharSequence> {
+
+        private final CharSequence greeting;
+
+        GreetingInstance(CharSequence greeting) {
+            this.greeting = greeting;
+        }
+
+        @Override
+        public String getHost() {
+            return "localhost";
+        }
+
+        @Override
+        public List<Integer> getPorts() {
+            return emptyList();
+        }
+
+        @Override
+        public Optional<Integer> findFirstPort() {
+            return empty();
+        }
+
+        @Override
+        public List<URI> getURIs() {
+            return emptyList();
+        }
+
+        @Override
+        public Optional<URI> findFirstURI() {
+            return empty();
+        }
+
+        @Override
+        public CharSequence getInstance() {
+            return greeting;
+        }
+
+        @Override
+        public Set<Class<CharSequence>> getContracts() {
+            return ImmutableSet.of(CharSequence.class);
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import com.fitbur.testify.Cut;
+import com.fitbur.testify.Fake;
+import com.fitbur.testify.Module;
+import com.fitbur.testify.Real;
+import com.fitbur.testify.fixture.SpringIntegrationConfig;
+import com.fitbur.testify.fixture.service.GreetingService;
+import com.fitbur.testify.fixture.service.collaborator.Hello;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ * @author saden
+ */
+@RunWith(SpringIntegrationTest.class)
+@CacheContext
+@Module(SpringIntegrationConfig.class)
+public class ContextCacheTest {
+
+    @Cut
+    GreetingService cut;
+
+    @Fake
+    Hello hello;
+
+    @Real
+    SpringIntegrationConfig config;
+
+    @AfterClass
+    public static void verifyContextReuse() {
+        assertThat(Invocations.SERVICES).hasSize(1);
+        assertThat(Invocations.CUTS).hasSize(2);
+    }
+
+    @Test
+    public void givenFirstMethodVerifyInjections() {
+        assertThat(cut.getHello()).isSameAs(hello);
+        Invocations.SERVICES.add(config);
+        Invocations.CUTS.add(cut);
+    }
+
+    @Test
+    public void givenSecondMethodVerifyInjections() {
+        assertThat(cut.getHello()).isSameAs(hello);
+        Invocations.SERVICES.add(config);
+        Invocations.CUTS.add(cut);
+    }
+
+    static class Invocations {
+
+        static final Set<Object> SERVICES = ConcurrentHashMap.newKeySet();
+        static final Set<Object> CUTS = ConcurrentHashMap.newKeySet();
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import com.fitbur.testify.Module;
+import com.fitbur.testify.Real;
+import com.fitbur.testify.fixture.need.GreetingDatabase;
+import com.fitbur.testify.need.Need;
+import com.fitbur.testify.need.NeedScope;
+import javax.sql.DataSource;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ *
+ * @author saden
+ */
+@RunWith(SpringIntegrationTest.class)
+@Module(LazyHSQLNeedTest.LazyHSQLConfig.class)
+@Need(value = GreetingDatabase.class, scope = NeedScope.CLASS, contracts = DataSource.class)
+public class LazyHSQLNeedTest {
+
+    @Real
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void givenFirstMethodWritesNextMethodShouldSeeBaseline() {
+        assertBaselineAndWrite("first");
+    }
+
+    @Test
+    public void givenSecondMethodWritesNextMethodShouldSeeBaseline() {
+        assertBaselineAndWrite("second");
+    }
+
+    void assertBaselineAndWrite(String phrase) {
+        assertThat(jdbcTemplate.queryForList("SELECT phrase FROM greeting", String.class))
+                .containsExactly("hello");
+
+        jdbcTemplate.update("INSERT INTO greeting (phrase) VALUES (?)", phrase);
+    }
+
+    @Configuration
+    public static class LazyHSQLConfig {
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+    }
+
+}
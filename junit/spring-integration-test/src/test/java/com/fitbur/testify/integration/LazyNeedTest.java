@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import com.fitbur.testify.Module;
+import com.fitbur.testify.Real;
+import com.fitbur.testify.TestContext;
+import com.fitbur.testify.TestNeeds;
+import com.fitbur.testify.fixture.SpringIntegrationConfig;
+import com.fitbur.testify.fixture.need.GreetingNeed;
+import com.fitbur.testify.need.Need;
+import com.fitbur.testify.need.NeedScope;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ *
+ * @author saden
+ */
+@RunWith(SpringIntegrationTest.class)
+@Module(SpringIntegrationConfig.class)
+@Need(value = GreetingNeed.class, scope = NeedScope.METHOD, contracts = CharSequence.class)
+public class LazyNeedTest {
+
+    @Real
+    CharSequence greeting;
+
+    @Test
+    public void givenLazyNeedContractResolutionShouldProvisionNeed() {
+        assertThat(greeting).isEqualTo("hello");
+    }
+
+    @Test
+    public void givenUnresolvedContractsNeedShouldNotBeProvisioned() {
+        TestContext testContext = new TestContext(UnusedNeed.class.getSimpleName(),
+                UnusedNeed.class,
+                getLogger("testify"));
+        TestNeeds testNeeds = new TestNeeds(testContext, "unused", NeedScope.METHOD);
+        int inits = GreetingNeed.INITS.get();
+
+        testNeeds.init();
+        testNeeds.destory();
+
+        assertThat(GreetingNeed.INITS.get()).isEqualTo(inits);
+    }
+
+    @Need(value = GreetingNeed.class, scope = NeedScope.METHOD, contracts = CharSequence.class)
+    public static class UnusedNeed {
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import com.fitbur.testify.TestContext;
+import com.fitbur.testify.TestNeedGraph;
+import com.fitbur.testify.TestNeedPool;
+import com.fitbur.testify.TestNeedRegistry;
+import com.fitbur.testify.TestNeeds;
+import com.fitbur.testify.fixture.need.CountingNeed;
+import com.fitbur.testify.need.Need;
+import com.fitbur.testify.need.NeedScope;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ *
+ * @author saden
+ */
+public class NeedPoolTest {
+
+    @Before
+    public void init() {
+        CountingNeed.INITS.set(0);
+        CountingNeed.CLEANS.set(0);
+        CountingNeed.DESTROYS.set(0);
+    }
+
+    @Test
+    public void givenPooledNeedTestMethodsShouldUsePreWarmedNeeds() {
+        TestContext testContext = new TestContext(PooledNeed.class.getSimpleName(),
+                PooledNeed.class,
+                getLogger("testify"));
+        TestNeedPool pool = new TestNeedPool(1);
+
+        for (String method : new String[]{"first", "second", "third"}) {
+            TestNeeds testNeeds = new TestNeeds(testContext, method, NeedScope.METHOD,
+                    new TestNeedGraph(), TestNeedRegistry.INSTANCE, pool);
+            testNeeds.init();
+            testNeeds.destory();
+        }
+
+        pool.clear();
+
+        //every test method hands out a pre-warmed need and warms the next one
+        assertThat(CountingNeed.INITS.get()).isEqualTo(4);
+        assertThat(CountingNeed.CLEANS.get()).isEqualTo(0);
+        assertThat(CountingNeed.DESTROYS.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void givenPoolSizeOfOneAcquireShouldPreWarmOneNeed() {
+        TestContext testContext = new TestContext(PooledNeed.class.getSimpleName(),
+                PooledNeed.class,
+                getLogger("testify"));
+        TestNeedPool pool = new TestNeedPool(1);
+        TestNeeds testNeeds = new TestNeeds(testContext, "first", NeedScope.METHOD,
+                new TestNeedGraph(), TestNeedRegistry.INSTANCE, pool);
+        testNeeds.init();
+        testNeeds.destory();
+        pool.clear();
+
+        assertThat(CountingNeed.INITS.get()).isEqualTo(2);
+        assertThat(CountingNeed.DESTROYS.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenPoolSizeOfZeroNeedShouldNotBePoolable() {
+        assertThat(new TestNeedPool(0).isPoolable(CountingNeed.class)).isFalse();
+        assertThat(new TestNeedPool(1).isPoolable(CountingNeed.class)).isTrue();
+    }
+
+    @Need(value = CountingNeed.class, scope = NeedScope.METHOD)
+    public static class PooledNeed {
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import com.fitbur.testify.TestNeedPrefetcher;
+import com.fitbur.testify.need.NeedContainer;
+import com.fitbur.testify.need.NeedScope;
+import java.util.Set;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+
+/**
+ *
+ * @author saden
+ */
+public class NeedPrefetcherTest {
+
+    @Test
+    public void givenClasspathScanShouldFindDeclaredNeedContainers() {
+        TestNeedPrefetcher prefetcher = new TestNeedPrefetcher(false);
+
+        Set<NeedContainer> needContainers = prefetcher.scan(getClass().getClassLoader());
+
+        assertThat(needContainers.stream().map(NeedContainer::value).collect(toList())).contains("postgres");
+        assertThat(needContainers.stream().map(NeedContainer::scope).collect(toList())).contains(NeedScope.CLASS, NeedScope.METHOD);
+    }
+
+    @Test
+    public void givenDisabledPrefetcherStartShouldNotPrefetch() {
+        TestNeedPrefetcher prefetcher = new TestNeedPrefetcher(false);
+
+        prefetcher.start(getClass().getClassLoader());
+
+        assertThat(prefetcher.getPrefetched()).isCompleted();
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fitbur.testify.Cut;
+import com.fitbur.testify.Fake;
+import com.fitbur.testify.Module;
+import com.fitbur.testify.Real;
+import com.fitbur.testify.fixture.SpringIntegrationConfig;
+import com.fitbur.testify.fixture.service.GreetingService;
+import com.fitbur.testify.fixture.service.collaborator.Hello;
+import com.fitbur.testify.need.Need;
+import com.fitbur.testify.need.hsql.InMemoryHSQL;
+import com.fitbur.testify.need.jdbc.PooledDataSource;
+import java.sql.SQLException;
+import java.util.List;
+import static java.util.stream.Collectors.toList;
+import javax.sql.DataSource;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author saden
+ */
+public class PooledNeedLeakTest {
+
+    @Test
+    public void givenMethodNeedLeakingConnectionDestroyShouldReportLeak() {
+        Logger logger = (Logger) LoggerFactory.getLogger("hsql");
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        System.setProperty(PooledDataSource.SIZE_PROPERTY, "1");
+
+        try {
+            Result result = JUnitCore.runClasses(LeakingConnection.class);
+
+            List<String> warnings = appender.list.stream()
+                    .filter(e -> e.getLevel() == Level.WARN)
+                    .map(ILoggingEvent::getFormattedMessage)
+                    .collect(toList());
+
+            assertThat(result.wasSuccessful()).isTrue();
+            assertThat(warnings).hasSize(1);
+            assertThat(warnings.get(0)).endsWith("1 leaked.");
+        } finally {
+            System.clearProperty(PooledDataSource.SIZE_PROPERTY);
+            logger.detachAppender(appender);
+        }
+    }
+
+    @Module(SpringIntegrationConfig.class)
+    @Need(InMemoryHSQL.class)
+    @RunWith(SpringIntegrationTest.class)
+    public static class LeakingConnection {
+
+        @Cut
+        GreetingService cut;
+
+        @Fake
+        Hello hello;
+
+        @Real
+        DataSource dataSource;
+
+        @Test
+        public void leakConnection() throws SQLException {
+            dataSource.getConnection();
+        }
+
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fitbur.testify.Module;
+import com.fitbur.testify.Real;
+import com.fitbur.testify.fixture.need.GreetingDatabase;
+import com.fitbur.testify.need.Need;
+import com.fitbur.testify.need.NeedScope;
+import com.fitbur.testify.need.jdbc.QueryRecorder;
+import com.fitbur.testify.need.jdbc.RecordingDataSource;
+import java.util.List;
+import static java.util.stream.Collectors.toList;
+import javax.sql.DataSource;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ *
+ * @author saden
+ */
+public class QueryRecorderTest {
+
+    @Test
+    public void givenRecordingNeedRecorderShouldCountStatementsAndReportPerTestClass() {
+        Logger logger = (Logger) LoggerFactory.getLogger("testify");
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        System.setProperty(RecordingDataSource.RECORD_PROPERTY, "true");
+
+        try {
+            Result result = JUnitCore.runClasses(RecordedQueries.class);
+
+            List<String> reports = appender.list.stream()
+                    .map(ILoggingEvent::getFormattedMessage)
+                    .filter(p -> p.startsWith("Statements executed by test class"))
+                    .collect(toList());
+
+            assertThat(result.getFailures()).isEmpty();
+            assertThat(reports).hasSize(1);
+            assertThat(reports.get(0)).contains(
+                    RecordedQueries.class.getName() + ".selectOnce: 1 statements",
+                    RecordedQueries.class.getName() + ".selectTwice: 2 statements",
+                    "executed 2 times: SELECT phrase FROM greeting");
+        } finally {
+            System.clearProperty(RecordingDataSource.RECORD_PROPERTY);
+            logger.detachAppender(appender);
+        }
+    }
+
+    @Module(RecordedQueries.RecordedQueriesConfig.class)
+    @Need(value = GreetingDatabase.class,
+            scope = NeedScope.CLASS,
+            contracts = {DataSource.class, QueryRecorder.class})
+    @RunWith(SpringIntegrationTest.class)
+    public static class RecordedQueries {
+
+        @Real
+        JdbcTemplate jdbcTemplate;
+
+        @Real
+        QueryRecorder recorder;
+
+        @Test
+        public void selectOnce() {
+            jdbcTemplate.queryForList("SELECT phrase FROM greeting", String.class);
+
+            assertThat(recorder.getCount()).isEqualTo(1);
+            assertThat(recorder.getDuplicates()).isEmpty();
+        }
+
+        @Test
+        public void selectTwice() {
+            jdbcTemplate.queryForList("SELECT phrase FROM greeting", String.class);
+            jdbcTemplate.queryForList("SELECT phrase FROM greeting", String.class);
+
+            assertThat(recorder.getCount()).isEqualTo(2);
+            assertThat(recorder.getDuplicates()).containsEntry("SELECT phrase FROM greeting", 2L);
+        }
+
+        @Configuration
+        public static class RecordedQueriesConfig {
+
+            @Bean
+            JdbcTemplate jdbcTemplate(DataSource dataSource) {
+                return new JdbcTemplate(dataSource);
+            }
+
+        }
+
+    }
+
+}
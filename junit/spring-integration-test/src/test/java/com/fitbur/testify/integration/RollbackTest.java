@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import com.fitbur.testify.Module;
+import com.fitbur.testify.Real;
+import com.fitbur.testify.fixture.need.GreetingDatabase;
+import com.fitbur.testify.need.Need;
+import com.fitbur.testify.need.NeedScope;
+import javax.sql.DataSource;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.isActualTransactionActive;
+
+/**
+ *
+ * @author saden
+ */
+@RunWith(SpringIntegrationTest.class)
+@Module(RollbackTest.RollbackConfig.class)
+@Need(value = GreetingDatabase.class, scope = NeedScope.CLASS)
+@Rollback
+public class RollbackTest {
+
+    @Real
+    JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void insertGreeting() {
+        assertThat(isActualTransactionActive()).isTrue();
+        jdbcTemplate.update("INSERT INTO greeting (phrase) VALUES ('before')");
+    }
+
+    @Test
+    public void givenFirstMethodWritesShouldBeRolledBack() {
+        assertThat(isActualTransactionActive()).isTrue();
+        jdbcTemplate.update("INSERT INTO greeting (phrase) VALUES ('first')");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM greeting", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    public void givenSecondMethodWritesShouldBeRolledBack() {
+        assertThat(isActualTransactionActive()).isTrue();
+        jdbcTemplate.update("INSERT INTO greeting (phrase) VALUES ('second')");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM greeting", Integer.class)).isEqualTo(3);
+    }
+
+    @Configuration
+    public static class RollbackConfig {
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+    }
+
+}
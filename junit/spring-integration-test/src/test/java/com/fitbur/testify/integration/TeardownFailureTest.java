@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.integration;
+
+import com.fitbur.testify.Cut;
+import com.fitbur.testify.Fake;
+import com.fitbur.testify.Module;
+import com.fitbur.testify.fixture.SpringIntegrationConfig;
+import com.fitbur.testify.fixture.service.GreetingService;
+import com.fitbur.testify.fixture.service.collaborator.Hello;
+import com.fitbur.testify.need.Need;
+import com.fitbur.testify.need.NeedDescriptor;
+import com.fitbur.testify.need.NeedInstance;
+import com.fitbur.testify.need.NeedProvider;
+import static java.util.Collections.emptyMap;
+import java.util.Map;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runner.notification.Failure;
+
+/**
+ *
+ * @author saden
+ */
+public class TeardownFailureTest {
+
+    @Test
+    public void givenFailingTeardownFailureShouldBeReportedAgainstTestClass() {
+        Result result = JUnitCore.runClasses(FailingTeardown.class);
+
+        assertThat(result.getRunCount()).isEqualTo(1);
+        assertThat(result.getFailures()).hasSize(1);
+
+        Failure failure = result.getFailures().get(0);
+        assertThat(failure.getDescription().getClassName())
+                .isEqualTo(FailingTeardown.class.getName());
+        assertThat(failure.getDescription().getMethodName()).isNull();
+        assertThat(failure.getMessage())
+                .contains("verifyTeardown")
+                .contains("teardown failed");
+    }
+
+    @Module(SpringIntegrationConfig.class)
+    @Need(FailingNeed.class)
+    @RunWith(SpringIntegrationTest.class)
+    public static class FailingTeardown {
+
+        @Cut
+        GreetingService cut;
+
+        @Fake
+        Hello hello;
+
+        @Test
+        public void verifyTeardown() {
+        }
+
+    }
+
+    public static class FailingNeed implements NeedProvider<Object> {
+
+        @Override
+        public Object configuration(NeedDescriptor descriptor) {
+            return new Object();
+        }
+
+        @Override
+        public Map<String, NeedInstance> init(NeedDescriptor descriptor, Object configuration) {
+            return emptyMap();
+        }
+
+        @Override
+        public void destroy(NeedDescriptor descriptor, Object configuration) {
+            throw new IllegalStateException("teardown failed");
+        }
+
+    }
+
+}
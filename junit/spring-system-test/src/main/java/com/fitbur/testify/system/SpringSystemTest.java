@@ -15,7 +15,6 @@
  */
 package com.fitbur.testify.system;
 
-import com.fitbur.asm.ClassReader;
 import com.fitbur.bytebuddy.ByteBuddy;
 import com.fitbur.bytebuddy.dynamic.loading.ClassLoadingStrategy;
 import static com.fitbur.bytebuddy.implementation.MethodDelegation.to;
@@ -27,8 +26,13 @@ import com.fitbur.guava.common.collect.Lists;
 import com.fitbur.testify.App;
 import com.fitbur.testify.Real;
 import com.fitbur.testify.TestContext;
+import com.fitbur.testify.TestInvocation;
 import com.fitbur.testify.TestNeedContainers;
+import com.fitbur.testify.TestNeedGraph;
+import com.fitbur.testify.TestNeedPrefetcher;
 import com.fitbur.testify.TestNeeds;
+import com.fitbur.testify.TestTeardown;
+import com.fitbur.testify.analyzer.ClassAnalysisCache;
 import com.fitbur.testify.analyzer.CutClassAnalyzer;
 import com.fitbur.testify.analyzer.TestClassAnalyzer;
 import com.fitbur.testify.client.ClientContext;
@@ -39,6 +43,7 @@ import com.fitbur.testify.descriptor.FieldDescriptor;
 import com.fitbur.testify.di.ServiceAnnotations;
 import com.fitbur.testify.di.ServiceLocator;
 import com.fitbur.testify.di.spring.SpringServiceLocator;
+import com.fitbur.testify.junit.core.JUnitLoggingBridge;
 import com.fitbur.testify.junit.core.JUnitTestNotifier;
 import com.fitbur.testify.need.NeedScope;
 import com.fitbur.testify.server.ServerContext;
@@ -47,6 +52,7 @@ import com.fitbur.testify.server.ServerProvider;
 import com.fitbur.testify.system.internal.SpringSystemClientDescriptor;
 import com.fitbur.testify.system.internal.SpringSystemServerDescriptor;
 import com.fitbur.testify.system.internal.SpringSystemServletInterceptor;
+import static java.lang.String.format;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
@@ -73,7 +79,6 @@ import org.junit.runners.model.Statement;
 import org.junit.runners.model.TestClass;
 import org.slf4j.Logger;
 import static org.slf4j.LoggerFactory.getLogger;
-import org.slf4j.bridge.SLF4JBridgeHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.web.SpringServletContainerInitializer;
@@ -90,13 +95,17 @@ public class SpringSystemTest extends BlockJUnit4ClassRunner {
 
     static final ByteBuddy BYTE_BUDDY = new ByteBuddy();
     static final Logger LOGGER = getLogger("testify");
-    static final Map<Class, TestContext> TEST_CONTEXTS = new ConcurrentHashMap<>();
+    //test contexts hold the test instance and are never shared between
+    //runners so test classes can run concurrently
+    private final Map<Class, TestContext> testClassContexts = new ConcurrentHashMap<>();
     private ServiceAnnotations serviceAnnotations;
     private ServerContext serverContext;
     private ClientContext clientContext;
     private TestNeeds classTestNeeds;
     private TestNeedContainers classTestNeedContainers;
     private SpringSystemServletInterceptor interceptor;
+    private final TestTeardown teardown = new TestTeardown();
+    private JUnitTestNotifier testNotifier;
 
     /**
      * Create a new test runner instance for the class under test.
@@ -107,23 +116,22 @@ public class SpringSystemTest extends BlockJUnit4ClassRunner {
      */
     public SpringSystemTest(Class<?> testClass) throws InitializationError {
         super(testClass);
+        //container needs are prepared while the first test classes run
+        TestNeedPrefetcher.INSTANCE.start(testClass.getClassLoader());
     }
 
     public TestContext getTestContext(Class<?> javaClass) {
         String name = javaClass.getSimpleName();
-        TestContext testContext = TEST_CONTEXTS.computeIfAbsent(javaClass, p -> {
+        TestContext testContext = testClassContexts.computeIfAbsent(javaClass, p -> {
             try {
                 TestContext context = new TestContext(name, javaClass, LOGGER);
 
-                ClassReader testReader = new ClassReader(javaClass.getName());
-                testReader.accept(new TestClassAnalyzer(context), ClassReader.SKIP_DEBUG);
+                ClassAnalysisCache.INSTANCE.accept(javaClass, new TestClassAnalyzer(context));
 
                 CutDescriptor cutDescriptor = context.getCutDescriptor();
 
                 if (cutDescriptor != null) {
-                    String typeName = context.getCutDescriptor().getField().getType().getName();
-                    ClassReader cutReader = new ClassReader(typeName);
-                    cutReader.accept(new CutClassAnalyzer(context), ClassReader.SKIP_DEBUG);
+                    ClassAnalysisCache.INSTANCE.accept(cutDescriptor.getType(), new CutClassAnalyzer(context));
                 }
 
                 return context;
@@ -141,18 +149,14 @@ public class SpringSystemTest extends BlockJUnit4ClassRunner {
     @Override
     public void run(RunNotifier notifier) {
         //register slf4j bridge
-        if (!SLF4JBridgeHandler.isInstalled()) {
-            SLF4JBridgeHandler.removeHandlersForRootLogger();
-            SLF4JBridgeHandler.install();
-        }
+        JUnitLoggingBridge.install();
 
         Description description = getDescription();
         TestClass testClass = getTestClass();
         Class<?> javaClass = testClass.getJavaClass();
         TestContext testContext = getTestContext(javaClass);
 
-        JUnitTestNotifier testNotifier
-                = new JUnitTestNotifier(notifier, description, LOGGER, testContext);
+        testNotifier = new JUnitTestNotifier(notifier, description, LOGGER, testContext);
 
         this.serviceAnnotations = new ServiceAnnotations();
         serviceAnnotations.addInjectors(Inject.class, Autowired.class, Real.class);
@@ -163,14 +167,17 @@ public class SpringSystemTest extends BlockJUnit4ClassRunner {
             Object testInstance = createTest();
             testContext.setTestInstance(testInstance);
 
+            TestNeedGraph classTestNeedGraph = new TestNeedGraph();
             classTestNeeds = new TestNeeds(testContext,
                     javaClass.getSimpleName(),
-                    NeedScope.CLASS);
+                    NeedScope.CLASS,
+                    classTestNeedGraph);
             classTestNeeds.init();
 
             classTestNeedContainers = new TestNeedContainers(testContext,
                     javaClass.getSimpleName(),
-                    NeedScope.CLASS);
+                    NeedScope.CLASS,
+                    classTestNeedGraph);
 
             classTestNeedContainers.init();
 
@@ -190,13 +197,21 @@ public class SpringSystemTest extends BlockJUnit4ClassRunner {
             LOGGER.error("{}", e.getMessage());
             testNotifier.addFailure(e);
         } finally {
-            if (SLF4JBridgeHandler.isInstalled()) {
-                SLF4JBridgeHandler.uninstall();
+            try {
+                //test methods must be torn down before the class needs and
+                //while the slf4j bridge is still installed
+                teardown.drain();
+            } catch (Throwable e) {
+                LOGGER.error("{}", e.getMessage());
+                testNotifier.addFailure(e);
             }
 
+            JUnitLoggingBridge.uninstall();
+
             if (javaClass.getAnnotation(Ignore.class) == null) {
                 classTestNeeds.destory();
                 classTestNeedContainers.destory();
+                testNotifier.reportQueries();
             }
         }
     }
@@ -235,8 +250,9 @@ public class SpringSystemTest extends BlockJUnit4ClassRunner {
 
         ServiceLocator serviceLocator = serverContext.getLocator();
 
+        TestInvocation invocation = new TestInvocation(testInstance);
         SystemTestReifier reifier
-                = new SystemTestReifier(testContext, serviceLocator, testInstance);
+                = new SystemTestReifier(testContext, serviceLocator, invocation);
         SystemTestCreator creator
                 = new SystemTestCreator(testContext, reifier, serviceLocator);
 
@@ -247,14 +263,14 @@ public class SpringSystemTest extends BlockJUnit4ClassRunner {
         Set<FieldDescriptor> real = testContext.getFieldDescriptors()
                 .values()
                 .parallelStream()
-                .filter(p -> !p.getInstance().isPresent())
+                .filter(p -> !invocation.getInstance(p).isPresent())
                 .filter(p -> p.hasAnnotations(serviceAnnotations.getInjectors()))
                 .collect(toSet());
 
         creator.real(real);
 
         SystemTestVerifier verifier = new SystemTestVerifier(testContext, LOGGER);
-        verifier.wiring();
+        verifier.wiring(invocation);
 
         Statement statement = methodInvoker(method, testInstance);
         statement = possiblyExpectingExceptions(method, testInstance, statement);
@@ -384,10 +400,25 @@ public class SpringSystemTest extends BlockJUnit4ClassRunner {
     protected void runChild(FrameworkMethod method, RunNotifier notifier) {
         super.runChild(method, notifier);
         if (method.getAnnotation(Ignore.class) == null) {
-            clientContext.getInstance().close();
-            serverContext.getInstance().stop();
-            interceptor.getMethodTestNeeds().destory();
-            interceptor.getMethodTestNeedContainers().destory();
+            ClientInstance client = clientContext.getInstance();
+            ServerInstance server = serverContext.getInstance();
+            TestNeeds needs = interceptor.getMethodTestNeeds();
+            TestNeedContainers needContainers = interceptor.getMethodTestNeedContainers();
+
+            //the next test method is set up while this one is torn down
+            teardown.submit(() -> {
+                client.close();
+                server.stop();
+                needs.destory();
+                needContainers.destory();
+            }, e -> {
+                LOGGER.error("{}", e.getMessage());
+                //the test method has already finished so the failure is
+                //reported against the test class
+                testNotifier.addFailure(new IllegalStateException(format(
+                        "Teardown of test method '%s' failed.\n%s",
+                        method.getName(), e.getMessage()), e));
+            });
         }
     }
 
@@ -21,6 +21,7 @@ import com.fitbur.bytebuddy.implementation.bind.annotation.SuperCall;
 import com.fitbur.testify.Module;
 import com.fitbur.testify.TestContext;
 import com.fitbur.testify.TestNeedContainers;
+import com.fitbur.testify.TestNeedGraph;
 import com.fitbur.testify.TestNeeds;
 import com.fitbur.testify.di.ServiceAnnotations;
 import com.fitbur.testify.di.spring.SpringServiceLocator;
@@ -88,14 +89,18 @@ public class SpringSystemServletInterceptor {
 
         serviceLocator = new SpringServiceLocator(context, serviceAnnotations);
 
+        //method scoped needs can depend on class scoped needs
+        TestNeedGraph methodTestNeedGraph = new TestNeedGraph(classTestNeeds.getGraph());
         methodTestNeeds = new TestNeeds(testContext,
                 methodName,
-                NeedScope.METHOD);
+                NeedScope.METHOD,
+                methodTestNeedGraph);
         methodTestNeeds.init();
 
         methodTestNeedContainers = new TestNeedContainers(testContext,
                 methodName,
-                NeedScope.METHOD);
+                NeedScope.METHOD,
+                methodTestNeedGraph);
         methodTestNeedContainers.init();
 
         SpringServicePostProcessor postProcessor = new SpringServicePostProcessor(
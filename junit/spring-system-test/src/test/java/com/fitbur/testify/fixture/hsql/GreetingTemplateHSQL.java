@@ -0,0 +1,46 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.fixture.hsql;
+
+import com.fitbur.testify.need.hsql.InMemoryHSQLTemplate;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+/**
+ * A template HSQL need that creates and seeds a greeting schema and counts
+ * how often the template is built.
+ *
+ * @author saden
+ */
+public class GreetingTemplateHSQL extends InMemoryHSQLTemplate {
+
+    public static final AtomicInteger BUILDS = new AtomicInteger();
+
+    @Override
+    protected void build(DataSource dataSource) throws SQLException {
+        BUILDS.incrementAndGet();
+
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE greeting (id INTEGER IDENTITY PRIMARY KEY, phrase VARCHAR(32))");
+            statement.execute("INSERT INTO greeting (phrase) VALUES ('it''s\nhello')");
+        }
+    }
+
+}
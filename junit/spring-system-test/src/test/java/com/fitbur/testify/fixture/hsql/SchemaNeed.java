@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.fixture.hsql;
+
+import static com.fitbur.guava.common.base.Preconditions.checkState;
+import com.fitbur.testify.need.NeedDescriptor;
+import com.fitbur.testify.need.NeedInstance;
+import com.fitbur.testify.need.NeedProvider;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import static java.util.Collections.emptyMap;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * A need that creates and seeds a schema in the database provided by the need
+ * it depends on.
+ *
+ * @author saden
+ */
+public class SchemaNeed implements NeedProvider<Object> {
+
+    @Override
+    public Object configuration(NeedDescriptor descriptor) {
+        return new Object();
+    }
+
+    @Override
+    public Map<String, NeedInstance> init(NeedDescriptor descriptor, Object configuration) {
+        NeedInstance instance = descriptor.findDependency(DataSource.class).get();
+        DataSource dataSource = (DataSource) instance.getInstance();
+
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE greeting (phrase VARCHAR(32))");
+            statement.execute("INSERT INTO greeting VALUES ('hello')");
+        } catch (SQLException e) {
+            checkState(false, "Schema could not be created.\n%s", e.getMessage());
+        }
+
+        return emptyMap();
+    }
+
+}
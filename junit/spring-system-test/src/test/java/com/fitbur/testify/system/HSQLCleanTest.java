@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.system;
+
+import com.fitbur.testify.fixture.hsql.GreetingTemplateHSQL;
+import com.fitbur.testify.need.NeedDescriptor;
+import com.fitbur.testify.need.hsql.InMemoryHSQL;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+
+/**
+ *
+ * @author saden
+ */
+public class HSQLCleanTest {
+
+    @Test
+    public void givenWrittenTemplateTablesCleanShouldRestoreBaseline() throws SQLException {
+        NeedDescriptor descriptor = mock(NeedDescriptor.class);
+        GreetingTemplateHSQL provider = new GreetingTemplateHSQL();
+        JDBCDataSource dataSource = createDataSource("template");
+        provider.init(descriptor, dataSource);
+        provider.clean(descriptor, dataSource);
+
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            for (int i = 0; i < 2; i++) {
+                statement.execute("INSERT INTO greeting (phrase) VALUES ('bye')");
+                statement.execute("UPDATE greeting SET phrase = 'changed' WHERE id = 0");
+
+                provider.clean(descriptor, dataSource);
+
+                assertThat(query(statement, "SELECT phrase FROM greeting")).containsExactly("it's\nhello");
+                statement.execute("INSERT INTO greeting (phrase) VALUES ('bye')");
+                assertThat(query(statement, "SELECT id FROM greeting WHERE phrase = 'bye'")).containsExactly("1");
+            }
+        } finally {
+            provider.destroy(descriptor, dataSource);
+        }
+    }
+
+    @Test
+    public void givenWrittenTableOnlyWrittenTableShouldBeReset() throws SQLException {
+        NeedDescriptor descriptor = mock(NeedDescriptor.class);
+        InMemoryHSQL provider = new InMemoryHSQL();
+        JDBCDataSource dataSource = createDataSource("plain");
+        provider.init(descriptor, dataSource);
+
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE greeting (id INTEGER PRIMARY KEY, phrase VARCHAR(32))");
+            statement.execute("CREATE TABLE farewell (id INTEGER PRIMARY KEY, "
+                    + "greeting_id INTEGER REFERENCES greeting(id))");
+            statement.execute("INSERT INTO greeting VALUES (1, 'hello')");
+            statement.execute("INSERT INTO farewell VALUES (1, 1)");
+
+            //the first clean captures the baseline and the second clean starts
+            //tracking the tables
+            provider.clean(descriptor, dataSource);
+            provider.clean(descriptor, dataSource);
+
+            statement.execute("INSERT INTO greeting VALUES (2, 'hi')");
+            assertThat(query(statement, "SELECT TABLE_NAME FROM TESTIFY.DIRTY_TABLES"))
+                    .containsExactly("\"PUBLIC\".\"GREETING\"");
+
+            provider.clean(descriptor, dataSource);
+            assertThat(query(statement, "SELECT phrase FROM greeting")).containsExactly("hello");
+            assertThat(query(statement, "SELECT id FROM farewell")).containsExactly("1");
+            assertThat(query(statement, "SELECT TABLE_NAME FROM TESTIFY.DIRTY_TABLES")).isEmpty();
+
+            //tables created after the baseline was captured are truncated
+            statement.execute("CREATE TABLE salutation (phrase VARCHAR(32))");
+            statement.execute("INSERT INTO salutation VALUES ('hey')");
+
+            provider.clean(descriptor, dataSource);
+            assertThat(query(statement, "SELECT phrase FROM salutation")).isEmpty();
+        } finally {
+            provider.destroy(descriptor, dataSource);
+        }
+    }
+
+    @Test
+    public void givenNeedCleanedOnceTablesShouldNotBeTracked() throws SQLException {
+        NeedDescriptor descriptor = mock(NeedDescriptor.class);
+        InMemoryHSQL provider = new InMemoryHSQL();
+        JDBCDataSource dataSource = createDataSource("once");
+        provider.init(descriptor, dataSource);
+
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            provider.clean(descriptor, dataSource);
+
+            statement.execute("CREATE TABLE greeting (phrase VARCHAR(32))");
+            statement.execute("INSERT INTO greeting VALUES ('hello')");
+            assertThat(query(statement, "SELECT SCHEMA_NAME FROM INFORMATION_SCHEMA.SCHEMATA"))
+                    .doesNotContain("TESTIFY");
+
+            //the baseline of an empty database has no tables
+            provider.clean(descriptor, dataSource);
+            assertThat(query(statement, "SELECT phrase FROM greeting")).isEmpty();
+        } finally {
+            provider.destroy(descriptor, dataSource);
+        }
+    }
+
+    JDBCDataSource createDataSource(String name) {
+        JDBCDataSource dataSource = new JDBCDataSource();
+        dataSource.setUrl("jdbc:hsqldb:mem:" + getClass().getSimpleName() + "_" + name);
+        dataSource.setUser("sa");
+        dataSource.setPassword("");
+
+        return dataSource;
+    }
+
+    List<String> query(Statement statement, String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                values.add(resultSet.getString(1));
+            }
+        }
+
+        return values;
+    }
+
+}
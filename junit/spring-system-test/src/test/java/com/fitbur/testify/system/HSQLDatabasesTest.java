@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.system;
+
+import com.fitbur.testify.need.hsql.HSQLDatabases;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.Test;
+
+/**
+ *
+ * @author saden
+ */
+public class HSQLDatabasesTest {
+
+    @Test
+    public void givenRemovedDatabaseItShouldNotBeTracked() throws SQLException {
+        HSQLDatabases databases = new HSQLDatabases(0);
+        JDBCDataSource dataSource = createDatabase("removed", 10);
+
+        databases.add(dataSource);
+        databases.add(dataSource);
+        assertThat(databases.getFootprints()).containsKey(dataSource.getUrl());
+        assertThat(databases.getFootprint(dataSource)).isPositive();
+
+        databases.remove(dataSource);
+        assertThat(databases.getFootprints()).containsKey(dataSource.getUrl());
+
+        databases.remove(dataSource);
+        assertThat(databases.getFootprints()).doesNotContainKey(dataSource.getUrl());
+    }
+
+    @Test
+    public void givenEmptyDatabaseExceedingBudgetLaterAddShouldNotFail() throws SQLException {
+        HSQLDatabases databases = new HSQLDatabases(1024);
+        JDBCDataSource dataSource = createDatabase("empty", 0);
+
+        databases.add(dataSource);
+        databases.check(dataSource);
+
+        populate(dataSource, 100);
+
+        try {
+            databases.check(dataSource);
+            fail("budget should be exceeded");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage()).contains(dataSource.getUrl());
+        }
+
+        databases.remove(dataSource);
+    }
+
+    @Test
+    public void givenDatabasesExceedingBudgetCheckShouldNotShutdownOtherDatabases() throws SQLException {
+        HSQLDatabases databases = new HSQLDatabases(8 * 1024);
+        JDBCDataSource oldest = createDatabase("oldest", 50);
+        JDBCDataSource newest = createDatabase("newest", 50);
+
+        databases.add(oldest);
+        databases.add(newest);
+
+        try {
+            databases.check(newest);
+            fail("budget should be exceeded");
+        } catch (IllegalStateException e) {
+            assertThat(databases.getFootprints()).containsKeys(oldest.getUrl(), newest.getUrl());
+            assertThat(databases.getFootprint(oldest)).isPositive();
+        }
+
+        databases.remove(oldest);
+        databases.remove(newest);
+    }
+
+    JDBCDataSource createDatabase(String name, int rows) throws SQLException {
+        JDBCDataSource dataSource = new JDBCDataSource();
+        dataSource.setUrl("jdbc:hsqldb:mem:" + getClass().getSimpleName() + "_" + name);
+        dataSource.setUser("sa");
+        dataSource.setPassword("");
+
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE greeting (phrase VARCHAR(32))");
+        }
+
+        populate(dataSource, rows);
+
+        return dataSource;
+    }
+
+    void populate(JDBCDataSource dataSource, int rows) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            for (int i = 0; i < rows; i++) {
+                statement.execute("INSERT INTO greeting VALUES ('hello')");
+            }
+        }
+    }
+
+}
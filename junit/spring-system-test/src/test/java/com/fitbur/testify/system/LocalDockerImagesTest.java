@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.system;
+
+import com.fitbur.testify.need.docker.DockerImages;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.ListImagesCmd;
+import com.github.dockerjava.api.model.Image;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author saden
+ */
+public class LocalDockerImagesTest {
+
+    static final String DAEMON = "http://127.0.0.1:2375";
+    static final String IMAGE = "postgres:9.4";
+
+    DockerClient client;
+    Path directory;
+
+    @Before
+    public void init() throws IOException {
+        client = mock(DockerClient.class);
+        directory = Files.createTempDirectory("testify-docker");
+    }
+
+    @Test
+    public void givenMissingImageIsCurrentShouldReturnFalse() {
+        givenImages();
+        DockerImages images = new DockerImages(Optional.of(directory), Long.MAX_VALUE);
+
+        assertThat(images.isCurrent(client, DAEMON, IMAGE)).isFalse();
+    }
+
+    @Test
+    public void givenLocalImageIsCurrentShouldReturnTrueAndStoreEntry() {
+        givenImages(image("sha256:1", "postgres:latest", IMAGE));
+        DockerImages images = new DockerImages(Optional.of(directory), Long.MAX_VALUE);
+
+        assertThat(images.isCurrent(client, DAEMON, IMAGE)).isTrue();
+        assertThat(Files.exists(directory.resolve("images.properties"))).isTrue();
+    }
+
+    @Test
+    public void givenExpiredEntryIsCurrentShouldReturnFalseUntilResolved() {
+        givenImages(image("sha256:1", IMAGE));
+        DockerImages images = new DockerImages(Optional.of(directory), 0);
+
+        assertThat(images.isCurrent(client, DAEMON, IMAGE)).isTrue();
+        assertThat(images.isCurrent(client, DAEMON, IMAGE)).isFalse();
+
+        //the entries on disk are shared with a fresh index
+        DockerImages reloaded = new DockerImages(Optional.of(directory), Long.MAX_VALUE);
+        reloaded.resolved(client, DAEMON, IMAGE);
+
+        assertThat(reloaded.isCurrent(client, DAEMON, IMAGE)).isTrue();
+    }
+
+    void givenImages(Image... images) {
+        ListImagesCmd cmd = mock(ListImagesCmd.class);
+        when(cmd.exec()).thenReturn(images.length == 0 ? Collections.emptyList() : Arrays.asList(images));
+        when(client.listImagesCmd()).thenReturn(cmd);
+    }
+
+    Image image(String id, String... tags) {
+        Image image = mock(Image.class);
+        when(image.getId()).thenReturn(id);
+        when(image.getRepoTags()).thenReturn(tags);
+
+        return image;
+    }
+
+}
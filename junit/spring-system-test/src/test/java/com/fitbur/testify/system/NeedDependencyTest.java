@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.system;
+
+import com.fitbur.testify.App;
+import com.fitbur.testify.Real;
+import com.fitbur.testify.fixture.hsql.InMemoryHSQLApplication;
+import com.fitbur.testify.fixture.hsql.SchemaNeed;
+import com.fitbur.testify.need.Need;
+import com.fitbur.testify.need.NeedInstance;
+import com.fitbur.testify.need.hsql.InMemoryHSQL;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ * @author saden
+ */
+@App(InMemoryHSQLApplication.class)
+@Need(InMemoryHSQL.class)
+@Need(value = SchemaNeed.class, requires = DataSource.class)
+@RunWith(SpringSystemTest.class)
+public class NeedDependencyTest {
+
+    @Real
+    NeedInstance<DataSource> instance;
+
+    @Test
+    public void givenSchemaNeedRequiringDataSourceSchemaShouldBeCreated() throws SQLException {
+        try (Connection connection = instance.getInstance().getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT phrase FROM greeting")) {
+            assertThat(resultSet.next()).isTrue();
+            assertThat(resultSet.getString(1)).isEqualTo("hello");
+        }
+    }
+
+}
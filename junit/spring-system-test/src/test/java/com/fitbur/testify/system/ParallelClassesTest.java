@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import org.junit.experimental.ParallelComputer;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+/**
+ *
+ * @author saden
+ */
+public class ParallelClassesTest {
+
+    @Test
+    public void givenConcurrentTestClassesTheyShouldNotCollide() {
+        Result result = JUnitCore.runClasses(ParallelComputer.classes(),
+                InMemoryHSQLNeedTest.class,
+                InMemoryHSQLNeedTest.class,
+                InMemoryHSQLNeedTest.class);
+
+        assertThat(result.getFailures()).isEmpty();
+        assertThat(result.getRunCount()).isEqualTo(6);
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.system;
+
+import com.fitbur.testify.need.jdbc.PooledDataSource;
+import com.fitbur.testify.need.jdbc.PooledDataSourceMetrics;
+import java.sql.Connection;
+import java.sql.SQLException;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.Test;
+
+/**
+ *
+ * @author saden
+ */
+public class PooledDataSourceTest {
+
+    @Test
+    public void givenReturnedConnectionBorrowShouldReusePhysicalConnection() throws SQLException {
+        try (PooledDataSource dataSource = new PooledDataSource(createDataSource("reuse"), 1, 1000, false)) {
+            Connection first;
+            Connection second;
+
+            try (Connection connection = dataSource.getConnection()) {
+                first = connection.unwrap(Connection.class);
+                connection.setAutoCommit(false);
+            }
+
+            try (Connection connection = dataSource.getConnection()) {
+                second = connection.unwrap(Connection.class);
+                assertThat(connection.getAutoCommit()).isTrue();
+            }
+
+            assertThat(second).isSameAs(first);
+
+            PooledDataSourceMetrics metrics = dataSource.reset();
+            assertThat(metrics.getBorrows()).isEqualTo(2);
+            assertThat(metrics.getActive()).isZero();
+            assertThat(metrics.getIdle()).isEqualTo(1);
+            assertThat(metrics.getLeaks()).isZero();
+        }
+    }
+
+    @Test
+    public void givenConnectionNotReturnedResetShouldReclaimLeak() throws SQLException {
+        try (PooledDataSource dataSource = new PooledDataSource(createDataSource("leak"), 1, 1000, true)) {
+            Connection leaked = dataSource.getConnection();
+
+            PooledDataSourceMetrics metrics = dataSource.reset();
+            assertThat(metrics.getLeaks()).isEqualTo(1);
+            assertThat(metrics.getActive()).isZero();
+            assertThat(leaked.isClosed()).isTrue();
+
+            try (Connection connection = dataSource.getConnection()) {
+                assertThat(connection.isValid(0)).isTrue();
+            }
+        }
+    }
+
+    @Test(expected = SQLException.class)
+    public void givenExhaustedPoolBorrowShouldTimeout() throws SQLException {
+        try (PooledDataSource dataSource = new PooledDataSource(createDataSource("exhausted"), 1, 10, false);
+                Connection connection = dataSource.getConnection()) {
+            dataSource.getConnection();
+        }
+    }
+
+    JDBCDataSource createDataSource(String name) {
+        JDBCDataSource dataSource = new JDBCDataSource();
+        dataSource.setUrl("jdbc:hsqldb:mem:" + getClass().getSimpleName() + "_" + name);
+        dataSource.setUser("sa");
+        dataSource.setPassword("");
+
+        return dataSource;
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.system;
+
+import com.fitbur.testify.need.docker.Backoff;
+import com.fitbur.testify.need.docker.ReadinessSelector;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author saden
+ */
+public class ReadinessSelectorTest {
+
+    ReadinessSelector selector = ReadinessSelector.INSTANCE;
+    Backoff backoff = new Backoff(10, 40, 3, 5000, MILLISECONDS);
+    HttpServer server;
+    InetSocketAddress address;
+
+    @Before
+    public void init() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/health", p -> {
+            p.sendResponseHeaders(200, -1);
+            p.close();
+        });
+        server.createContext("/down", p -> {
+            p.sendResponseHeaders(503, -1);
+            p.close();
+        });
+        server.start();
+        address = server.getAddress();
+    }
+
+    @After
+    public void destroy() {
+        server.stop(0);
+    }
+
+    @Test
+    public void givenListeningPortConnectShouldComplete() throws Exception {
+        selector.connect(address, Optional.empty(), backoff).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void givenClosedPortConnectShouldFail() throws Exception {
+        int port;
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        assertFailure(selector.connect(new InetSocketAddress("127.0.0.1", port), Optional.empty(), backoff));
+    }
+
+    @Test
+    public void givenUnresolvedAddressConnectShouldFail() throws Exception {
+        InetSocketAddress unresolved = InetSocketAddress.createUnresolved("testify.invalid", 80);
+
+        assertFailure(selector.connect(unresolved, Optional.empty(), backoff));
+        //the selector thread survives the failed attempts
+        selector.connect(address, Optional.empty(), backoff).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void givenHealthyPathConnectShouldComplete() throws Exception {
+        selector.connect(address, Optional.of("/health"), backoff).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void givenUnavailablePathConnectShouldFail() throws Exception {
+        assertFailure(selector.connect(address, Optional.of("/down"), backoff));
+    }
+
+    @Test
+    public void givenFailingCheckPollShouldRetryUntilCheckPasses() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        selector.poll("check", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException();
+            }
+        }, backoff, ForkJoinPool.commonPool()).get(5, TimeUnit.SECONDS);
+
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    void assertFailure(CompletableFuture<Void> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("readiness check should fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause())
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("not ready after 4 attempts");
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.system;
+
+import com.fitbur.testify.need.jdbc.QueryRecord;
+import com.fitbur.testify.need.jdbc.QueryRecorder;
+import com.fitbur.testify.need.jdbc.RecordingDataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ * @author saden
+ */
+public class RecordingDataSourceTest {
+
+    @After
+    public void clearCurrentTest() {
+        QueryRecorder.setCurrentTest(null);
+    }
+
+    @Test
+    public void givenStatementsRecorderShouldRecordRowsOfCurrentTest() throws SQLException {
+        RecordingDataSource recorder = new RecordingDataSource(createDataSource("rows"), Long.MAX_VALUE);
+        QueryRecorder.setCurrentTest("rows");
+
+        try (Connection connection = recorder.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE Greeting (id INT, phrase VARCHAR(16))");
+            assertThat(statement.executeUpdate("INSERT INTO Greeting VALUES (1, 'hello'), (2, 'hi')")).isEqualTo(2);
+
+            try (ResultSet resultSet = statement.executeQuery("SELECT phrase FROM Greeting")) {
+                while (resultSet.next()) {
+                    assertThat(resultSet.getStatement()).isSameAs(statement);
+                }
+            }
+        }
+
+        List<QueryRecord> records = recorder.getRecords();
+        assertThat(recorder.getCount()).isEqualTo(3);
+        assertThat(records).extracting("test").containsOnly("rows");
+        assertThat(records).extracting("rows").containsExactly(0L, 2L, 2L);
+        assertThat(recorder.getDuplicates()).isEmpty();
+        assertThat(recorder.getRecords(QueryRecorder.NO_TEST)).isEmpty();
+    }
+
+    @Test
+    public void givenRepeatedPreparedStatementRecorderShouldReportDuplicates() throws SQLException {
+        RecordingDataSource recorder = new RecordingDataSource(createDataSource("duplicates"), 0);
+
+        try (Connection connection = recorder.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE Greeting (id INT, phrase VARCHAR(16))");
+            }
+
+            QueryRecorder.setCurrentTest("duplicates");
+
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO Greeting VALUES (?, ?)")) {
+                for (int i = 0; i < 3; i++) {
+                    statement.setInt(1, i);
+                    statement.setString(2, "hello");
+                    statement.executeUpdate();
+                }
+
+                statement.addBatch();
+                statement.addBatch();
+                assertThat(statement.executeBatch()).containsExactly(1, 1);
+            }
+        }
+
+        assertThat(recorder.getCount()).isEqualTo(4);
+        assertThat(recorder.getDuplicates()).containsEntry("INSERT INTO Greeting VALUES (?, ?)", 4L);
+        assertThat(recorder.getRecords()).extracting("rows").containsExactly(1L, 1L, 1L, 2L);
+        assertThat(recorder.getSlowQueries()).hasSize(4);
+        assertThat(recorder.getTests()).containsExactly(QueryRecorder.NO_TEST, "duplicates");
+        assertThat(recorder.report()).contains("duplicates: 4 statements", "executed 4 times");
+    }
+
+    JDBCDataSource createDataSource(String name) {
+        JDBCDataSource dataSource = new JDBCDataSource();
+        dataSource.setUrl("jdbc:hsqldb:mem:" + getClass().getSimpleName() + "_" + name);
+        dataSource.setUser("sa");
+        dataSource.setPassword("");
+
+        return dataSource;
+    }
+
+}
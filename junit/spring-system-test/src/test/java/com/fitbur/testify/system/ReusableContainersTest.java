@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.system;
+
+import com.fitbur.testify.need.NeedContainer;
+import com.fitbur.testify.need.docker.ReusableContainers;
+import static com.fitbur.testify.need.docker.ReusableContainers.HASH_LABEL;
+import com.github.dockerjava.api.ConflictException;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CreateContainerCmd;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.ListContainersCmd;
+import com.github.dockerjava.api.command.RemoveContainerCmd;
+import com.github.dockerjava.api.model.Container;
+import java.util.Arrays;
+import java.util.Collections;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ * @author saden
+ */
+public class ReusableContainersTest {
+
+    DockerClient client;
+    CreateContainerCmd createCmd;
+    RemoveContainerCmd removeCmd;
+    ReusableContainers containers;
+
+    @Before
+    public void init() {
+        client = mock(DockerClient.class);
+        createCmd = mock(CreateContainerCmd.class);
+        removeCmd = mock(RemoveContainerCmd.class);
+        containers = new ReusableContainers(true);
+
+        CreateContainerResponse response = new CreateContainerResponse();
+        response.setId("lock");
+        when(createCmd.withName(anyString())).thenReturn(createCmd);
+        when(createCmd.withLabels(anyMapOf(String.class, String.class))).thenReturn(createCmd);
+        when(createCmd.exec()).thenReturn(response);
+        when(client.createContainerCmd(anyString())).thenReturn(createCmd);
+        when(client.removeContainerCmd(anyString())).thenReturn(removeCmd);
+    }
+
+    @Test
+    public void givenNeedWithResetCommandIsReusableShouldReturnTrue() {
+        assertThat(containers.isReusable(need("postgres", "9.4", ""))).isTrue();
+    }
+
+    @Test
+    public void givenNeedWithoutResetCommandIsReusableShouldReturnFalse() {
+        assertThat(containers.isReusable(need("postgres", "9.4", "", new String[0]))).isFalse();
+    }
+
+    @Test
+    public void givenReuseDisabledIsReusableShouldReturnFalse() {
+        assertThat(new ReusableContainers(false).isReusable(need("postgres", "9.4", ""))).isFalse();
+    }
+
+    @Test
+    public void givenSameAttributesGetHashShouldReturnSameHash() {
+        assertThat(containers.getHash(need("postgres", "9.4", "")))
+                .isEqualTo(containers.getHash(need("postgres", "9.4", "")))
+                .isNotEqualTo(containers.getHash(need("postgres", "9.5", "")))
+                .isNotEqualTo(containers.getHash(need("postgres", "9.4", "postgres")));
+    }
+
+    @Test
+    public void givenLabeledContainersClaimShouldClaimEachContainerOnce() {
+        NeedContainer need = need("postgres", "9.4", "");
+        String hash = containers.getHash(need);
+        givenContainers(container("1", hash), container("2", "other"), container("3", hash));
+
+        assertThat(containers.claim(client, need)).contains("1");
+        assertThat(containers.claim(client, need)).contains("3");
+        assertThat(containers.claim(client, need)).isEmpty();
+        assertThat(containers.getClaimed()).containsOnly("1", "3");
+
+        containers.release(client, "1");
+        verify(client).removeContainerCmd("lock");
+
+        assertThat(containers.claim(client, need)).contains("1");
+    }
+
+    @Test
+    public void givenContainerLockedByAnotherProcessClaimShouldSkipContainer() {
+        NeedContainer need = need("postgres", "9.4", "");
+        givenContainers(container("1", containers.getHash(need)));
+        when(createCmd.exec()).thenThrow(new ConflictException("name in use"));
+
+        assertThat(containers.claim(client, need)).isEmpty();
+        assertThat(containers.getClaimed()).isEmpty();
+        verify(createCmd).withName(containers.getLockName("1"));
+    }
+
+    NeedContainer need(String value, String version, String name) {
+        return need(value, version, name, new String[]{"true"});
+    }
+
+    NeedContainer need(String value, String version, String name, String[] reset) {
+        NeedContainer need = mock(NeedContainer.class);
+        when(need.value()).thenReturn(value);
+        when(need.version()).thenReturn(version);
+        when(need.cmd()).thenReturn("");
+        when(need.name()).thenReturn(name);
+        when(need.reset()).thenReturn(reset);
+
+        return need;
+    }
+
+    void givenContainers(Container... result) {
+        ListContainersCmd cmd = mock(ListContainersCmd.class);
+        when(cmd.withShowAll(true)).thenReturn(cmd);
+        when(cmd.exec()).thenReturn(Arrays.asList(result));
+        when(client.listContainersCmd()).thenReturn(cmd);
+    }
+
+    Container container(String id, String hash) {
+        Container container = mock(Container.class);
+        when(container.getId()).thenReturn(id);
+        when(container.getImage()).thenReturn("postgres:9.4");
+        when(container.getLabels()).thenReturn(Collections.singletonMap(HASH_LABEL, hash));
+
+        return container;
+    }
+
+}
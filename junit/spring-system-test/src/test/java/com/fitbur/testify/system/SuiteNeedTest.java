@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.system;
+
+import com.fitbur.testify.App;
+import com.fitbur.testify.Real;
+import com.fitbur.testify.fixture.hsql.InMemoryHSQLApplication;
+import com.fitbur.testify.need.Need;
+import com.fitbur.testify.need.NeedScope;
+import com.fitbur.testify.need.hsql.InMemoryHSQL;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ * @author saden
+ */
+public class SuiteNeedTest {
+
+    static final Set<DataSource> DATA_SOURCES = ConcurrentHashMap.newKeySet();
+
+    @Test
+    public void givenSuiteNeedTestClassesShouldShareNeedInstance() {
+        Result result = JUnitCore.runClasses(FirstSuiteNeed.class, SecondSuiteNeed.class);
+
+        assertThat(result.getFailures()).isEmpty();
+        assertThat(result.getRunCount()).isEqualTo(2);
+        assertThat(DATA_SOURCES).hasSize(1);
+    }
+
+    @App(InMemoryHSQLApplication.class)
+    @Need(value = InMemoryHSQL.class, scope = NeedScope.SUITE)
+    @RunWith(SpringSystemTest.class)
+    public static class FirstSuiteNeed {
+
+        @Real
+        DataSource dataSource;
+
+        @Test
+        public void verifyInjection() {
+            assertThat(dataSource).isNotNull();
+            DATA_SOURCES.add(dataSource);
+        }
+
+    }
+
+    @App(InMemoryHSQLApplication.class)
+    @Need(value = InMemoryHSQL.class, scope = NeedScope.SUITE)
+    @RunWith(SpringSystemTest.class)
+    public static class SecondSuiteNeed {
+
+        @Real
+        DataSource dataSource;
+
+        @Test
+        public void verifyInjection() {
+            assertThat(dataSource).isNotNull();
+            DATA_SOURCES.add(dataSource);
+        }
+
+    }
+
+}
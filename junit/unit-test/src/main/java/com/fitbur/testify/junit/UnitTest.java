@@ -15,12 +15,15 @@
  */
 package com.fitbur.testify.junit;
 
-import com.fitbur.asm.ClassReader;
 import static com.fitbur.guava.common.base.Preconditions.checkState;
 import com.fitbur.testify.TestContext;
+import com.fitbur.testify.TestInvocation;
+import com.fitbur.testify.TestNeedPrefetcher;
+import com.fitbur.testify.analyzer.ClassAnalysisCache;
 import com.fitbur.testify.analyzer.CutClassAnalyzer;
 import com.fitbur.testify.analyzer.TestClassAnalyzer;
 import com.fitbur.testify.descriptor.CutDescriptor;
+import com.fitbur.testify.junit.core.JUnitLoggingBridge;
 import com.fitbur.testify.junit.core.JUnitTestNotifier;
 import com.fitbur.testify.unit.UnitTestCreator;
 import com.fitbur.testify.unit.UnitTestReifier;
@@ -41,7 +44,6 @@ import org.junit.runners.model.Statement;
 import org.junit.runners.model.TestClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.bridge.SLF4JBridgeHandler;
 
 /**
  * A JUnit unit test runner. This class is the main entry point for running a
@@ -57,7 +59,9 @@ public class UnitTest extends BlockJUnit4ClassRunner {
     Map<Class, TestContext> testClassContexts = new ConcurrentHashMap<>();
 
     /**
-     * Create a new test runner instance for the class under test.
+     * Create a new test runner instance for the class under test. Test methods
+     * are run concurrently if the {@value UnitTestScheduler#THREADS_PROPERTY}
+     * system property is set to a value other than 1.
      *
      * @param testClass the test class type
      *
@@ -65,6 +69,9 @@ public class UnitTest extends BlockJUnit4ClassRunner {
      */
     public UnitTest(Class<?> testClass) throws InitializationError {
         super(testClass);
+        //container needs are prepared while the first test classes run
+        TestNeedPrefetcher.INSTANCE.start(testClass.getClassLoader());
+        UnitTestScheduler.fromSystemProperty().ifPresent(this::setScheduler);
     }
 
     public TestContext getTestContext(Class<?> javaClass) {
@@ -72,13 +79,11 @@ public class UnitTest extends BlockJUnit4ClassRunner {
         TestContext testContext = testClassContexts.computeIfAbsent(javaClass, p -> {
             try {
                 TestContext context = new TestContext(name, javaClass, LOGGER);
-                ClassReader testReader = new ClassReader(javaClass.getName());
-                testReader.accept(new TestClassAnalyzer(context), ClassReader.SKIP_DEBUG);
+                ClassAnalysisCache.INSTANCE.accept(javaClass, new TestClassAnalyzer(context));
                 CutDescriptor cutDescriptor = context.getCutDescriptor();
 
                 if (cutDescriptor != null) {
-                    ClassReader cutReader = new ClassReader(cutDescriptor.getType().getName());
-                    cutReader.accept(new CutClassAnalyzer(context), ClassReader.SKIP_DEBUG);
+                    ClassAnalysisCache.INSTANCE.accept(cutDescriptor.getType(), new CutClassAnalyzer(context));
                 }
 
                 return context;
@@ -99,10 +104,7 @@ public class UnitTest extends BlockJUnit4ClassRunner {
         Class<?> javaClass = testClass.getJavaClass();
         TestContext testContext = getTestContext(javaClass);
         //register slf4j bridge
-        if (!SLF4JBridgeHandler.isInstalled()) {
-            SLF4JBridgeHandler.removeHandlersForRootLogger();
-            SLF4JBridgeHandler.install();
-        }
+        JUnitLoggingBridge.install();
 
         JUnitTestNotifier testNotifier
                 = new JUnitTestNotifier(notifier, description, LOGGER, testContext);
@@ -125,9 +127,7 @@ public class UnitTest extends BlockJUnit4ClassRunner {
             //the listener will keep getting added to it and will be called
             //multiple times
 
-            if (SLF4JBridgeHandler.isInstalled()) {
-                SLF4JBridgeHandler.uninstall();
-            }
+            JUnitLoggingBridge.uninstall();
         }
     }
 
@@ -151,14 +151,16 @@ public class UnitTest extends BlockJUnit4ClassRunner {
         try {
             Object testInstance = createTest();
 
+            //the test context is shared by concurrently running test methods
+            //so state of this invocation is kept out of it
             TestContext testContext = getTestContext(javaClass);
-            testContext.setTestInstance(testInstance);
+            TestInvocation invocation = new TestInvocation(testInstance);
 
-            UnitTestReifier reifier = new UnitTestReifier(testInstance);
+            UnitTestReifier reifier = new UnitTestReifier(invocation);
             UnitTestCreator creator = new UnitTestCreator(testContext, reifier);
             creator.create();
             UnitTestVerifier verifier = new UnitTestVerifier(testContext, LOGGER);
-            verifier.wiring();
+            verifier.wiring(invocation);
 
             Statement statement = methodInvoker(method, testInstance);
             statement = possiblyExpectingExceptions(method, testInstance, statement);
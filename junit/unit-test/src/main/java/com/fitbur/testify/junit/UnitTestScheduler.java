@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.junit;
+
+import static com.fitbur.guava.common.base.Preconditions.checkState;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.runners.model.RunnerScheduler;
+
+/**
+ * A JUnit runner scheduler that runs the test methods of a unit test class
+ * concurrently on a bounded pool of daemon threads shared by all unit test
+ * classes. The number of threads is configured with the
+ * {@value #THREADS_PROPERTY} system property. A value of 1, the default, runs
+ * test methods serially on the calling thread and a value of 0 or less uses one
+ * thread per available processor.
+ *
+ * @author saden
+ */
+public class UnitTestScheduler implements RunnerScheduler {
+
+    /**
+     * The system property used to configure the number of threads test methods
+     * are run on.
+     */
+    public static final String THREADS_PROPERTY = "testify.unit.threads";
+
+    private final ExecutorService executor;
+    private final List<Future<?>> futures = new ArrayList<>();
+
+    public UnitTestScheduler(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Create a scheduler based on the {@value #THREADS_PROPERTY} system
+     * property.
+     *
+     * @return a parallel scheduler or empty if test methods run serially
+     */
+    public static Optional<UnitTestScheduler> fromSystemProperty() {
+        if (getThreads() == 1) {
+            return empty();
+        }
+
+        return of(new UnitTestScheduler(SharedExecutor.INSTANCE));
+    }
+
+    static int getThreads() {
+        String value = System.getProperty(THREADS_PROPERTY, "1").trim();
+        int threads;
+
+        try {
+            threads = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            checkState(false, "System property '%s' value '%s' is not a number.", THREADS_PROPERTY, value);
+            //not reachable
+            throw new IllegalStateException(e);
+        }
+
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public void schedule(Runnable childStatement) {
+        synchronized (futures) {
+            futures.add(executor.submit(childStatement));
+        }
+    }
+
+    @Override
+    public void finished() {
+        List<Future<?>> scheduled;
+
+        synchronized (futures) {
+            scheduled = new ArrayList<>(futures);
+            futures.clear();
+        }
+
+        boolean interrupted = false;
+        Throwable failure = null;
+
+        //wait for every test method even if one of them fails to complete
+        for (Future<?> future : scheduled) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                //test failures are reported to the run notifier by the test
+                //method statement, anything that escapes it is a runner failure
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+
+        checkState(failure == null, "Test method could not be run.\n%s", failure);
+    }
+
+    /**
+     * Lazily created JVM-wide pool so concurrently running test classes share
+     * one bound on the number of test method threads.
+     */
+    static class SharedExecutor {
+
+        static final ExecutorService INSTANCE = Executors.newFixedThreadPool(getThreads(),
+                new DaemonThreadFactory());
+
+    }
+
+    static class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "testify-unit-" + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.junit;
+
+import com.fitbur.asm.ClassVisitor;
+import com.fitbur.asm.FieldVisitor;
+import com.fitbur.asm.MethodVisitor;
+import static com.fitbur.asm.Opcodes.ASM5;
+import com.fitbur.testify.analyzer.ClassAnalysisCache;
+import com.fitbur.testify.junit.fixture.collaborator.Hello;
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author saden
+ */
+public class ClassAnalysisCacheTest {
+
+    Path directory;
+
+    @Before
+    public void init() throws IOException {
+        directory = Files.createTempDirectory("testify-analysis");
+    }
+
+    @Test
+    public void givenStoredAnalysisAcceptShouldReplayStoredMembers() throws IOException {
+        List<String> analyzed = members(new ClassAnalysisCache(Optional.of(directory)));
+
+        assertThat(analyzed).isNotEmpty();
+        assertThat(Files.list(directory).count()).isEqualTo(1);
+
+        //a new cache reads the members from disk
+        assertThat(members(new ClassAnalysisCache(Optional.of(directory)))).isEqualTo(analyzed);
+    }
+
+    @Test
+    public void givenEntryOfAnotherClassAcceptShouldAnalyzeClassAgain() throws IOException {
+        List<String> analyzed = members(new ClassAnalysisCache(Optional.of(directory)));
+        Path entry = Files.list(directory).findFirst().get();
+        Files.write(entry, "another\nfield 1 planted I\n".getBytes(UTF_8));
+
+        assertThat(members(new ClassAnalysisCache(Optional.of(directory))))
+                .isEqualTo(analyzed)
+                .doesNotContain("field planted I");
+    }
+
+    List<String> members(ClassAnalysisCache cache) {
+        List<String> members = new ArrayList<>();
+
+        cache.accept(Hello.class, new ClassVisitor(ASM5) {
+            @Override
+            public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+                members.add("field " + name + " " + desc);
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+                members.add("method " + name + " " + desc);
+                return null;
+            }
+        });
+
+        return members;
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.junit;
+
+import com.fitbur.asm.ClassReader;
+import com.fitbur.testify.Cut;
+import com.fitbur.testify.Fake;
+import static com.fitbur.testify.TestAnalysis.GENERATED_LOCATION;
+import com.fitbur.testify.analyzer.ClassAnalysis;
+import static com.fitbur.testify.analyzer.TestClassAnalyzer.CONSTRUCTOR_NAME;
+import static com.fitbur.testify.analyzer.TestClassAnalyzer.STATIC_NAME;
+import com.fitbur.testify.junit.fixture.ImplicitType;
+import com.fitbur.testify.junit.fixture.collaborator.Hello;
+import static com.fitbur.guava.common.io.ByteStreams.toByteArray;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.List;
+import java.util.function.Supplier;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ * @author saden
+ */
+@RunWith(UnitTest.class)
+public class GeneratedAnalysisTest {
+
+    @Cut
+    ImplicitType cut;
+
+    @Fake
+    Hello collaborator;
+
+    @Test
+    public void givenTestClassesGeneratedAnalysisShouldMatchClassFileAnalysis() throws IOException {
+        //the lambda compiles to a synthetic method that is not analyzed
+        Supplier<List<Class<?>>> testClasses = () -> Arrays.asList(
+                GeneratedAnalysisTest.class,
+                ImplicitTypeTest.class,
+                ImplicitGenericTypeTest.class,
+                ExplicitNameIndistinctGenericTypeTest.class);
+
+        for (Class<?> testClass : testClasses.get()) {
+            assertThat(generated(testClass))
+                    .as("analysis of %s", testClass.getName())
+                    .isEqualTo(analyzed(testClass));
+        }
+    }
+
+    @Test
+    public void givenClassUnderTestGeneratedAnalysisShouldNotExist() {
+        assertThat(getClass().getClassLoader()
+                .getResource(GENERATED_LOCATION + ImplicitType.class.getName()))
+                .isNull();
+    }
+
+    List<String> generated(Class<?> type) throws IOException {
+        String resource = GENERATED_LOCATION + type.getName();
+        InputStream stream = type.getClassLoader().getResourceAsStream(resource);
+        assertThat(stream).as("generated analysis of %s", type.getName()).isNotNull();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, UTF_8))) {
+            return members(ClassAnalysis.read(resource, reader));
+        }
+    }
+
+    List<String> analyzed(Class<?> type) throws IOException {
+        String resource = type.getName().replace('.', '/') + ".class";
+        ClassAnalysis analysis = new ClassAnalysis(resource);
+
+        try (InputStream stream = type.getClassLoader().getResourceAsStream(resource)) {
+            new ClassReader(toByteArray(stream)).accept(analysis.recorder(), ClassReader.SKIP_CODE);
+        }
+
+        return members(analysis);
+    }
+
+    List<String> members(ClassAnalysis analysis) {
+        //the processor only describes the visibility, static and final flags
+        //of the members the test class analyzer visits
+        return analysis.getMembers()
+                .stream()
+                .filter(p -> !CONSTRUCTOR_NAME.equals(p.getName()) && !STATIC_NAME.equals(p.getName()))
+                .map(p -> (p.isField() ? "field " : "method ")
+                        + (p.getAccess() & 0x1F) + " " + p.getName() + " " + p.getDesc())
+                .collect(toList());
+    }
+
+}
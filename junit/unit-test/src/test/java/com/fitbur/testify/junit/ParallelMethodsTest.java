@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.junit;
+
+import com.fitbur.testify.Cut;
+import com.fitbur.testify.Fake;
+import com.fitbur.testify.junit.fixture.ImplicitType;
+import com.fitbur.testify.junit.fixture.collaborator.Hello;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ * @author saden
+ */
+public class ParallelMethodsTest {
+
+    static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+    static final Set<Object> FAKES = ConcurrentHashMap.newKeySet();
+
+    @Test
+    public void givenParallelSchedulerTestMethodsShouldRunConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            UnitTest runner = new UnitTest(ConcurrentMethods.class);
+            runner.setScheduler(new UnitTestScheduler(executor));
+
+            Result result = new JUnitCore().run(Request.runner(runner));
+
+            assertThat(result.getFailures()).isEmpty();
+            assertThat(result.getRunCount()).isEqualTo(2);
+            assertThat(FAKES).hasSize(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @RunWith(UnitTest.class)
+    public static class ConcurrentMethods {
+
+        @Cut
+        ImplicitType cut;
+
+        @Fake
+        Hello collaborator;
+
+        @Test
+        public void givenFirstMethodVerifyInjections() throws Exception {
+            verifyInjections();
+        }
+
+        @Test
+        public void givenSecondMethodVerifyInjections() throws Exception {
+            verifyInjections();
+        }
+
+        void verifyInjections() throws Exception {
+            //both methods must be running at the same time to pass the barrier
+            BARRIER.await(10, SECONDS);
+
+            assertThat(cut.getHello()).isSameAs(collaborator);
+            FAKES.add(collaborator);
+        }
+
+    }
+
+}
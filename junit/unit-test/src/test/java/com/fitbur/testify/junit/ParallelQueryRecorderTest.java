@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.junit;
+
+import com.fitbur.testify.Cut;
+import com.fitbur.testify.Fake;
+import com.fitbur.testify.junit.fixture.ImplicitType;
+import com.fitbur.testify.junit.fixture.collaborator.Hello;
+import com.fitbur.testify.need.jdbc.QueryRecord;
+import com.fitbur.testify.need.jdbc.RecordingDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import javax.sql.DataSource;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import static org.mockito.Mockito.RETURNS_MOCKS;
+import static org.mockito.Mockito.mock;
+
+/**
+ *
+ * @author saden
+ */
+public class ParallelQueryRecorderTest {
+
+    static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+    static final RecordingDataSource RECORDER
+            = new RecordingDataSource(mock(DataSource.class, RETURNS_MOCKS), SECONDS.toNanos(1));
+
+    @Test
+    public void givenConcurrentTestMethodsStatementsShouldBeRecordedPerTest() {
+        System.setProperty(UnitTestScheduler.THREADS_PROPERTY, "2");
+
+        try {
+            Result result = JUnitCore.runClasses(ConcurrentQueries.class);
+
+            assertThat(result.getFailures()).isEmpty();
+            assertThat(result.getRunCount()).isEqualTo(2);
+        } finally {
+            System.clearProperty(UnitTestScheduler.THREADS_PROPERTY);
+        }
+
+        String testName = ConcurrentQueries.class.getName();
+        assertThat(RECORDER.getTests()).containsOnly(
+                testName + ".givenFirstMethodRecordQuery",
+                testName + ".givenSecondMethodRecordQuery");
+        assertThat(RECORDER.getRecords(testName + ".givenFirstMethodRecordQuery"))
+                .extracting(QueryRecord::getSql)
+                .containsExactly("SELECT 'first'");
+        assertThat(RECORDER.getRecords(testName + ".givenSecondMethodRecordQuery"))
+                .extracting(QueryRecord::getSql)
+                .containsExactly("SELECT 'second'");
+    }
+
+    @RunWith(UnitTest.class)
+    public static class ConcurrentQueries {
+
+        @Cut
+        ImplicitType cut;
+
+        @Fake
+        Hello collaborator;
+
+        @Test
+        public void givenFirstMethodRecordQuery() throws Exception {
+            verifyRecords("first");
+        }
+
+        @Test
+        public void givenSecondMethodRecordQuery() throws Exception {
+            verifyRecords("second");
+        }
+
+        void verifyRecords(String name) throws Exception {
+            //both methods must be running at the same time to pass the barrier
+            BARRIER.await(10, SECONDS);
+            execute("SELECT '" + name + "'");
+            BARRIER.await(10, SECONDS);
+
+            List<QueryRecord> records = RECORDER.getRecords();
+            assertThat(records).extracting(QueryRecord::getSql).containsExactly("SELECT '" + name + "'");
+            assertThat(RECORDER.getCount()).isEqualTo(1);
+            assertThat(RECORDER.getDuplicates()).isEmpty();
+            assertThat(RECORDER.getSlowQueries()).isEmpty();
+        }
+
+        void execute(String sql) throws SQLException {
+            try (Connection connection = RECORDER.getConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+        }
+
+    }
+
+}
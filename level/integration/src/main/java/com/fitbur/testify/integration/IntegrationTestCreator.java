@@ -19,19 +19,19 @@ import com.fitbur.testify.Fake;
 import com.fitbur.testify.Module;
 import com.fitbur.testify.Scan;
 import com.fitbur.testify.TestContext;
+import com.fitbur.testify.TestInjectionPlan;
+import com.fitbur.testify.TestInjectionRecorder;
 import com.fitbur.testify.TestReifier;
-import com.fitbur.testify.descriptor.DescriptorKey;
 import com.fitbur.testify.descriptor.FieldDescriptor;
-import com.fitbur.testify.descriptor.ParameterDescriptor;
 import com.fitbur.testify.di.ServiceLocator;
 import com.fitbur.testify.integration.injector.IntegrationIndexFakeInjector;
 import com.fitbur.testify.integration.injector.IntegrationNameFakeInjector;
 import com.fitbur.testify.integration.injector.IntegrationRealServiceInjector;
 import com.fitbur.testify.integration.injector.IntegrationTypeFakeInjector;
 import java.util.Collection;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
-import static java.util.stream.Collectors.toSet;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Stream.of;
 
 /**
@@ -54,58 +54,79 @@ public class IntegrationTestCreator {
     }
 
     public void cut() {
-        Map<DescriptorKey, ParameterDescriptor> parameterDescriptors = context.getParamaterDescriptors();
-        Map<DescriptorKey, FieldDescriptor> fieldDescriptors = context.getFieldDescriptors();
-        Object[] arguments = new Object[parameterDescriptors.size()];
-        Collection<FieldDescriptor> descriptors = fieldDescriptors.values();
+        TestInjectionPlan plan = context.getInjectionPlan(this::plan);
+        Object[] arguments = new Object[context.getParamaterDescriptors().size()];
+        Class<?> testClass = context.getTestClass();
 
-        Set<FieldDescriptor> fakeDescriptors = descriptors.parallelStream()
-                .filter(p -> p.getAnnotation(Fake.class).isPresent())
-                .collect(toSet());
+        //a cached locator is already refreshed and contains the modules
+        if (!locator.isActive()) {
+            of(testClass.getDeclaredAnnotationsByType(Module.class))
+                    .map(Module::value)
+                    .distinct()
+                    .forEachOrdered(locator::addModule);
 
-        Class<?> testClass = context.getTestClass();
+            of(testClass.getDeclaredAnnotationsByType(Scan.class))
+                    .map(Scan::value)
+                    .distinct()
+                    .forEachOrdered(locator::scanPackage);
+        }
+
+        plan.replayFakes(testReifier, arguments);
+
+        locator.reload();
+
+        plan.replayReals(testReifier, arguments);
 
-        of(testClass.getDeclaredAnnotationsByType(Module.class))
-                .map(Module::value)
-                .distinct()
-                .forEachOrdered(locator::addModule);
+        testReifier.reifyCut(context.getCutDescriptor(), arguments);
+    }
 
-        of(testClass.getDeclaredAnnotationsByType(Scan.class))
-                .map(Scan::value)
-                .distinct()
-                .forEachOrdered(locator::scanPackage);
+    /**
+     * Match the fake and real fields of the test class to the class under test
+     * constructor arguments once so the matching can be replayed for every
+     * test method.
+     *
+     * @param testContext the test context
+     * @return the injection plan of the test class
+     */
+    TestInjectionPlan plan(TestContext testContext) {
+        Object[] arguments = new Object[testContext.getParamaterDescriptors().size()];
+        Collection<FieldDescriptor> descriptors = testContext.getFieldDescriptors().values();
+        TestInjectionRecorder fakeRecorder = new TestInjectionRecorder();
+        TestInjectionRecorder realRecorder = new TestInjectionRecorder();
+
+        List<FieldDescriptor> fakeDescriptors = descriptors.stream()
+                .filter(p -> p.getAnnotation(Fake.class).isPresent())
+                .collect(toList());
 
-        IntegrationIndexFakeInjector indexInjector = new IntegrationIndexFakeInjector(context, testReifier, arguments);
-        IntegrationNameFakeInjector nameInjector = new IntegrationNameFakeInjector(context, testReifier, arguments);
-        IntegrationTypeFakeInjector typeInjector = new IntegrationTypeFakeInjector(context, testReifier, arguments);
+        IntegrationIndexFakeInjector indexInjector = new IntegrationIndexFakeInjector(testContext, fakeRecorder, arguments);
+        IntegrationNameFakeInjector nameInjector = new IntegrationNameFakeInjector(testContext, fakeRecorder, arguments);
+        IntegrationTypeFakeInjector typeInjector = new IntegrationTypeFakeInjector(testContext, fakeRecorder, arguments);
 
         //process fields with a custom index first
-        fakeDescriptors.parallelStream()
-                .forEach(indexInjector::inject);
+        fakeDescriptors.forEach(indexInjector::inject);
 
         //process fields with custom names second
-        fakeDescriptors.parallelStream()
-                .forEach(nameInjector::inject);
+        fakeDescriptors.forEach(nameInjector::inject);
 
         //finally process fields based on their type
-        fakeDescriptors.parallelStream()
-                .forEach(typeInjector::inject);
+        fakeDescriptors.forEach(typeInjector::inject);
 
-        locator.reload();
+        //real services fill the arguments left over by the fakes
+        IntegrationRealServiceInjector realInjector = new IntegrationRealServiceInjector(testContext, locator, realRecorder, arguments);
+        descriptors.forEach(realInjector::inject);
 
-        IntegrationRealServiceInjector realInjector = new IntegrationRealServiceInjector(context, locator, testReifier, arguments);
-        descriptors.parallelStream()
-                .forEach(realInjector::inject);
-
-        testReifier.reifyCut(context.getCutDescriptor(), arguments);
+        return new TestInjectionPlan(fakeRecorder.getSteps(), realRecorder.getSteps());
     }
 
     public void real(Set<FieldDescriptor> fieldDescriptors) {
         Class<?> testClass = context.getTestClass();
-        of(testClass.getDeclaredAnnotationsByType(Module.class))
-                .map(Module::value)
-                .distinct()
-                .forEachOrdered(locator::addModule);
+
+        if (!locator.isActive()) {
+            of(testClass.getDeclaredAnnotationsByType(Module.class))
+                    .map(Module::value)
+                    .distinct()
+                    .forEachOrdered(locator::addModule);
+        }
 
         locator.reload();
 
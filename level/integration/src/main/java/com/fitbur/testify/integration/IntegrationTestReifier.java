@@ -20,8 +20,10 @@ import com.fitbur.testify.Cut;
 import com.fitbur.testify.Fake;
 import com.fitbur.testify.Real;
 import com.fitbur.testify.TestContext;
+import com.fitbur.testify.TestInvocation;
 import com.fitbur.testify.TestReifier;
 import com.fitbur.testify.descriptor.CutDescriptor;
+import com.fitbur.testify.descriptor.FieldAccessor;
 import com.fitbur.testify.descriptor.FieldDescriptor;
 import com.fitbur.testify.descriptor.ParameterDescriptor;
 import com.fitbur.testify.di.ServiceDescriptor;
@@ -29,11 +31,7 @@ import com.fitbur.testify.di.ServiceDescriptorBuilder;
 import com.fitbur.testify.di.ServiceLocator;
 import static com.fitbur.testify.di.ServiceScope.PROTOTYPE;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.Type;
-import static java.security.AccessController.doPrivileged;
-import java.security.PrivilegedAction;
 import java.util.Optional;
 import java.util.Set;
 import javax.inject.Provider;
@@ -54,156 +52,118 @@ public class IntegrationTestReifier implements TestReifier {
 
     private final TestContext testContext;
     private final ServiceLocator locator;
+    private final TestInvocation invocation;
     private final Object testInstance;
 
-    public IntegrationTestReifier(TestContext testContext, ServiceLocator locator, Object testInstance) {
+    public IntegrationTestReifier(TestContext testContext, ServiceLocator locator, TestInvocation invocation) {
         this.testContext = testContext;
         this.locator = locator;
-        this.testInstance = testInstance;
+        this.invocation = invocation;
+        this.testInstance = invocation.getTestInstance();
     }
 
     @Override
     public Object reifyField(FieldDescriptor descriptor, ParameterDescriptor parameterDescriptor) {
-        return doPrivileged((PrivilegedAction<Object>) () -> {
-            try {
-                Field field = descriptor.getField();
-                Type fieldType = field.getGenericType();
-                field.setAccessible(true);
-                Object instance = field.get(testInstance);
-
-                if (descriptor.hasAnnotation(Fake.class)) {
-                    //if the field value is set then create a mock otherwise create a mock
-                    //that delegates to the value
-                    if (instance == null) {
-                        MockSettings settings = withSettings()
-                                .defaultAnswer(RETURNS_DEFAULTS);
-
-                        instance = mock(field.getType(), settings);
-                    } else {
-                        instance = mock(field.getType(), delegatesTo(instance));
-                    }
+        FieldAccessor accessor = descriptor.getAccessor();
+        Type fieldType = descriptor.getGenericType();
+        Object instance = accessor.get(testInstance);
+
+        if (descriptor.hasAnnotation(Fake.class)) {
+            //if the field value is set then create a mock otherwise create a mock
+            //that delegates to the value
+            if (instance == null) {
+                MockSettings settings = withSettings()
+                        .defaultAnswer(RETURNS_DEFAULTS);
+
+                instance = mock(descriptor.getType(), settings);
+            } else {
+                instance = mock(descriptor.getType(), delegatesTo(instance));
+            }
 
-                } else {
-                    Set<Class<? extends Annotation>> annotationTypes = locator.getServiceAnnotations().getInjectors();
-                    Set<? extends Annotation> injectors = descriptor.getAnnotations(annotationTypes);
+        } else {
+            Set<Class<? extends Annotation>> annotationTypes = locator.getServiceAnnotations().getInjectors();
+            Set<? extends Annotation> injectors = descriptor.getAnnotations(annotationTypes);
 
-                    if (!injectors.isEmpty()) {
-                        instance = locator.getService(fieldType, descriptor.getAnnotations());
+            if (!injectors.isEmpty()) {
+                instance = locator.getService(fieldType, descriptor.getAnnotations());
 
-                        Optional<Real> real = descriptor.getAnnotation(Real.class);
-                        if (real.isPresent() && real.get().value()) {
-                            instance = mock(instance.getClass(), delegatesTo(instance));
-                        }
-                    }
+                Optional<Real> real = descriptor.getAnnotation(Real.class);
+                if (real.isPresent() && real.get().value()) {
+                    instance = mock(instance.getClass(), delegatesTo(instance));
                 }
-
-                field.set(testInstance, instance);
-                descriptor.setInstance(instance);
-                parameterDescriptor.setInstance(instance);
-
-                return instance;
-            } catch (IllegalAccessException | IllegalArgumentException e) {
-                throw new IllegalStateException(e);
             }
         }
-        );
 
+        accessor.set(testInstance, instance);
+        invocation.setInstance(descriptor, instance);
+        invocation.setInstance(parameterDescriptor, instance);
+
+        return instance;
     }
 
     @Override
     public Object reifyCut(CutDescriptor descriptor, Object[] arguments) {
-        return doPrivileged((PrivilegedAction<Object>) () -> {
-            try {
-                Cut cut = descriptor.getCut().get();
-                Field field = descriptor.getField();
-                Type fieldType = field.getGenericType();
-                String fieldName = field.getName();
-
-                field.setAccessible(true);
-
-                Constructor<?> constructor = descriptor.getConstructor();
-                constructor.setAccessible(true);
-
-                TypeToken<?> token = TypeToken.of(fieldType);
-                Class rawType;
-
-                if (token.isSubtypeOf(Provider.class
-                ) || token.isSubtypeOf(Optional.class
-                )) {
-                    rawType = token.getRawType();
-                } else {
-                    rawType = (Class) fieldType;
-                }
+        Cut cut = descriptor.getCut().get();
+        Type fieldType = descriptor.getGenericType();
+        String fieldName = descriptor.getName();
+
+        TypeToken<?> token = TypeToken.of(fieldType);
+        Class rawType;
+
+        if (token.isSubtypeOf(Provider.class)
+                || token.isSubtypeOf(Optional.class)) {
+            rawType = token.getRawType();
+        } else {
+            rawType = (Class) fieldType;
+        }
 
-                ServiceDescriptor serviceDescriptor = new ServiceDescriptorBuilder()
-                        .name(fieldName)
-                        .type(rawType)
-                        .injectable(false)
-                        .discoverable(true)
-                        .scope(PROTOTYPE)
-                        .primary(true)
-                        .lazy(true)
-                        .arguments(arguments)
-                        .build();
+        ServiceDescriptor serviceDescriptor = new ServiceDescriptorBuilder()
+                .name(fieldName)
+                .type(rawType)
+                .injectable(false)
+                .discoverable(true)
+                .scope(PROTOTYPE)
+                .primary(true)
+                .lazy(true)
+                .arguments(arguments)
+                .build();
 
-                locator.addService(serviceDescriptor);
+        locator.addService(serviceDescriptor);
 
-                Object instance = locator.getService(rawType);
+        Object instance = locator.getService(rawType);
 
-                if (cut.value()) {
-                    instance = spy(instance);
-                }
+        if (cut.value()) {
+            instance = spy(instance);
+        }
 
-                field.set(testInstance, instance);
-                descriptor.setInstance(instance);
-                descriptor.setArguments(arguments);
+        descriptor.getAccessor().set(testInstance, instance);
+        invocation.setCutInstance(instance);
+        invocation.setCutArguments(arguments);
 
-                return instance;
-            } catch (SecurityException |
-                    IllegalAccessException |
-                    IllegalArgumentException e) {
-                throw new IllegalStateException(e);
-            }
-        });
+        return instance;
     }
 
     @Override
     public void reifyTest(Set< FieldDescriptor> fieldDescriptors) {
+        fieldDescriptors
+                .parallelStream()
+                .forEach(p -> {
+                    Type fieldType = p.getGenericType();
+                    Set<? extends Annotation> fieldAnnotations = p.getAnnotations();
 
-        doPrivileged((PrivilegedAction<Object>) () -> {
-
-            fieldDescriptors
-                    .parallelStream()
-                    .forEach(p -> {
-                        try {
-                            Field field = p.getField();
-                            Type fieldType = p.getGenericType();
-                            Set<? extends Annotation> fieldAnnotations = p.getAnnotations();
-
-                            Optional<Real> real = p.getAnnotation(Real.class
-                            );
-                            Object instance = locator.getService(fieldType, fieldAnnotations);
+                    Optional<Real> real = p.getAnnotation(Real.class);
+                    Object instance = locator.getService(fieldType, fieldAnnotations);
 
-                            if (instance == null) {
-                                return;
-                            }
-
-                            if (real.isPresent() && real.get().value()) {
-                                instance = mock(p.getType(), delegatesTo(instance));
-                            }
-
-                            field.setAccessible(true);
-                            field.set(testInstance, instance);
-                        } catch (SecurityException |
-                                IllegalAccessException |
-                                IllegalArgumentException e) {
-                            throw new IllegalStateException(e);
-                        }
-                    });
+                    if (instance == null) {
+                        return;
+                    }
 
-            return null;
-        });
+                    if (real.isPresent() && real.get().value()) {
+                        instance = mock(p.getType(), delegatesTo(instance));
+                    }
 
+                    p.getAccessor().set(testInstance, instance);
+                });
     }
 
 }
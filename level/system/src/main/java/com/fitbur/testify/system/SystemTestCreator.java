@@ -19,19 +19,19 @@ import com.fitbur.testify.Fake;
 import com.fitbur.testify.Module;
 import com.fitbur.testify.Scan;
 import com.fitbur.testify.TestContext;
+import com.fitbur.testify.TestInjectionPlan;
+import com.fitbur.testify.TestInjectionRecorder;
 import com.fitbur.testify.TestReifier;
-import com.fitbur.testify.descriptor.DescriptorKey;
 import com.fitbur.testify.descriptor.FieldDescriptor;
-import com.fitbur.testify.descriptor.ParameterDescriptor;
 import com.fitbur.testify.di.ServiceLocator;
 import com.fitbur.testify.system.injector.SystemIndexFakeInjector;
 import com.fitbur.testify.system.injector.SystemNameFakeInjector;
 import com.fitbur.testify.system.injector.SystemRealServiceInjector;
 import com.fitbur.testify.system.injector.SystemTypeFakeInjector;
 import java.util.Collection;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
-import static java.util.stream.Collectors.toSet;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Stream.of;
 
 /**
@@ -54,16 +54,10 @@ public class SystemTestCreator {
     }
 
     public void cut() {
-        Map<DescriptorKey, ParameterDescriptor> parameterDescriptors = context.getParamaterDescriptors();
-        Map<DescriptorKey, FieldDescriptor> fieldDescriptors = context.getFieldDescriptors();
-        Object[] arguments = new Object[parameterDescriptors.size()];
-        Collection<FieldDescriptor> descriptors = fieldDescriptors.values();
-
-        Set<FieldDescriptor> fakeDescriptors = descriptors.parallelStream()
-                .filter(p -> p.getAnnotation(Fake.class).isPresent())
-                .collect(toSet());
-
+        TestInjectionPlan plan = context.getInjectionPlan(this::plan);
+        Object[] arguments = new Object[context.getParamaterDescriptors().size()];
         Class<?> testClass = context.getTestClass();
+
         of(testClass.getDeclaredAnnotationsByType(Module.class))
                 .map(Module::value)
                 .distinct()
@@ -74,29 +68,51 @@ public class SystemTestCreator {
                 .distinct()
                 .forEachOrdered(locator::scanPackage);
 
-        SystemIndexFakeInjector indexInjector = new SystemIndexFakeInjector(context, testReifier, arguments);
-        SystemNameFakeInjector nameInjector = new SystemNameFakeInjector(context, testReifier, arguments);
-        SystemTypeFakeInjector typeInjector = new SystemTypeFakeInjector(context, testReifier, arguments);
+        plan.replayFakes(testReifier, arguments);
+
+        locator.reload();
+
+        plan.replayReals(testReifier, arguments);
+
+        testReifier.reifyCut(context.getCutDescriptor(), arguments);
+    }
+
+    /**
+     * Match the fake and real fields of the test class to the class under test
+     * constructor arguments once so the matching can be replayed for every
+     * test method.
+     *
+     * @param testContext the test context
+     * @return the injection plan of the test class
+     */
+    TestInjectionPlan plan(TestContext testContext) {
+        Object[] arguments = new Object[testContext.getParamaterDescriptors().size()];
+        Collection<FieldDescriptor> descriptors = testContext.getFieldDescriptors().values();
+        TestInjectionRecorder fakeRecorder = new TestInjectionRecorder();
+        TestInjectionRecorder realRecorder = new TestInjectionRecorder();
+
+        List<FieldDescriptor> fakeDescriptors = descriptors.stream()
+                .filter(p -> p.getAnnotation(Fake.class).isPresent())
+                .collect(toList());
+
+        SystemIndexFakeInjector indexInjector = new SystemIndexFakeInjector(testContext, fakeRecorder, arguments);
+        SystemNameFakeInjector nameInjector = new SystemNameFakeInjector(testContext, fakeRecorder, arguments);
+        SystemTypeFakeInjector typeInjector = new SystemTypeFakeInjector(testContext, fakeRecorder, arguments);
 
         //process fields with a custom index first
-        fakeDescriptors.parallelStream()
-                .forEach(indexInjector::inject);
+        fakeDescriptors.forEach(indexInjector::inject);
 
         //process fields with custom names second
-        fakeDescriptors.parallelStream()
-                .forEach(nameInjector::inject);
+        fakeDescriptors.forEach(nameInjector::inject);
 
         //finally process fields based on their type
-        fakeDescriptors.parallelStream()
-                .forEach(typeInjector::inject);
-
-        locator.reload();
+        fakeDescriptors.forEach(typeInjector::inject);
 
-        SystemRealServiceInjector realInjector = new SystemRealServiceInjector(context, locator, testReifier, arguments);
-        descriptors.parallelStream()
-                .forEach(realInjector::inject);
+        //real services fill the arguments left over by the fakes
+        SystemRealServiceInjector realInjector = new SystemRealServiceInjector(testContext, locator, realRecorder, arguments);
+        descriptors.forEach(realInjector::inject);
 
-        testReifier.reifyCut(context.getCutDescriptor(), arguments);
+        return new TestInjectionPlan(fakeRecorder.getSteps(), realRecorder.getSteps());
     }
 
     public void real(Set<FieldDescriptor> fieldDescriptors) {
@@ -19,6 +19,7 @@ import static com.fitbur.guava.common.base.Preconditions.checkState;
 import com.fitbur.testify.Fake;
 import com.fitbur.testify.Real;
 import com.fitbur.testify.TestContext;
+import com.fitbur.testify.TestInvocation;
 import com.fitbur.testify.TestVerifier;
 import com.fitbur.testify.descriptor.CutDescriptor;
 import com.fitbur.testify.descriptor.FieldDescriptor;
@@ -158,7 +159,7 @@ public class SystemTestVerifier implements TestVerifier {
     }
 
     @Override
-    public void wiring() {
+    public void wiring(TestInvocation invocation) {
         doPrivileged((PrivilegedAction<Object>) () -> {
             CutDescriptor cutDescriptor = testContext.getCutDescriptor();
             String testClassName = testContext.getTestClassName();
@@ -168,7 +169,7 @@ public class SystemTestVerifier implements TestVerifier {
             if (cutDescriptor != null) {
                 String cutClassName = cutDescriptor.getTypeName();
                 paramDescriptors.parallelStream().forEach(p -> {
-                    Optional instance = p.getInstance();
+                    Optional instance = invocation.getInstance(p);
                     if (!instance.isPresent()) {
                         String paramTypeName = p.getTypeName();
                         logger.warn("Class under test '{}' defined in '{}' has a collaborator "
@@ -17,17 +17,16 @@ package com.fitbur.testify.unit;
 
 import com.fitbur.testify.Fake;
 import com.fitbur.testify.TestContext;
+import com.fitbur.testify.TestInjectionPlan;
+import com.fitbur.testify.TestInjectionRecorder;
 import com.fitbur.testify.TestReifier;
-import com.fitbur.testify.descriptor.DescriptorKey;
 import com.fitbur.testify.descriptor.FieldDescriptor;
-import com.fitbur.testify.descriptor.ParameterDescriptor;
 import com.fitbur.testify.unit.injector.UnitIndexFakeInjector;
 import com.fitbur.testify.unit.injector.UnitNameFakeInjector;
 import com.fitbur.testify.unit.injector.UnitTypeFakeInjector;
-import java.util.Collection;
-import java.util.Map;
-import java.util.Set;
-import static java.util.stream.Collectors.toSet;
+import static java.util.Collections.emptyList;
+import java.util.List;
+import static java.util.stream.Collectors.toList;
 
 /**
  * Unit test creator which looks at the test descriptors, reifies the
@@ -46,32 +45,46 @@ public class UnitTestCreator {
     }
 
     public void create() {
-        Map<DescriptorKey, ParameterDescriptor> parameterDescriptors = testContext.getParamaterDescriptors();
-        Map<DescriptorKey, FieldDescriptor> fieldDescriptors = testContext.getFieldDescriptors();
-        Object[] arguments = new Object[parameterDescriptors.size()];
-        Collection<FieldDescriptor> descriptors = fieldDescriptors.values();
+        TestInjectionPlan plan = testContext.getInjectionPlan(this::plan);
+        Object[] arguments = new Object[testContext.getParamaterDescriptors().size()];
 
-        UnitIndexFakeInjector indexInjector = new UnitIndexFakeInjector(testContext, testReifier, arguments);
-        UnitNameFakeInjector nameInjector = new UnitNameFakeInjector(testContext, testReifier, arguments);
-        UnitTypeFakeInjector typeInjector = new UnitTypeFakeInjector(testContext, testReifier, arguments);
+        plan.replayFakes(testReifier, arguments);
 
-        Set<FieldDescriptor> fakeDescriptors = descriptors.parallelStream()
+        testReifier.reifyCut(testContext.getCutDescriptor(), arguments);
+    }
+
+    /**
+     * Match the fake fields of the test class to the class under test
+     * constructor arguments once so the matching can be replayed for every
+     * test method.
+     *
+     * @param context the test context
+     * @return the injection plan of the test class
+     */
+    TestInjectionPlan plan(TestContext context) {
+        Object[] arguments = new Object[context.getParamaterDescriptors().size()];
+        TestInjectionRecorder recorder = new TestInjectionRecorder();
+
+        UnitIndexFakeInjector indexInjector = new UnitIndexFakeInjector(context, recorder, arguments);
+        UnitNameFakeInjector nameInjector = new UnitNameFakeInjector(context, recorder, arguments);
+        UnitTypeFakeInjector typeInjector = new UnitTypeFakeInjector(context, recorder, arguments);
+
+        List<FieldDescriptor> fakeDescriptors = context.getFieldDescriptors()
+                .values()
+                .stream()
                 .filter(p -> p.hasAnnotation(Fake.class))
-                .collect(toSet());
+                .collect(toList());
 
         //process fields with a custom index first
-        fakeDescriptors.parallelStream()
-                .forEach(indexInjector::inject);
+        fakeDescriptors.forEach(indexInjector::inject);
 
         //process fields with custom names second
-        fakeDescriptors.parallelStream()
-                .forEach(nameInjector::inject);
+        fakeDescriptors.forEach(nameInjector::inject);
 
         //finally process fields based on their type
-        fakeDescriptors.parallelStream()
-                .forEach(typeInjector::inject);
+        fakeDescriptors.forEach(typeInjector::inject);
 
-        testReifier.reifyCut(testContext.getCutDescriptor(), arguments);
+        return new TestInjectionPlan(recorder.getSteps(), emptyList());
     }
 
 }
@@ -18,15 +18,12 @@ package com.fitbur.testify.unit;
 import static com.fitbur.guava.common.base.Preconditions.checkState;
 import com.fitbur.testify.Cut;
 import com.fitbur.testify.Fake;
+import com.fitbur.testify.TestInvocation;
 import com.fitbur.testify.TestReifier;
 import com.fitbur.testify.descriptor.CutDescriptor;
+import com.fitbur.testify.descriptor.FieldAccessor;
 import com.fitbur.testify.descriptor.FieldDescriptor;
 import com.fitbur.testify.descriptor.ParameterDescriptor;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import static java.security.AccessController.doPrivileged;
-import java.security.PrivilegedAction;
 import java.util.Optional;
 import static org.mockito.AdditionalAnswers.delegatesTo;
 import static org.mockito.Mockito.mock;
@@ -42,80 +39,71 @@ import org.mockito.internal.util.MockUtil;
 public class UnitTestReifier implements TestReifier {
 
     private static final MockUtil MOCK_UTIL = new MockUtil();
+    private final TestInvocation invocation;
     private final Object testInstance;
 
-    public UnitTestReifier(Object testInstance) {
-        this.testInstance = testInstance;
+    public UnitTestReifier(TestInvocation invocation) {
+        this.invocation = invocation;
+        this.testInstance = invocation.getTestInstance();
     }
 
     @Override
     public Object reifyField(FieldDescriptor fieldDescriptor, ParameterDescriptor paramDescriptor) {
-        return doPrivileged((PrivilegedAction) () -> {
-            try {
-                Object instance = null;
-                Optional<Fake> mock = fieldDescriptor.getAnnotation(Fake.class);
+        try {
+            Object instance = null;
+            Optional<Fake> mock = fieldDescriptor.getAnnotation(Fake.class);
 
-                if (mock.isPresent()) {
-                    Field field = fieldDescriptor.getField();
-                    field.setAccessible(true);
+            if (mock.isPresent()) {
+                FieldAccessor accessor = fieldDescriptor.getAccessor();
 
-                    Object value = field.get(testInstance);
-                    //if the field value is null create a new mock
-                    if (value == null) {
-                        instance = mock(field.getType());
-                    } else if (MOCK_UTIL.isMock(value)) {
-                        //if the value is already a mock just use it.
-                        instance = value;
-                    } else {
-                        //otherwise create a mock that delegates to the value
-                        instance = mock(field.getType(), delegatesTo(value));
-                    }
-
-                    field.set(testInstance, instance);
-                    fieldDescriptor.setInstance(instance);
-                    paramDescriptor.setInstance(instance);
+                Object value = accessor.get(testInstance);
+                //if the field value is null create a new mock
+                if (value == null) {
+                    instance = mock(fieldDescriptor.getType());
+                } else if (MOCK_UTIL.isMock(value)) {
+                    //if the value is already a mock just use it.
+                    instance = value;
+                } else {
+                    //otherwise create a mock that delegates to the value
+                    instance = mock(fieldDescriptor.getType(), delegatesTo(value));
                 }
 
-                return instance;
-            } catch (IllegalAccessException | IllegalArgumentException e) {
-                checkState(false,
-                        "Field '%s' in test class '%s' is not accessible.\n",
-                        fieldDescriptor.getName(), testInstance.getClass().getSimpleName(), e.getMessage());
-                throw new RuntimeException(e);
+                accessor.set(testInstance, instance);
+                invocation.setInstance(fieldDescriptor, instance);
+                invocation.setInstance(paramDescriptor, instance);
             }
-        });
 
+            return instance;
+        } catch (IllegalStateException e) {
+            checkState(false,
+                    "Field '%s' in test class '%s' is not accessible.\n%s",
+                    fieldDescriptor.getName(), testInstance.getClass().getSimpleName(), e.getMessage());
+            throw e;
+        }
     }
 
     @Override
     public Object reifyCut(CutDescriptor descriptor, Object[] arguments) {
-        return doPrivileged((PrivilegedAction) () -> {
-            try {
-                Cut cut = descriptor.getCut().get();
-                Field field = descriptor.getField();
-                field.setAccessible(true);
-                Constructor<?> constructor = descriptor.getConstructor();
-                constructor.setAccessible(true);
+        Cut cut = descriptor.getCut().get();
+        Object instance;
 
-                Object instance = constructor.newInstance(arguments);
+        try {
+            instance = descriptor.getInvoker().newInstance(arguments);
+        } catch (Throwable e) {
+            checkState(false,
+                    "Cut '%s' in test class '%s' could not be created.\n%s",
+                    descriptor.getName(), testInstance.getClass().getSimpleName(), e.getMessage());
+            throw new RuntimeException(e);
+        }
 
-                if (cut.value()) {
-                    instance = spy(instance);
-                }
+        if (cut.value()) {
+            instance = spy(instance);
+        }
 
-                field.set(testInstance, instance);
-                descriptor.setInstance(instance);
-                descriptor.setArguments(arguments);
+        descriptor.getAccessor().set(testInstance, instance);
+        invocation.setCutInstance(instance);
+        invocation.setCutArguments(arguments);
 
-                return instance;
-            } catch (InstantiationException |
-                    IllegalAccessException |
-                    InvocationTargetException e) {
-                checkState(false,
-                        "Cut '%s' in test class '%s' could not be created.\n%s",
-                        descriptor.getName(), testInstance.getClass().getSimpleName(), e.getMessage());
-                throw new RuntimeException(e);
-            }
-        });
+        return instance;
     }
 }
@@ -18,6 +18,7 @@ package com.fitbur.testify.unit;
 import static com.fitbur.guava.common.base.Preconditions.checkState;
 import com.fitbur.testify.Real;
 import com.fitbur.testify.TestContext;
+import com.fitbur.testify.TestInvocation;
 import com.fitbur.testify.TestVerifier;
 import com.fitbur.testify.descriptor.CutDescriptor;
 import com.fitbur.testify.descriptor.FieldDescriptor;
@@ -103,7 +104,7 @@ public class UnitTestVerifier implements TestVerifier {
     }
 
     @Override
-    public void wiring() {
+    public void wiring(TestInvocation invocation) {
         CutDescriptor cutDescriptor = testContext.getCutDescriptor();
         String testClassName = testContext.getTestClassName();
         String cutClassName = cutDescriptor.getTypeName();
@@ -111,7 +112,7 @@ public class UnitTestVerifier implements TestVerifier {
                 = testContext.getParamaterDescriptors().values();
 
         fieldDescriptors.parallelStream().forEach(p -> {
-            Optional instance = p.getInstance();
+            Optional instance = invocation.getInstance(p);
             if (!instance.isPresent()) {
                 String paramTypeName = p.getTypeName();
                 logger.warn("Class under test '{}' defined in '{}' has a collaborator "
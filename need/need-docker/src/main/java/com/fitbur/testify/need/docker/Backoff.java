@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.docker;
+
+import com.fitbur.testify.need.NeedContainer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The exponential backoff between the attempts of a readiness check. Attempts
+ * are retried until the maximum number of retries or the maximum duration is
+ * reached, whichever comes first.
+ *
+ * @author saden
+ */
+public class Backoff {
+
+    private final long delay;
+    private final long maxDelay;
+    private final int maxRetries;
+    private final long maxDuration;
+
+    public Backoff(long delay, long maxDelay, int maxRetries, long maxDuration, TimeUnit unit) {
+        this.delay = unit.toNanos(delay);
+        this.maxDelay = unit.toNanos(maxDelay);
+        this.maxRetries = maxRetries;
+        this.maxDuration = unit.toNanos(maxDuration);
+    }
+
+    /**
+     * Create the backoff configured by the given container need.
+     *
+     * @param needContainer the container need
+     * @return the backoff of the container need
+     */
+    public static Backoff of(NeedContainer needContainer) {
+        return new Backoff(needContainer.delay(),
+                needContainer.maxDelay(),
+                needContainer.maxRetries(),
+                needContainer.maxDuration(),
+                needContainer.unit());
+    }
+
+    /**
+     * Get the delay in nanoseconds before the given retry.
+     *
+     * @param retries the number of attempts already retried
+     * @return the delay in nanoseconds
+     */
+    public long getDelay(int retries) {
+        long next = delay;
+
+        for (int i = 0; i < retries && next < maxDelay; i++) {
+            next *= 2;
+        }
+
+        return Math.min(next, maxDelay);
+    }
+
+    /**
+     * Get the maximum delay in nanoseconds, which is also how long a single
+     * attempt may take.
+     *
+     * @return the maximum delay in nanoseconds
+     */
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Get the maximum duration in nanoseconds of all attempts.
+     *
+     * @return the maximum duration in nanoseconds
+     */
+    public long getMaxDuration() {
+        return maxDuration;
+    }
+
+    /**
+     * Determine if an attempt can be retried.
+     *
+     * @param retries the number of attempts already retried
+     * @param elapsed the nanoseconds elapsed since the first attempt
+     * @return true if the attempt can be retried, false otherwise
+     */
+    public boolean canRetry(int retries, long elapsed) {
+        return retries < maxRetries && elapsed < maxDuration;
+    }
+
+}
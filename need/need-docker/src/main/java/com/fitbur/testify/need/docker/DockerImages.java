@@ -0,0 +1,250 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.docker;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.Image;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * A JVM-wide index of the images available to docker daemons backed by an
+ * optional on-disk cache. The index remembers the id an image tag resolved to
+ * and when it was resolved so an image that is present locally is only pulled
+ * again once its entry is older than the configured time to live. Entries on
+ * disk are shared by forked JVMs and repeated runs.
+ *
+ * @author saden
+ */
+public class DockerImages {
+
+    /**
+     * The system property used to configure the on-disk cache directory,
+     * "~/.testify/docker" by default. An empty value disables the on-disk
+     * cache.
+     */
+    public static final String DIRECTORY_PROPERTY = "testify.docker.cache.dir";
+
+    /**
+     * The system property used to configure how long in minutes a resolved
+     * image is considered current.
+     */
+    public static final String TTL_PROPERTY = "testify.docker.image.ttl";
+
+    public static final DockerImages INSTANCE = new DockerImages(getDefaultDirectory(),
+            MINUTES.toMillis(Long.getLong(TTL_PROPERTY, 24 * 60)));
+
+    private static final String CACHE_FILE = "images.properties";
+
+    private final Optional<Path> directory;
+    private final long ttl;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public DockerImages(Optional<Path> directory, long ttl) {
+        this.directory = directory;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Determine if the given image is present on the daemon and was resolved
+     * within the time to live. An image found on the daemon that is not yet
+     * indexed is indexed and considered current.
+     *
+     * @param client the docker client
+     * @param daemon the daemon URI
+     * @param image the image name and tag
+     * @return true if the image does not need to be pulled
+     */
+    public boolean isCurrent(DockerClient client, String daemon, String image) {
+        Optional<String> id = findId(client, image);
+
+        if (!id.isPresent()) {
+            return false;
+        }
+
+        String key = getKey(daemon, image);
+        Entry entry = getEntries().get(key);
+
+        if (entry == null || !entry.id.equals(id.get())) {
+            store(key, new Entry(id.get(), System.currentTimeMillis()));
+
+            return true;
+        }
+
+        return System.currentTimeMillis() - entry.resolved < ttl;
+    }
+
+    /**
+     * Index the id the given image resolves to after it has been pulled.
+     *
+     * @param client the docker client
+     * @param daemon the daemon URI
+     * @param image the image name and tag
+     */
+    public void resolved(DockerClient client, String daemon, String image) {
+        findId(client, image).ifPresent(p
+                -> store(getKey(daemon, image), new Entry(p, System.currentTimeMillis())));
+    }
+
+    /**
+     * Find the id of the given image among the images of the daemon.
+     *
+     * @param client the docker client
+     * @param image the image name and tag
+     * @return the image id, empty optional if the image is not present
+     */
+    public Optional<String> findId(DockerClient client, String image) {
+        return client.listImagesCmd()
+                .exec()
+                .stream()
+                .filter(p -> p.getRepoTags() != null)
+                .filter(p -> Arrays.asList(p.getRepoTags()).contains(image))
+                .map(Image::getId)
+                .findFirst();
+    }
+
+    public Optional<Path> getDirectory() {
+        return directory;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    String getKey(String daemon, String image) {
+        return daemon + "|" + image;
+    }
+
+    Map<String, Entry> getEntries() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load().forEach(entries::putIfAbsent);
+                    loaded = true;
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    synchronized void store(String key, Entry entry) {
+        getEntries().put(key, entry);
+
+        if (!directory.isPresent()) {
+            return;
+        }
+
+        try {
+            Path cacheDirectory = Files.createDirectories(directory.get());
+            //entries written by other JVMs are kept
+            Map<String, Entry> merged = load();
+            merged.putAll(entries);
+
+            Properties properties = new Properties();
+            merged.forEach((k, v) -> properties.setProperty(k, v.id + " " + v.resolved));
+
+            Path temp = Files.createTempFile(cacheDirectory, CACHE_FILE, ".tmp");
+
+            try (OutputStream stream = Files.newOutputStream(temp)) {
+                properties.store(stream, "testify docker images");
+            }
+
+            Files.move(temp, cacheDirectory.resolve(CACHE_FILE), ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            //the on-disk cache is an optimization, failing to write to it is
+            //not a test failure
+        }
+    }
+
+    Map<String, Entry> load() {
+        Map<String, Entry> loadedEntries = new ConcurrentHashMap<>();
+
+        if (!directory.isPresent()) {
+            return loadedEntries;
+        }
+
+        Path path = directory.get().resolve(CACHE_FILE);
+
+        if (!Files.isRegularFile(path)) {
+            return loadedEntries;
+        }
+
+        Properties properties = new Properties();
+
+        try (InputStream stream = Files.newInputStream(path)) {
+            properties.load(stream);
+        } catch (IOException | IllegalArgumentException e) {
+            //a corrupt cache is simply resolved and stored again
+            return loadedEntries;
+        }
+
+        properties.stringPropertyNames().forEach(key -> {
+            String[] parts = properties.getProperty(key).split(" ");
+
+            if (parts.length == 2) {
+                try {
+                    loadedEntries.put(key, new Entry(parts[0], Long.parseLong(parts[1])));
+                } catch (NumberFormatException e) {
+                    //a corrupt entry is simply resolved and stored again
+                }
+            }
+        });
+
+        return loadedEntries;
+    }
+
+    static Optional<Path> getDefaultDirectory() {
+        String value = System.getProperty(DIRECTORY_PROPERTY);
+
+        if (value == null) {
+            return of(Paths.get(System.getProperty("user.home"), ".testify", "docker"));
+        }
+
+        return value.trim().isEmpty() ? empty() : of(Paths.get(value));
+    }
+
+    /**
+     * The id an image resolved to and when it was resolved.
+     */
+    static class Entry {
+
+        private final String id;
+        private final long resolved;
+
+        Entry(String id, long resolved) {
+            this.id = id;
+            this.resolved = resolved;
+        }
+
+    }
+
+}
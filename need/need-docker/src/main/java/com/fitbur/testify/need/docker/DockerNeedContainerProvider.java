@@ -15,35 +15,76 @@
  */
 package com.fitbur.testify.need.docker;
 
+import static com.fitbur.guava.common.base.Preconditions.checkState;
 import com.fitbur.guava.common.collect.ImmutableMap;
+import com.fitbur.guava.common.io.ByteStreams;
 import com.fitbur.testify.need.NeedContainer;
 import com.fitbur.testify.need.NeedContainerProvider;
 import com.fitbur.testify.need.NeedDescriptor;
 import com.fitbur.testify.need.NeedInstance;
+import com.fitbur.testify.need.docker.callback.LogCallback;
 import com.fitbur.testify.need.docker.callback.PullCallback;
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.CreateContainerCmd;
-import com.github.dockerjava.api.command.CreateContainerResponse;
 import com.github.dockerjava.api.command.InspectContainerResponse;
 import com.github.dockerjava.api.command.InspectContainerResponse.NetworkSettings;
+import com.github.dockerjava.api.command.InspectExecResponse;
 import com.github.dockerjava.core.DockerClientBuilder;
 import com.github.dockerjava.core.DockerClientConfig;
 import com.github.dockerjava.core.DockerClientConfig.DockerClientConfigBuilder;
 import static com.github.dockerjava.core.DockerClientConfig.createDefaultConfigBuilder;
 import java.io.IOException;
-import java.net.Socket;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 import static java.util.stream.Collectors.toList;
-import net.jodah.recurrent.Recurrent;
-import net.jodah.recurrent.RetryPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Docker need provider.
+ * Docker need provider. All the containers of a need are pulled, created,
+ * started and awaited concurrently, and the containers started for each need
+ * are tracked so they are all stopped and removed concurrently when the need
+ * is destroyed. Images are only pulled if they are not present locally or
+ * were last resolved longer ago than the time to live of {@link DockerImages}.
+ * The images of the container needs declared by test classes are prefetched
+ * from the default daemon before any test runs, and a container need whose
+ * image is being prefetched waits for that pull instead of pulling it again.
+ * At most {@value #PULL_THREADS_PROPERTY} images are pulled concurrently.
+ * If reuse is enabled through {@link ReusableContainers#REUSE_PROPERTY}
+ * containers of container needs that declare a {@link NeedContainer#reset()}
+ * command are left running when the need is destroyed and are claimed by
+ * later needs with the same attributes, which are reset by
+ * {@link #reset(com.github.dockerjava.api.DockerClient, com.github.dockerjava.api.command.InspectContainerResponse, com.fitbur.testify.need.NeedContainer)}
+ * when the need is first cleaned. Containers are ready once all their ports
+ * are reachable and the log, HTTP, JDBC and exec wait strategies configured
+ * by their container need pass. Only the output a container logged since it
+ * was last started is matched by the log wait strategy.
  *
  * @author saden
  */
@@ -51,10 +92,16 @@ public class DockerNeedContainerProvider implements NeedContainerProvider<Docker
 
     public static final String DEFAULT_DAEMON_URI = "http://127.0.0.1:2375";
 
+    /**
+     * The system property used to configure the maximum number of images
+     * pulled concurrently.
+     */
+    public static final String PULL_THREADS_PROPERTY = "testify.docker.pull.threads";
+
     private final static Logger LOGGER = LoggerFactory.getLogger("docker");
-    private DockerClientConfig clientConfig;
-    private DockerClient client;
-    private CreateContainerResponse containerResponse;
+    private final static Semaphore PULL_PERMITS = new Semaphore(Integer.getInteger(PULL_THREADS_PROPERTY, 4), true);
+    private final static Map<String, CompletableFuture<Void>> PULLS = new ConcurrentHashMap<>();
+    private final Map<String, Containers> needs = new ConcurrentHashMap<>();
 
     @Override
     public DockerClientConfigBuilder configuration(NeedDescriptor descriptor) {
@@ -63,99 +110,548 @@ public class DockerNeedContainerProvider implements NeedContainerProvider<Docker
 
     @Override
     public Map<String, NeedInstance> init(NeedDescriptor descriptor, DockerClientConfigBuilder context) {
+        return init(descriptor, context, DockerNeedContainerProvider::fork);
+    }
+
+    @Override
+    public CompletionStage<Map<String, NeedInstance>> initAsync(NeedDescriptor descriptor,
+            DockerClientConfigBuilder context,
+            Executor executor) {
+        return CompletableFuture.supplyAsync(() -> init(descriptor, context, executor), executor);
+    }
+
+    Map<String, NeedInstance> init(NeedDescriptor descriptor, DockerClientConfigBuilder context, Executor executor) {
+        DockerClientConfig clientConfig = context.build();
+        LOGGER.info("Connecting to {}", clientConfig.getUri());
+        DockerClient client = DockerClientBuilder.getInstance(clientConfig).build();
+        String daemon = clientConfig.getUri().toString();
+        Containers started = new Containers(client);
+        needs.put(descriptor.getName(), started);
+
+        List<CompletableFuture<Optional<InspectContainerResponse>>> containers
+                = descriptor.getAnnotations(NeedContainer.class)
+                .stream()
+                .map(p -> CompletableFuture.supplyAsync(() -> start(client, daemon, p, started, executor), executor))
+                .collect(toList());
+
+        try {
+            join(containers);
+        } catch (RuntimeException e) {
+            //the need is never destroyed if it fails to start so the containers
+            //that did start are removed here
+            try {
+                destroy(descriptor, executor);
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+
+            throw e;
+        }
+
+        ImmutableMap.Builder<String, NeedInstance> needInstances = ImmutableMap.builder();
+        containers.stream()
+                .map(CompletableFuture::join)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .forEach(p -> needInstances.put(p.getId(), new DockerContainerInstance(p)));
+
+        return needInstances.build();
+    }
+
+    Optional<InspectContainerResponse> start(DockerClient client,
+            String daemon,
+            NeedContainer needContainer,
+            Containers started,
+            Executor executor) {
+        ReusableContainers reusable = ReusableContainers.INSTANCE;
+        Optional<String> claimed = reusable.isReusable(needContainer)
+                ? reusable.claim(client, needContainer)
+                : empty();
+        String containerId;
+
+        if (claimed.isPresent()) {
+            containerId = claimed.get();
+            started.kept.add(containerId);
+            started.reattached.put(containerId, needContainer);
+            LOGGER.info("Reusing Container {}", containerId);
+
+            if (!client.inspectContainerCmd(containerId).exec().getState().isRunning()) {
+                client.startContainerCmd(containerId).exec();
+            }
+        } else {
+            containerId = create(client, daemon, needContainer, executor);
+
+            if (!reusable.isReusable(needContainer)) {
+                started.removed.add(containerId);
+            } else if (reusable.claim(client, containerId, needContainer.value() + ":" + needContainer.version())) {
+                started.kept.add(containerId);
+            } else {
+                //another process claimed the container before it was started
+                //so it is left to that process
+                return start(client, daemon, needContainer, started, executor);
+            }
+
+            client.startContainerCmd(containerId).exec();
+        }
+
+        if (!needContainer.await()) {
+            return empty();
+        }
+
+        InspectContainerResponse inspectResponse
+                = client.inspectContainerCmd(containerId)
+                .exec();
+
+        //checks time out on the selector thread so the deadline only guards
+        //against checks that are never completed
+        Backoff backoff = Backoff.of(needContainer);
+        join(await(client, inspectResponse, needContainer, executor),
+                backoff.getMaxDuration() + 2 * backoff.getMaxDelay(),
+                NANOSECONDS);
+
+        return of(inspectResponse);
+    }
+
+    /**
+     * Start the readiness checks of the given container. All ports of the
+     * container are checked and every wait strategy configured by the
+     * container need adds a check. Port and HTTP checks share the
+     * {@link ReadinessSelector}.
+     *
+     * @param client the docker client
+     * @param container the started container
+     * @param needContainer the container need
+     * @param executor the executor blocking checks are run on
+     * @return the futures of the readiness checks
+     */
+    List<CompletableFuture<Void>> await(DockerClient client,
+            InspectContainerResponse container,
+            NeedContainer needContainer,
+            Executor executor) {
+        ReadinessSelector selector = ReadinessSelector.INSTANCE;
+        Backoff backoff = Backoff.of(needContainer);
+        NetworkSettings networkSettings = container.getNetworkSettings();
+
+        String address = networkSettings.getIpAddress();
+        List<Integer> ports = networkSettings
+                .getPorts()
+                .getBindings()
+                .keySet()
+                .stream()
+                .map(p -> p.getPort())
+                .collect(toList());
+
+        List<CompletableFuture<Void>> checks = new ArrayList<>();
+
+        for (Integer port : ports) {
+            LOGGER.info("Waiting for port '{}' to be reachable", port);
+            checks.add(selector.connect(new InetSocketAddress(address, port), empty(), backoff));
+        }
+
+        if (!needContainer.awaitLog().isEmpty()) {
+            CompletableFuture<Void> logged = new CompletableFuture<>();
+            Pattern pattern = Pattern.compile(needContainer.awaitLog());
+            LogCallback callback = new LogCallback(container.getId(), pattern, logged, LOGGER);
+
+            //a reused container logged the output of earlier starts as well
+            client.logContainerCmd(container.getId())
+                    .withStdOut()
+                    .withStdErr()
+                    .withSince(getStartedAt(container))
+                    .withFollowStream()
+                    .exec(callback);
+
+            selector.schedule(() -> logged.completeExceptionally(new IllegalStateException(String.format(
+                    "Container '%s' did not log '%s' in time.", container.getId(), pattern))),
+                    backoff.getMaxDuration(), NANOSECONDS);
+            logged.whenComplete((result, error) -> callback.close());
+            checks.add(logged);
+        }
+
+        if (!needContainer.awaitHttp().isEmpty()) {
+            LOGGER.info("Waiting for '{}' to be available", needContainer.awaitHttp());
+            checks.add(any(ports.stream()
+                    .map(p -> selector.connect(new InetSocketAddress(address, p), of(needContainer.awaitHttp()), backoff))
+                    .collect(toList())));
+        }
+
+        if (!needContainer.awaitJdbc().isEmpty()) {
+            LOGGER.info("Waiting for '{}' to accept connections", needContainer.awaitJdbc());
+            checks.add(any(ports.stream()
+                    .map(p -> needContainer.awaitJdbc()
+                            .replace("{host}", address)
+                            .replace("{port}", String.valueOf(p)))
+                    .map(p -> selector.poll(p, () -> ping(p, backoff), backoff, executor))
+                    .collect(toList())));
+        }
+
+        if (needContainer.awaitExec().length > 0) {
+            String command = String.join(" ", needContainer.awaitExec());
+            LOGGER.info("Waiting for '{}' to succeed", command);
+            checks.add(selector.poll(command,
+                    () -> exec(client, container.getId(), needContainer.awaitExec()),
+                    backoff,
+                    executor));
+        }
+
+        return checks;
+    }
+
+    /**
+     * Get the time the given container was last started.
+     *
+     * @param container the container
+     * @return the start time in seconds since the epoch, or 0 if it is unknown
+     */
+    static int getStartedAt(InspectContainerResponse container) {
+        String startedAt = container.getState().getStartedAt();
+
+        if (startedAt == null) {
+            return 0;
+        }
+
         try {
-            clientConfig = context.build();
-            LOGGER.info("Connecting to {}", clientConfig.getUri());
-            client = DockerClientBuilder.getInstance(clientConfig).build();
+            return (int) Math.max(0, Instant.parse(startedAt).getEpochSecond());
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
 
-            Set<NeedContainer> dockerContainers = descriptor.getAnnotations(NeedContainer.class);
-            ImmutableMap.Builder<String, NeedInstance> needInstances = ImmutableMap.builder();
+    void ping(String url, Backoff backoff) {
+        int timeout = (int) Math.max(1, NANOSECONDS.toSeconds(backoff.getMaxDelay()));
 
-            for (NeedContainer needContainer : dockerContainers) {
-                CountDownLatch latch = new CountDownLatch(1);
-                if (needContainer.pull()) {
-                    //TODO: check value first and only pull if it doesn't exist locally
+        try (Connection connection = DriverManager.getConnection(url)) {
+            checkState(connection.isValid(timeout), "Connection to '%s' is not valid.", url);
+        } catch (SQLException e) {
+            checkState(false, "Connection to '%s' could not be opened.\n%s", url, e.getMessage());
+        }
+    }
+
+    void exec(DockerClient client, String containerId, String[] command) {
+        String execId = client.execCreateCmd(containerId)
+                .withAttachStdout()
+                .withAttachStderr()
+                .withCmd(command)
+                .exec()
+                .getId();
+
+        try (InputStream output = client.execStartCmd(execId).exec()) {
+            ByteStreams.toByteArray(output);
+        } catch (IOException e) {
+            checkState(false, "Output of '%s' could not be read.\n%s", String.join(" ", command), e.getMessage());
+        }
+
+        InspectExecResponse response = client.inspectExecCmd(execId).exec();
+        checkState(!response.isRunning() && response.getExitCode() == 0,
+                "Command '%s' exited with '%s'.", String.join(" ", command), response.getExitCode());
+    }
+
+    String create(DockerClient client, String daemon, NeedContainer needContainer, Executor executor) {
+        String image = needContainer.value() + ":" + needContainer.version();
+
+        if (needContainer.pull()) {
+            join(Collections.singletonList(pull(client, daemon, needContainer, executor)));
+        }
+
+        CreateContainerCmd cmd = client.createContainerCmd(image);
+        cmd.withPublishAllPorts(true);
+
+        if (!needContainer.cmd().isEmpty()) {
+            cmd.withCmd(needContainer.cmd());
+        }
+
+        if (!needContainer.name().isEmpty()) {
+            cmd.withName(needContainer.name());
+        }
+
+        if (ReusableContainers.INSTANCE.isReusable(needContainer)) {
+            cmd.withLabels(ReusableContainers.INSTANCE.getLabels(needContainer));
+        }
+
+        return cmd.exec().getId();
+    }
+
+    /**
+     * Pull the image of the given container need unless it is current. Pulls
+     * of the same image on the same daemon that are in progress are shared.
+     *
+     * @param client the docker client
+     * @param daemon the daemon URI
+     * @param needContainer the container need
+     * @param executor the executor the pull is run on
+     * @return a future that completes when the image is pulled
+     */
+    CompletableFuture<Void> pull(DockerClient client,
+            String daemon,
+            NeedContainer needContainer,
+            Executor executor) {
+        String image = needContainer.value() + ":" + needContainer.version();
+        String key = daemon + "|" + image;
+
+        CompletableFuture<Void> pulled = PULLS.computeIfAbsent(key, k -> CompletableFuture.runAsync(() -> {
+            if (DockerImages.INSTANCE.isCurrent(client, daemon, image)) {
+                return;
+            }
+
+            try {
+                PULL_PERMITS.acquire();
+
+                try {
+                    CountDownLatch latch = new CountDownLatch(1);
                     PullCallback callback = new PullCallback(needContainer, latch, LOGGER);
                     client.pullImageCmd(needContainer.value())
                             .withTag(needContainer.version())
                             .exec(callback);
-                } else {
-                    latch.countDown();
-                }
 
-                latch.await(needContainer.timeout(), needContainer.unit());
-                String image = needContainer.value() + ":" + needContainer.version();
+                    boolean released = latch.await(needContainer.timeout(), needContainer.unit());
 
-                CreateContainerCmd cmd = client.createContainerCmd(image);
-                cmd.withPublishAllPorts(true);
+                    if (!released) {
+                        callback.close();
+                        checkState(false, "Pull of image '%s' did not complete within %s %s.",
+                                image, needContainer.timeout(), needContainer.unit());
+                    }
 
-                if (!needContainer.cmd().isEmpty()) {
-                    cmd.withCmd(needContainer.cmd());
-                }
+                    Throwable error = callback.getError();
+                    checkState(error == null, "Pull of image '%s' failed.\n%s", image,
+                            error == null ? null : error.getMessage());
+                    checkState(callback.isCompleted(), "Pull of image '%s' did not complete.", image);
 
-                if (!needContainer.name().isEmpty()) {
-                    cmd.withName(needContainer.name());
+                    //only an image that was pulled is indexed as current
+                    DockerImages.INSTANCE.resolved(client, daemon, image);
+                } finally {
+                    PULL_PERMITS.release();
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }, executor));
 
-                containerResponse = cmd.exec();
-                String containerId = containerResponse.getId();
-                client.startContainerCmd(containerId).exec();
+        pulled.whenComplete((result, error) -> PULLS.remove(key, pulled));
 
-                if (needContainer.await()) {
-                    RetryPolicy retryPolicy = new RetryPolicy()
-                            .retryOn(IllegalStateException.class)
-                            .withBackoff(needContainer.delay(),
-                                    needContainer.maxDelay(),
-                                    needContainer.unit())
-                            .withMaxRetries(needContainer.maxRetries())
-                            .withMaxDuration(needContainer.maxDuration(), needContainer.unit());
-
-                    InspectContainerResponse inspectResponse
-                            = client.inspectContainerCmd(containerId)
-                            .exec();
-
-                    NetworkSettings networkSettings = inspectResponse.getNetworkSettings();
-
-                    String address = networkSettings.getIpAddress();
-                    List<Integer> ports = networkSettings
-                            .getPorts()
-                            .getBindings()
-                            .entrySet()
-                            .parallelStream()
-                            .map(p -> p.getKey().getPort())
-                            .collect(toList());
-
-                    DockerContainerInstance containerInstance = new DockerContainerInstance(inspectResponse);
-                    needInstances.put(inspectResponse.getId(), containerInstance);
-
-                    ports.parallelStream().forEach(p -> Recurrent.run(() -> {
-                        LOGGER.info("Waiting for port '{}' to be reachable", p);
-                        try (Socket socket = new Socket(address, p)) {
-                            if (!socket.isConnected()) {
-                                throw new IllegalStateException();
-                            }
-                        } catch (IOException e) {
-                            throw new IllegalStateException(e);
-                        }
-                    }, retryPolicy));
+        return pulled;
+    }
 
-                }
+    /**
+     * Pull the images of the given container needs from the default daemon.
+     * Configuration methods of test classes are not called as no test
+     * instance exists before tests run.
+     *
+     * @param needContainers the container needs declared by test classes
+     * @param executor the executor the images are pulled on
+     * @return a completion stage that completes when the images are pulled
+     */
+    @Override
+    public CompletionStage<Void> prefetch(Set<NeedContainer> needContainers, Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            DockerClientConfig clientConfig = configuration(null).build();
+            DockerClient client = DockerClientBuilder.getInstance(clientConfig).build();
+            String daemon = clientConfig.getUri().toString();
 
+            try {
+                join(needContainers.stream()
+                        .filter(NeedContainer::pull)
+                        .map(p -> pull(client, daemon, p, executor))
+                        .collect(toList()));
+            } finally {
+                try {
+                    client.close();
+                } catch (IOException e) {
+                    LOGGER.warn("Closing docker client failed due to: '{}'", e.getMessage());
+                }
             }
+        }, executor);
+    }
 
-            return needInstances.build();
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
+    /**
+     * Reset the reused containers of the need the first time it is cleaned,
+     * before it is first used.
+     *
+     * @param descriptor the need descriptor
+     * @param context the need configuration
+     */
+    @Override
+    public void clean(NeedDescriptor descriptor, DockerClientConfigBuilder context) {
+        Containers started = needs.get(descriptor.getName());
+
+        if (started == null) {
+            return;
         }
+
+        started.reattached.forEach((containerId, needContainer) -> {
+            reset(started.client, started.client.inspectContainerCmd(containerId).exec(), needContainer);
+        });
+
+        started.reattached.clear();
+    }
+
+    /**
+     * Reset the state a container reused from an earlier need was left in.
+     * By default the reset command declared by the container need is executed
+     * in the container, subclasses that need to reset state a command can not
+     * reach should override this method.
+     *
+     * @param client the docker client
+     * @param container the reused container
+     * @param needContainer the container need
+     */
+    protected void reset(DockerClient client, InspectContainerResponse container, NeedContainer needContainer) {
+        LOGGER.info("Resetting Container {}", container.getId());
+        exec(client, container.getId(), needContainer.reset());
     }
 
     @Override
     public void destroy(NeedDescriptor descriptor, DockerClientConfigBuilder context) {
-        String containerId = containerResponse.getId();
+        destroy(descriptor, DockerNeedContainerProvider::fork);
+    }
+
+    @Override
+    public CompletionStage<Void> destroyAsync(NeedDescriptor descriptor,
+            DockerClientConfigBuilder context,
+            Executor executor) {
+        return CompletableFuture.runAsync(() -> destroy(descriptor, executor), executor);
+    }
+
+    void destroy(NeedDescriptor descriptor, Executor executor) {
+        Containers started = needs.remove(descriptor.getName());
+
+        if (started == null) {
+            return;
+        }
+
+        DockerClient client = started.client;
+
+        try {
+            List<CompletableFuture<Void>> stopped = started.removed.stream()
+                    .map(p -> CompletableFuture.runAsync(() -> stop(client, p), executor))
+                    .collect(toList());
+
+            //reused containers are left running for later needs
+            started.kept.stream()
+                    .map(p -> CompletableFuture.runAsync(() -> ReusableContainers.INSTANCE.release(client, p), executor))
+                    .forEach(stopped::add);
+
+            join(stopped);
+        } finally {
+            try {
+                client.close();
+            } catch (IOException e) {
+                LOGGER.warn("Closing docker client failed due to: '{}'", e.getMessage());
+            }
+        }
+    }
+
+    void stop(DockerClient client, String containerId) {
         LOGGER.info("Stopping Container {}", containerId);
         client.stopContainerCmd(containerId).exec();
         LOGGER.info("Removing Container {}", containerId);
         client.removeContainerCmd(containerId).exec();
     }
 
+    /**
+     * Wait for all the given futures to complete. All futures are waited for
+     * even if one of them fails so every container is accounted for before
+     * the cause of a failure is rethrown.
+     *
+     * @param futures the futures
+     */
+    static void join(List<? extends CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Wait at most the given timeout for all the given futures to complete.
+     * The futures are cancelled if they do not complete in time.
+     *
+     * @param futures the futures
+     * @param timeout the timeout
+     * @param unit the unit of the timeout
+     */
+    static void join(List<? extends CompletableFuture<?>> futures, long timeout, TimeUnit unit) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).get(timeout, unit);
+        } catch (TimeoutException e) {
+            futures.forEach(p -> p.cancel(true));
+            checkState(false, "Readiness checks did not complete within %s ms.", unit.toMillis(timeout));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Create a future that is completed once any of the given futures
+     * completes normally, or completed exceptionally once all of them fail.
+     * The remaining futures are cancelled once one of them completes.
+     *
+     * @param futures the futures
+     * @return a future completed by the first successful future
+     */
+    static CompletableFuture<Void> any(List<CompletableFuture<Void>> futures) {
+        CompletableFuture<Void> any = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(futures.size());
+
+        if (futures.isEmpty()) {
+            any.completeExceptionally(new IllegalStateException("Container does not expose any ports."));
+        }
+
+        futures.forEach(p -> p.whenComplete((result, error) -> {
+            if (error == null) {
+                any.complete(null);
+            } else if (remaining.decrementAndGet() == 0) {
+                any.completeExceptionally(error);
+            }
+        }));
+        any.whenComplete((result, error) -> futures.forEach(p -> p.cancel(false)));
+
+        return any;
+    }
+
+    /**
+     * The docker client and containers of a need.
+     */
+    static class Containers {
+
+        private final DockerClient client;
+        private final Set<String> removed = ConcurrentHashMap.newKeySet();
+        private final Set<String> kept = ConcurrentHashMap.newKeySet();
+        private final Map<String, NeedContainer> reattached = new ConcurrentHashMap<>();
+
+        Containers(DockerClient client) {
+            this.client = client;
+        }
+
+    }
+
+    /**
+     * Run the given command on its own daemon thread. Used to start and stop
+     * containers concurrently when the need is not initialized or destroyed on
+     * a need executor.
+     *
+     * @param command the command
+     */
+    static void fork(Runnable command) {
+        Thread thread = new Thread(command, "testify-docker");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
 }
@@ -0,0 +1,378 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.docker;
+
+import static com.fitbur.guava.common.base.Preconditions.checkState;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import static java.nio.channels.SelectionKey.OP_CONNECT;
+import static java.nio.channels.SelectionKey.OP_READ;
+import static java.nio.channels.SelectionKey.OP_WRITE;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A JVM-wide selector that runs the readiness checks of all containers on a
+ * single thread. Port and HTTP checks connect, write and read without
+ * blocking, and checks that can only block (i.e. JDBC and exec checks) are
+ * run on an executor while their retries are scheduled on the selector
+ * thread. Every check is retried with the given {@link Backoff} and its
+ * future fails with the cause of the last attempt once the backoff is
+ * exhausted. A connection attempt that fails with an unexpected exception is
+ * failed like any other attempt so the selector thread keeps running.
+ *
+ * @author saden
+ */
+public class ReadinessSelector {
+
+    public static final ReadinessSelector INSTANCE = new ReadinessSelector();
+
+    private final static Logger LOGGER = LoggerFactory.getLogger("docker");
+    private final static Pattern STATUS_LINE = Pattern.compile("^HTTP/\\d\\.\\d (\\d{3})");
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>();
+    private Selector selector;
+
+    /**
+     * Check that the given address accepts connections and, if a path is
+     * given, that it answers a HTTP GET request of the path with a success or
+     * redirect status.
+     *
+     * @param address the address being checked
+     * @param path the optional HTTP path
+     * @param backoff the backoff between attempts
+     * @return a future completed once the address is ready
+     */
+    public CompletableFuture<Void> connect(InetSocketAddress address, Optional<String> path, Backoff backoff) {
+        String description = path.isPresent()
+                ? "http://" + address.getHostString() + ":" + address.getPort() + path.get()
+                : address.getHostString() + ":" + address.getPort();
+        Attempts attempts = new Attempts(description, backoff);
+        attempts.attempt(() -> new Connection(attempts, address, path).open());
+
+        return attempts.future;
+    }
+
+    /**
+     * Run the given blocking check on the given executor until it returns
+     * without throwing an exception.
+     *
+     * @param description the description of the check
+     * @param check the check
+     * @param backoff the backoff between attempts
+     * @param executor the executor the check is run on
+     * @return a future completed once the check passes
+     */
+    public CompletableFuture<Void> poll(String description, Runnable check, Backoff backoff, Executor executor) {
+        Attempts attempts = new Attempts(description, backoff);
+        attempts.attempt(new Runnable() {
+            @Override
+            public void run() {
+                CompletableFuture.runAsync(check, executor).whenComplete((result, error) -> execute(() -> {
+                    if (error == null) {
+                        attempts.future.complete(null);
+                    } else {
+                        attempts.retry(error.getCause() == null ? error : error.getCause(), this);
+                    }
+                }));
+            }
+        });
+
+        return attempts.future;
+    }
+
+    /**
+     * Run the given task on the selector thread after the given delay.
+     *
+     * @param task the task
+     * @param delay the delay
+     * @param unit the unit of the delay
+     */
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        long due = System.nanoTime() + unit.toNanos(delay);
+        execute(() -> timers.add(new Timer(due, task)));
+    }
+
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector().wakeup();
+    }
+
+    synchronized Selector selector() {
+        if (selector == null) {
+            try {
+                selector = Selector.open();
+            } catch (IOException e) {
+                checkState(false, "Readiness selector could not be opened.\n%s", e.getMessage());
+            }
+
+            Thread thread = new Thread(this::run, "testify-docker-await");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        return selector;
+    }
+
+    void run() {
+        while (true) {
+            try {
+                Runnable task;
+
+                while ((task = tasks.poll()) != null) {
+                    run(task);
+                }
+
+                long now = System.nanoTime();
+
+                while (!timers.isEmpty() && timers.peek().due <= now) {
+                    run(timers.poll().task);
+                }
+
+                long timeout = timers.isEmpty() ? 0 : Math.max(1, NANOSECONDS.toMillis(timers.peek().due - now));
+                selector.select(timeout);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Connection connection = (Connection) key.attachment();
+
+                    try {
+                        connection.ready(key);
+                    } catch (RuntimeException e) {
+                        //i.e. a key cancelled while the connection was closed
+                        connection.fail(e);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Readiness selector failed due to: '{}'", e.getMessage());
+            }
+        }
+    }
+
+    void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Readiness check failed due to: '{}'", e.getMessage());
+        }
+    }
+
+    /**
+     * The attempts of a readiness check.
+     */
+    class Attempts {
+
+        private final String description;
+        private final Backoff backoff;
+        private final long started = System.nanoTime();
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private int retries;
+
+        Attempts(String description, Backoff backoff) {
+            this.description = description;
+            this.backoff = backoff;
+        }
+
+        void attempt(Runnable attempt) {
+            execute(() -> {
+                if (!future.isDone()) {
+                    attempt.run();
+                }
+            });
+        }
+
+        void retry(Throwable cause, Runnable attempt) {
+            if (future.isDone()) {
+                return;
+            }
+
+            if (!backoff.canRetry(retries, System.nanoTime() - started)) {
+                future.completeExceptionally(new IllegalStateException(String.format(
+                        "'%s' not ready after %d attempts.\n%s", description, retries + 1, cause.getMessage()), cause));
+                return;
+            }
+
+            LOGGER.debug("'{}' not ready, retrying", description);
+            schedule(() -> {
+                if (!future.isDone()) {
+                    attempt.run();
+                }
+            }, backoff.getDelay(retries++), NANOSECONDS);
+        }
+
+    }
+
+    /**
+     * A single non-blocking connection attempt.
+     */
+    class Connection {
+
+        private final Attempts attempts;
+        private final InetSocketAddress address;
+        private final Optional<String> path;
+        private SocketChannel channel;
+        private ByteBuffer buffer;
+        private boolean done;
+
+        Connection(Attempts attempts, InetSocketAddress address, Optional<String> path) {
+            this.attempts = attempts;
+            this.address = address;
+            this.path = path;
+        }
+
+        void open() {
+            schedule(() -> fail(new IOException("Connection timed out")), attempts.backoff.getMaxDelay(), NANOSECONDS);
+
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+
+                if (channel.connect(address)) {
+                    connected();
+                } else {
+                    channel.register(selector, OP_CONNECT, this);
+                }
+            } catch (IOException | RuntimeException e) {
+                //i.e. an unresolved address
+                fail(e);
+            }
+        }
+
+        void ready(SelectionKey key) {
+            try {
+                if (key.isConnectable()) {
+                    channel.finishConnect();
+                    connected();
+                } else if (key.isWritable()) {
+                    channel.write(buffer);
+
+                    if (!buffer.hasRemaining()) {
+                        buffer = ByteBuffer.allocate(128);
+                        key.interestOps(OP_READ);
+                    }
+                } else if (key.isReadable()) {
+                    read();
+                }
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        void connected() throws IOException {
+            if (!path.isPresent()) {
+                succeed();
+                return;
+            }
+
+            String request = String.format("GET %s HTTP/1.0\r\nHost: %s:%d\r\nConnection: close\r\n\r\n",
+                    path.get(), address.getHostString(), address.getPort());
+            buffer = ByteBuffer.wrap(request.getBytes(US_ASCII));
+            channel.register(selector, OP_WRITE, this);
+        }
+
+        void read() throws IOException {
+            int read = channel.read(buffer);
+            String response = new String(buffer.array(), 0, buffer.position(), US_ASCII);
+            int end = response.indexOf("\r\n");
+
+            if (end == -1 && read != -1 && buffer.hasRemaining()) {
+                return;
+            }
+
+            Matcher matcher = STATUS_LINE.matcher(response);
+
+            if (!matcher.find()) {
+                throw new IOException("Invalid HTTP response");
+            }
+
+            int status = Integer.parseInt(matcher.group(1));
+
+            if (status < 200 || status >= 400) {
+                throw new IOException("HTTP status " + status);
+            }
+
+            succeed();
+        }
+
+        void succeed() {
+            if (!done) {
+                done = true;
+                close();
+                attempts.future.complete(null);
+            }
+        }
+
+        void fail(Exception e) {
+            if (!done) {
+                done = true;
+                close();
+                attempts.retry(e, () -> new Connection(attempts, address, path).open());
+            }
+        }
+
+        void close() {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                //closing a failed connection is best effort
+            }
+        }
+
+    }
+
+    /**
+     * A task run on the selector thread once it is due.
+     */
+    static class Timer implements Comparable<Timer> {
+
+        private final long due;
+        private final Runnable task;
+
+        Timer(long due, Runnable task) {
+            this.due = due;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Timer o) {
+            return Long.compare(due, o.due);
+        }
+
+    }
+
+}
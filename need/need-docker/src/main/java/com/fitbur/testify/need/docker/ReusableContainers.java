@@ -0,0 +1,204 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.docker;
+
+import com.fitbur.guava.common.base.Joiner;
+import com.fitbur.guava.common.collect.ImmutableMap;
+import static com.fitbur.guava.common.hash.Hashing.sha1;
+import com.fitbur.testify.need.NeedContainer;
+import com.github.dockerjava.api.ConflictException;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.Container;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A JVM-wide registry of containers that are reused across test runs. When
+ * reuse is enabled through the {@value #REUSE_PROPERTY} system property the
+ * containers of container needs that declare a reset command are labeled with
+ * a hash of the attributes of the container need they were created for and
+ * are left running when the need is destroyed. A later need with the same
+ * attributes, in this or a later run, claims a labeled container instead of
+ * creating a new one. A container is claimed by at most one need at a time,
+ * across processes, by creating a lock container named after it that is never
+ * started. The daemon only creates one container of a name so only one
+ * process can claim a container, and the lock container is removed when the
+ * container is released. A container whose lock was left behind by a process
+ * that died is not reused until its lock container is removed.
+ *
+ * @author saden
+ */
+public class ReusableContainers {
+
+    /**
+     * The system property used to enable reuse of containers.
+     */
+    public static final String REUSE_PROPERTY = "testify.docker.reuse";
+
+    /**
+     * The label holding the hash of the container need attributes.
+     */
+    public static final String HASH_LABEL = "com.fitbur.testify.need.hash";
+
+    /**
+     * The label holding the id of the container a lock container locks.
+     */
+    public static final String LOCK_LABEL = "com.fitbur.testify.need.lock";
+
+    public static final ReusableContainers INSTANCE = new ReusableContainers(Boolean.getBoolean(REUSE_PROPERTY));
+
+    private final boolean enabled;
+    private final Map<String, String> claimed = new ConcurrentHashMap<>();
+
+    public ReusableContainers(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Determine if the containers of the given container need are reused.
+     *
+     * @param needContainer the container need
+     * @return true if reuse is enabled and the need declares a reset command
+     */
+    public boolean isReusable(NeedContainer needContainer) {
+        return enabled && needContainer.reset().length > 0;
+    }
+
+    /**
+     * Get the hash of the attributes of the given container need that
+     * determine the container it is run in.
+     *
+     * @param needContainer the container need
+     * @return the container need hash
+     */
+    public String getHash(NeedContainer needContainer) {
+        String attributes = Joiner.on('\0').join(needContainer.value(),
+                needContainer.version(),
+                needContainer.cmd(),
+                needContainer.name());
+
+        return sha1().hashString(attributes, UTF_8).toString();
+    }
+
+    /**
+     * Get the labels a reusable container of the given container need is
+     * created with.
+     *
+     * @param needContainer the container need
+     * @return the container labels
+     */
+    public Map<String, String> getLabels(NeedContainer needContainer) {
+        return ImmutableMap.of(HASH_LABEL, getHash(needContainer));
+    }
+
+    /**
+     * Find and claim a container of the daemon labeled for the given container
+     * need that is not already claimed by this or another process.
+     *
+     * @param client the docker client
+     * @param needContainer the container need
+     * @return the id of the claimed container, empty optional otherwise
+     */
+    public Optional<String> claim(DockerClient client, NeedContainer needContainer) {
+        String hash = getHash(needContainer);
+
+        for (Container container : client.listContainersCmd().withShowAll(true).exec()) {
+            Map<String, String> labels = container.getLabels();
+
+            if (labels != null
+                    && hash.equals(labels.get(HASH_LABEL))
+                    && !claimed.containsKey(container.getId())
+                    && claim(client, container.getId(), container.getImage())) {
+                return of(container.getId());
+            }
+        }
+
+        return empty();
+    }
+
+    /**
+     * Claim the given container by creating its lock container.
+     *
+     * @param client the docker client
+     * @param containerId the container id
+     * @param image the image of the container
+     * @return true if the container was claimed, false if it is already
+     * claimed by this or another process
+     */
+    public boolean claim(DockerClient client, String containerId, String image) {
+        if (claimed.putIfAbsent(containerId, "") != null) {
+            return false;
+        }
+
+        try {
+            String lockId = client.createContainerCmd(image)
+                    .withName(getLockName(containerId))
+                    .withLabels(ImmutableMap.of(LOCK_LABEL, containerId))
+                    .exec()
+                    .getId();
+            claimed.put(containerId, lockId);
+
+            return true;
+        } catch (ConflictException e) {
+            //another process created the lock container first
+            claimed.remove(containerId);
+
+            return false;
+        } catch (RuntimeException e) {
+            claimed.remove(containerId);
+            throw e;
+        }
+    }
+
+    /**
+     * Release a claimed container so it can be claimed by another need.
+     *
+     * @param client the docker client
+     * @param containerId the container id
+     */
+    public void release(DockerClient client, String containerId) {
+        String lockId = claimed.remove(containerId);
+
+        if (lockId != null && !lockId.isEmpty()) {
+            client.removeContainerCmd(lockId).exec();
+        }
+    }
+
+    /**
+     * Get the name of the lock container of the given container.
+     *
+     * @param containerId the container id
+     * @return the lock container name
+     */
+    public String getLockName(String containerId) {
+        return "testify-lock-" + containerId;
+    }
+
+    public Set<String> getClaimed() {
+        return Collections.unmodifiableSet(claimed.keySet());
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.docker.callback;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Frame;
+import java.io.Closeable;
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+
+/**
+ * Container log callback listener that completes a future once a line of the
+ * container output matches a pattern.
+ *
+ * @author saden
+ */
+public class LogCallback implements ResultCallback<Frame> {
+
+    private final String containerId;
+    private final Pattern pattern;
+    private final CompletableFuture<Void> future;
+    private final Logger logger;
+    private final StringBuilder line = new StringBuilder();
+    private volatile Closeable stream;
+
+    public LogCallback(String containerId, Pattern pattern, CompletableFuture<Void> future, Logger logger) {
+        this.containerId = containerId;
+        this.pattern = pattern;
+        this.future = future;
+        this.logger = logger;
+    }
+
+    @Override
+    public void onStart(Closeable closeable) {
+        stream = closeable;
+        logger.info("Waiting for container '{}' to log '{}'", containerId, pattern);
+    }
+
+    @Override
+    public void onNext(Frame frame) {
+        for (char c : new String(frame.getPayload(), UTF_8).toCharArray()) {
+            if (c != '\n') {
+                line.append(c);
+                continue;
+            }
+
+            if (pattern.matcher(line).find()) {
+                future.complete(null);
+            }
+
+            line.setLength(0);
+        }
+
+        if (future.isDone()) {
+            close();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        future.completeExceptionally(new IllegalStateException(String.format(
+                "Log of container '%s' could not be read.\n%s", containerId, throwable.getMessage()), throwable));
+    }
+
+    @Override
+    public void onComplete() {
+        if (!future.isDone() && pattern.matcher(line).find()) {
+            future.complete(null);
+        }
+
+        future.completeExceptionally(new IllegalStateException(String.format(
+                "Log of container '%s' ended before '%s' was logged.", containerId, pattern)));
+    }
+
+    @Override
+    public void close() {
+        Closeable closeable = stream;
+
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException e) {
+            logger.debug("Closing log of container '{}' failed", containerId);
+        }
+    }
+
+}
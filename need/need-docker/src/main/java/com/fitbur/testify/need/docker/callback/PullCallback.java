@@ -26,7 +26,9 @@ import java.util.concurrent.CountDownLatch;
 import org.slf4j.Logger;
 
 /**
- * Pull value callback listener.
+ * Pull value callback listener. The latch is released once the pull completes
+ * or fails, and whether it completed or why it failed is recorded for the
+ * thread waiting on the latch.
  *
  * @author saden
  */
@@ -35,6 +37,9 @@ public class PullCallback implements ResultCallback<PullResponseItem> {
     private final NeedContainer need;
     private final CountDownLatch latch;
     private final Logger logger;
+    private volatile Closeable stream;
+    private volatile boolean completed;
+    private volatile Throwable error;
 
     public PullCallback(NeedContainer need, CountDownLatch latch, Logger logger) {
         this.need = need;
@@ -44,6 +49,7 @@ public class PullCallback implements ResultCallback<PullResponseItem> {
 
     @Override
     public void onStart(Closeable closeable) {
+        stream = closeable;
         logger.info("Pulling '{}:{}' image", need.value(), need.version());
     }
 
@@ -73,18 +79,48 @@ public class PullCallback implements ResultCallback<PullResponseItem> {
     @Override
     public void onError(Throwable throwable) {
         logger.error("Pull failed due to: '{}'", throwable.getMessage());
+        error = throwable;
+        latch.countDown();
     }
 
     @Override
     public void onComplete() {
         System.out.println("\n");
         logger.info("Image '{}:{}' pulled", need.value(), need.version());
+        completed = true;
         latch.countDown();
     }
 
     @Override
-    public void close() throws IOException {
+    public void close() {
         logger.debug("Closing pull of '{}:{}' image", need.value(), need.version());
+        Closeable closeable = stream;
+
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException e) {
+            logger.debug("Closing pull of '{}:{}' image failed", need.value(), need.version());
+        }
+    }
+
+    /**
+     * Determine if the pull completed without an error.
+     *
+     * @return true if the image was pulled, false otherwise
+     */
+    public boolean isCompleted() {
+        return completed && error == null;
+    }
+
+    /**
+     * Get the error the pull failed with.
+     *
+     * @return the error, or null if the pull did not fail
+     */
+    public Throwable getError() {
+        return error;
     }
 
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.hsql;
+
+import static com.fitbur.guava.common.base.Preconditions.checkState;
+import static java.lang.String.format;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static java.util.stream.Collectors.joining;
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A JVM-wide registry of the live in memory HSQL databases created by HSQL
+ * needs. Databases are reference counted by their URL and shutdown when the
+ * last need using them is destroyed. The memory footprint of a database is
+ * estimated from the cardinality and declared column sizes of its tables and
+ * can optionally be limited by a heap budget. The budget is checked after a
+ * test has populated a database, when its need is cleaned or destroyed, and
+ * fails that need if the live databases exceed it. Databases are never shut
+ * down to meet the budget since every live database may be in use by a test.
+ *
+ * @author saden
+ */
+public class HSQLDatabases {
+
+    /**
+     * The system property used to configure the heap budget of all live in
+     * memory databases in megabytes. A budget of zero, the default, disables
+     * the budget.
+     */
+    public static final String BUDGET_PROPERTY = "testify.hsql.budget";
+    public static final HSQLDatabases INSTANCE = new HSQLDatabases(
+            Long.getLong(BUDGET_PROPERTY, 0) * 1024 * 1024);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("hsql");
+    private static final long ROW_OVERHEAD = 48;
+    private static final long COLUMN_OVERHEAD = 16;
+    private static final long MAX_COLUMN_SIZE = 256;
+
+    private final long budget;
+    private final Map<String, Database> databases = new LinkedHashMap<>();
+
+    public HSQLDatabases(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Track the database of the given data source.
+     *
+     * @param dataSource the data source of the database
+     */
+    public void add(JDBCDataSource dataSource) {
+        synchronized (databases) {
+            databases.computeIfAbsent(dataSource.getUrl(), p -> new Database(dataSource)).references++;
+        }
+    }
+
+    /**
+     * Check that the live databases do not exceed the heap budget after the
+     * database of the given data source has been populated.
+     *
+     * @param dataSource the data source of the populated database
+     * @throws IllegalStateException if the budget is exceeded
+     */
+    public void check(JDBCDataSource dataSource) {
+        if (budget <= 0) {
+            return;
+        }
+
+        //footprints are estimated without holding the lock as every database
+        //is queried
+        Map<String, Long> footprints = getFootprints();
+        long total = footprints.values().stream().mapToLong(Long::longValue).sum();
+
+        checkState(total <= budget,
+                "In memory HSQL databases use an estimated %s KB which exceeds the budget of %s KB "
+                + "after database '%s' was populated.\n%s",
+                total / 1024, budget / 1024, dataSource.getUrl(),
+                footprints.entrySet().stream()
+                .map(p -> format("%s: %d KB", p.getKey(), p.getValue() / 1024))
+                .collect(joining("\n")));
+    }
+
+    /**
+     * Stop tracking the database of the given data source and shut it down if
+     * it is no longer used.
+     *
+     * @param dataSource the data source of the database
+     */
+    public void remove(JDBCDataSource dataSource) {
+        Database database;
+
+        synchronized (databases) {
+            database = databases.get(dataSource.getUrl());
+
+            if (database == null || --database.references > 0) {
+                return;
+            }
+
+            databases.remove(dataSource.getUrl());
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Database '{}' uses an estimated {} KB.",
+                    database.dataSource.getUrl(), getFootprint(database.dataSource) / 1024);
+        }
+
+        shutdown(database.dataSource);
+    }
+
+    /**
+     * Get the estimated memory footprint of every live database by URL.
+     *
+     * @return a map of database URLs and footprints in bytes
+     */
+    public Map<String, Long> getFootprints() {
+        List<JDBCDataSource> dataSources;
+
+        synchronized (databases) {
+            dataSources = new ArrayList<>();
+            databases.values().forEach(p -> dataSources.add(p.dataSource));
+        }
+
+        Map<String, Long> footprints = new LinkedHashMap<>();
+        dataSources.forEach(p -> footprints.put(p.getUrl(), getFootprint(p)));
+
+        return footprints;
+    }
+
+    /**
+     * Estimate the memory footprint of the database of the given data source.
+     *
+     * @param dataSource the data source of the database
+     * @return the estimated footprint in bytes
+     */
+    public long getFootprint(JDBCDataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            Map<String, Long> rowSizes = new HashMap<>();
+
+            try (ResultSet resultSet = statement.executeQuery("SELECT TABLE_SCHEMA, TABLE_NAME, "
+                    + "CHARACTER_OCTET_LENGTH FROM INFORMATION_SCHEMA.COLUMNS")) {
+                while (resultSet.next()) {
+                    long size = COLUMN_OVERHEAD + Math.min(resultSet.getLong(3), MAX_COLUMN_SIZE);
+                    rowSizes.merge(resultSet.getString(1) + "." + resultSet.getString(2), size, Long::sum);
+                }
+            }
+
+            long footprint = 0;
+
+            try (ResultSet resultSet = statement.executeQuery("SELECT TABLE_SCHEMA, TABLE_NAME, "
+                    + "CARDINALITY FROM INFORMATION_SCHEMA.SYSTEM_TABLESTATS "
+                    + "WHERE TABLE_SCHEMA NOT IN ('INFORMATION_SCHEMA', 'SYSTEM_LOBS')")) {
+                while (resultSet.next()) {
+                    long rowSize = ROW_OVERHEAD
+                            + rowSizes.getOrDefault(resultSet.getString(1) + "." + resultSet.getString(2), 0L);
+                    footprint += resultSet.getLong(3) * rowSize;
+                }
+            }
+
+            return footprint;
+        } catch (SQLException e) {
+            //a database that is shutdown does not use any memory
+            return 0;
+        }
+    }
+
+    static void shutdown(JDBCDataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } catch (SQLException e) {
+            //the database has already been shutdown
+        }
+    }
+
+    static class Database {
+
+        private final JDBCDataSource dataSource;
+        private int references;
+
+        Database(JDBCDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+    }
+
+}
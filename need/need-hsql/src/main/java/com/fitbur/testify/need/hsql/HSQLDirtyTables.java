@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.hsql;
+
+import static com.fitbur.guava.common.base.Preconditions.checkState;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+/**
+ * Tracks the tables of a HSQL database that are written to and resets only
+ * those tables to a baseline snapshot. Tracking starts with the first reset,
+ * which resets every table. Writes are recorded by statement level triggers in
+ * the {@value #SCHEMA} schema so writes that are rolled back are not recorded.
+ * Tables created after tracking started are always considered dirty until they
+ * are tracked. {@code TRUNCATE TABLE} fires no triggers so tables that are only
+ * truncated are not reset.
+ *
+ * @author saden
+ */
+class HSQLDirtyTables {
+
+    static final String SCHEMA = "TESTIFY";
+
+    private static final String DIRTY_TABLES = SCHEMA + ".DIRTY_TABLES";
+    private static final String[] OPERATIONS = {"INSERT", "UPDATE", "DELETE"};
+    private static final AtomicInteger TRIGGERS = new AtomicInteger();
+
+    private final HSQLSnapshot baseline;
+    private final Set<String> tracked = new LinkedHashSet<>();
+
+    HSQLDirtyTables(HSQLSnapshot baseline) {
+        this.baseline = baseline;
+    }
+
+    /**
+     * Reset the tables written to since the last reset to the baseline and
+     * track writes to any table that is not yet tracked.
+     *
+     * @param dataSource the data source of the database
+     */
+    synchronized void reset(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            Set<String> tables = new LinkedHashSet<>(HSQLSnapshot.tables(statement));
+            Set<String> dirty = new LinkedHashSet<>(tables);
+            dirty.removeAll(tracked);
+
+            if (!tracked.isEmpty()) {
+                try (ResultSet resultSet = statement.executeQuery("SELECT TABLE_NAME FROM " + DIRTY_TABLES)) {
+                    while (resultSet.next()) {
+                        dirty.add(resultSet.getString(1));
+                    }
+                }
+
+                statement.execute("DELETE FROM " + DIRTY_TABLES);
+            }
+
+            //tables dropped since they were tracked can not be reset
+            dirty.retainAll(tables);
+            baseline.reset(connection, dirty);
+            track(statement, tables);
+        } catch (SQLException e) {
+            checkState(false, "Tables of HSQL database could not be reset.\n%s", e.getMessage());
+        }
+    }
+
+    void track(Statement statement, Set<String> tables) throws SQLException {
+        if (tracked.isEmpty()) {
+            try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) "
+                    + "FROM INFORMATION_SCHEMA.SCHEMATA WHERE SCHEMA_NAME = '" + SCHEMA + "'")) {
+                resultSet.next();
+
+                if (resultSet.getInt(1) == 0) {
+                    statement.execute("CREATE SCHEMA " + SCHEMA);
+                }
+            }
+
+            statement.execute("CREATE TABLE IF NOT EXISTS " + DIRTY_TABLES
+                    + " (TABLE_NAME VARCHAR(1024) PRIMARY KEY)");
+        }
+
+        for (String table : tables) {
+            if (!tracked.add(table)) {
+                continue;
+            }
+
+            String schema = table.substring(0, table.indexOf("\"."));
+            int trigger = TRIGGERS.incrementAndGet();
+
+            for (String operation : OPERATIONS) {
+                statement.execute(String.format("CREATE TRIGGER %s.\"%s_DIRTY_%d_%s\" "
+                        + "AFTER %s ON %s FOR EACH STATEMENT "
+                        + "MERGE INTO %s USING (VALUES('%s')) AS V(N) ON %s.TABLE_NAME = V.N "
+                        + "WHEN NOT MATCHED THEN INSERT VALUES V.N",
+                        schema + "\"", SCHEMA, trigger, operation,
+                        operation, table,
+                        DIRTY_TABLES, table.replace("'", "''"), DIRTY_TABLES));
+            }
+        }
+    }
+
+}
@@ -17,6 +17,7 @@ package com.fitbur.testify.need.hsql;
 
 import com.fitbur.guava.common.collect.ImmutableSet;
 import com.fitbur.testify.need.NeedInstance;
+import com.fitbur.testify.need.jdbc.QueryRecorder;
 import java.net.URI;
 import java.util.List;
 import java.util.Optional;
@@ -27,7 +28,9 @@ import java.util.stream.Stream;
 import javax.sql.DataSource;
 
 /**
- * A NeedInstance implementation to hold HSQL need getInstance information.
+ * A NeedInstance implementation to hold HSQL need getInstance information. The
+ * data source of a need that records its statements is also provided as a
+ * {@link QueryRecorder}.
  *
  * @author saden
  */
@@ -73,6 +76,10 @@ class HSQLInstance implements NeedInstance<DataSource> {
 
     @Override
     public Set<Class<DataSource>> getContracts() {
+        if (dataSource instanceof QueryRecorder) {
+            return (Set) ImmutableSet.of(DataSource.class, QueryRecorder.class);
+        }
+
         return ImmutableSet.of(DataSource.class);
     }
 
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.hsql;
+
+import static com.fitbur.guava.common.base.Preconditions.checkState;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static java.util.stream.Collectors.joining;
+import javax.sql.DataSource;
+
+/**
+ * An in memory snapshot of the schema and data of a HSQL database. The schema
+ * is captured as the DDL statements produced by HSQL's {@code SCRIPT}
+ * statement and the data as the rows of every table, so a snapshot can be
+ * restored into any number of fresh in memory databases without running the
+ * statements that originally built them. A snapshot can also be used as a
+ * baseline to reset individual tables of the database it was captured from.
+ *
+ * @author saden
+ */
+class HSQLSnapshot {
+
+    private static final String UNIQUE_NAME = "SET DATABASE UNIQUE NAME";
+    private static final String RESTART_TABLE = "ALTER TABLE ";
+    private static final String RESTART_SEQUENCE = "ALTER SEQUENCE ";
+    private static final String RESTART_WITH = " RESTART WITH ";
+
+    /**
+     * The snapshot of a database without any tables.
+     */
+    static final HSQLSnapshot EMPTY = new HSQLSnapshot(emptyList(), emptyMap());
+
+    private final List<String> statements;
+    private final Map<String, List<Object[]>> tables;
+
+    HSQLSnapshot(List<String> statements, Map<String, List<Object[]>> tables) {
+        this.statements = statements;
+        this.tables = tables;
+    }
+
+    /**
+     * Capture the schema and data of the database of the given data source.
+     *
+     * @param dataSource the data source of the database
+     * @return a snapshot of the database
+     */
+    static HSQLSnapshot capture(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            List<String> statements = script(statement);
+            Map<String, List<Object[]>> tables = new LinkedHashMap<>();
+
+            for (String table : tables(statement)) {
+                List<Object[]> rows = new ArrayList<>();
+
+                try (ResultSet resultSet = statement.executeQuery("SELECT * FROM " + table)) {
+                    int columns = resultSet.getMetaData().getColumnCount();
+
+                    while (resultSet.next()) {
+                        Object[] row = new Object[columns];
+
+                        for (int i = 0; i < columns; i++) {
+                            row[i] = detach(resultSet.getObject(i + 1));
+                        }
+
+                        rows.add(row);
+                    }
+                }
+
+                tables.put(table, rows);
+            }
+
+            return new HSQLSnapshot(statements, tables);
+        } catch (SQLException e) {
+            checkState(false, "Snapshot of HSQL database could not be captured.\n%s", e.getMessage());
+            //not reachable
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Restore the snapshot into the database of the given data source. Any
+     * objects already present in the public schema of the database are
+     * dropped first.
+     *
+     * @param dataSource the data source of the database
+     */
+    void restore(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA PUBLIC CASCADE");
+
+            //statements a fresh database already contains, such as the
+            //default user and schema, can not be executed again
+            Set<String> existing = new HashSet<>(script(statement));
+
+            for (String sql : statements) {
+                if (!existing.contains(sql) && !sql.startsWith(UNIQUE_NAME)) {
+                    statement.execute(sql);
+                }
+            }
+
+            statement.execute("SET DATABASE REFERENTIAL INTEGRITY FALSE");
+
+            try {
+                for (Map.Entry<String, List<Object[]>> entry : tables.entrySet()) {
+                    insert(connection, entry.getKey(), entry.getValue());
+                }
+            } finally {
+                statement.execute("SET DATABASE REFERENTIAL INTEGRITY TRUE");
+            }
+        } catch (SQLException e) {
+            checkState(false, "Snapshot of HSQL database could not be restored.\n%s", e.getMessage());
+        }
+    }
+
+    /**
+     * Reset the given tables and all sequences of the database the snapshot
+     * was captured from to their captured state. Tables that did not exist
+     * when the snapshot was captured are truncated.
+     *
+     * @param connection a connection to the database
+     * @param dirty the qualified names of the tables to reset
+     * @throws SQLException if the tables could not be reset
+     */
+    void reset(Connection connection, Collection<String> dirty) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET DATABASE REFERENTIAL INTEGRITY FALSE");
+
+            try {
+                for (String table : dirty) {
+                    statement.execute("TRUNCATE TABLE " + table + " RESTART IDENTITY AND COMMIT NO CHECK");
+                    insert(connection, table, tables.getOrDefault(table, emptyList()));
+                }
+
+                for (String sql : statements) {
+                    if (isRestart(sql, dirty)) {
+                        statement.execute(sql);
+                    }
+                }
+            } finally {
+                statement.execute("SET DATABASE REFERENTIAL INTEGRITY TRUE");
+            }
+        }
+    }
+
+    static boolean isRestart(String sql, Collection<String> dirty) {
+        if (!sql.contains(RESTART_WITH)) {
+            return false;
+        }
+
+        if (sql.startsWith(RESTART_SEQUENCE)) {
+            return !sql.startsWith(RESTART_SEQUENCE + "SYSTEM_LOBS.");
+        }
+
+        int end = sql.indexOf(" ALTER COLUMN ");
+
+        return sql.startsWith(RESTART_TABLE)
+                && end != -1
+                && dirty.contains(qualify(sql.substring(RESTART_TABLE.length(), end)));
+    }
+
+    /**
+     * Convert a table name as it appears in a script, such as
+     * {@code PUBLIC.GREETING} or {@code "PUBLIC"."greeting"}, to the quoted
+     * qualified name used to identify tables.
+     */
+    static String qualify(String name) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder part = new StringBuilder();
+        boolean quoted = false;
+
+        for (char c : name.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '.' && !quoted) {
+                parts.add(part.toString());
+                part.setLength(0);
+            } else {
+                part.append(c);
+            }
+        }
+
+        parts.add(part.toString());
+
+        return parts.stream().map(p -> "\"" + p + "\"").collect(joining("."));
+    }
+
+    static void insert(Connection connection, String table, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" VALUES (");
+
+        for (int i = 0; i < rows.get(0).length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(sql.append(')').toString())) {
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+        }
+    }
+
+    static List<String> script(Statement statement) throws SQLException {
+        List<String> statements = new ArrayList<>();
+
+        try (ResultSet resultSet = statement.executeQuery("SCRIPT")) {
+            while (resultSet.next()) {
+                statements.add(resultSet.getString(1));
+            }
+        }
+
+        return statements;
+    }
+
+    /**
+     * Determine if the database of the given data source has no tables.
+     *
+     * @param dataSource the data source of the database
+     * @return true if the database has no tables, false otherwise
+     */
+    static boolean isEmpty(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            return tables(statement).isEmpty();
+        } catch (SQLException e) {
+            checkState(false, "Tables of HSQL database could not be listed.\n%s", e.getMessage());
+            //not reachable
+            return false;
+        }
+    }
+
+    static List<String> tables(Statement statement) throws SQLException {
+        List<String> tables = new ArrayList<>();
+
+        try (ResultSet resultSet = statement.executeQuery("SELECT TABLE_SCHEMA, TABLE_NAME "
+                + "FROM INFORMATION_SCHEMA.TABLES "
+                + "WHERE TABLE_TYPE = 'BASE TABLE' "
+                + "AND TABLE_SCHEMA NOT IN ('INFORMATION_SCHEMA', 'SYSTEM_LOBS', '" + HSQLDirtyTables.SCHEMA + "')")) {
+            while (resultSet.next()) {
+                tables.add(String.format("\"%s\".\"%s\"", resultSet.getString(1), resultSet.getString(2)));
+            }
+        }
+
+        return tables;
+    }
+
+    /**
+     * Large objects are bound to the session of the captured database so
+     * their content is copied.
+     */
+    static Object detach(Object value) throws SQLException {
+        if (value instanceof Blob) {
+            Blob blob = (Blob) value;
+
+            return blob.getBytes(1, (int) blob.length());
+        }
+
+        if (value instanceof Clob) {
+            Clob clob = (Clob) value;
+
+            return clob.getSubString(1, (int) clob.length());
+        }
+
+        return value;
+    }
+
+}
@@ -19,23 +19,55 @@ import com.fitbur.guava.common.collect.ImmutableMap;
 import com.fitbur.testify.need.NeedDescriptor;
 import com.fitbur.testify.need.NeedInstance;
 import com.fitbur.testify.need.NeedProvider;
+import com.fitbur.testify.need.jdbc.PooledDataSource;
+import com.fitbur.testify.need.jdbc.PooledDataSourceMetrics;
+import com.fitbur.testify.need.jdbc.QueryRecorder;
+import com.fitbur.testify.need.jdbc.QueryReports;
+import com.fitbur.testify.need.jdbc.RecordingDataSource;
 import static java.lang.String.format;
 import java.net.URI;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import javax.sql.DataSource;
 import org.hsqldb.jdbc.JDBCDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * An in memory implementation of a HSQL test need provider.
+ * An in memory implementation of a HSQL test need provider. The databases it
+ * creates are tracked by {@link HSQLDatabases}, checked against its heap
+ * budget whenever the need is cleaned or destroyed and shutdown when the need
+ * is destroyed. The state of a database the first time its need is cleaned,
+ * before it is first used, is the baseline its tables are reset to. Needs that
+ * are used by a single test are only cleaned once, so tables are only tracked
+ * from the second clean onwards: the second clean resets every table and every
+ * later clean only resets the tables written to since the previous clean.
+ * Writes are tracked by triggers and {@code TRUNCATE TABLE} fires no triggers
+ * so tables that are only truncated by a test are not reset.
+ * If pooling is enabled through {@link PooledDataSource#SIZE_PROPERTY} the
+ * data source of a need is a {@link PooledDataSource} whose metrics are reset
+ * and whose leaked connections are reported and reclaimed whenever the need is
+ * cleaned or destroyed.
+ * If recording is enabled through {@link RecordingDataSource#RECORD_PROPERTY}
+ * the data source of a need is a {@link RecordingDataSource} that tests can
+ * inject as a {@link QueryRecorder}. The statements it records are reported
+ * once per test class through {@link QueryReports}.
  *
  * @author saden
  */
 public class InMemoryHSQL implements NeedProvider<JDBCDataSource> {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger("hsql");
+
+    private final Map<String, HSQLDirtyTables> dirtyTables = new ConcurrentHashMap<>();
+    private final Map<String, PooledDataSource> pools = new ConcurrentHashMap<>();
+    private final Map<String, QueryRecorder> recorders = new ConcurrentHashMap<>();
+
     @Override
     public JDBCDataSource configuration(NeedDescriptor descriptor) {
         JDBCDataSource dataSource = new JDBCDataSource();
-        dataSource.setUrl(format("jdbc:hsqldb:mem:%s_%s",
-                descriptor.getTestClassName(), descriptor.getTestMethodName()));
+        dataSource.setUrl(format("jdbc:hsqldb:mem:%s", descriptor.getName()));
         dataSource.setUser("sa");
         dataSource.setPassword("");
 
@@ -44,9 +76,103 @@ public class InMemoryHSQL implements NeedProvider<JDBCDataSource> {
 
     @Override
     public Map<String, NeedInstance> init(NeedDescriptor descriptor, JDBCDataSource configuration) {
-        HSQLInstance instnace = new HSQLInstance(configuration, URI.create(configuration.getUrl()));
+        HSQLDatabases.INSTANCE.add(configuration);
+        DataSource dataSource = PooledDataSource.of(configuration);
+
+        if (dataSource instanceof PooledDataSource) {
+            pools.put(configuration.getUrl(), (PooledDataSource) dataSource);
+        }
+
+        dataSource = RecordingDataSource.of(dataSource);
+
+        if (dataSource instanceof RecordingDataSource) {
+            recorders.put(configuration.getUrl(), (RecordingDataSource) dataSource);
+            QueryReports.INSTANCE.add((RecordingDataSource) dataSource);
+        }
+
+        HSQLInstance instnace = new HSQLInstance(dataSource, URI.create(configuration.getUrl()));
 
         return ImmutableMap.of(configuration.getDatabaseName(), instnace);
     }
 
+    @Override
+    public void clean(NeedDescriptor descriptor, JDBCDataSource configuration) {
+        PooledDataSource pool = pools.get(configuration.getUrl());
+
+        if (pool != null) {
+            report(configuration, pool);
+        }
+
+        //the database is checked while it still holds the data of the test
+        //that populated it
+        HSQLDatabases.INSTANCE.check(configuration);
+        HSQLDirtyTables tables = dirtyTables.get(configuration.getUrl());
+
+        if (tables == null) {
+            dirtyTables.put(configuration.getUrl(), new HSQLDirtyTables(baseline(configuration)));
+        } else {
+            tables.reset(configuration);
+        }
+    }
+
+    /**
+     * Reset the metrics of the pool of the given data source and report them.
+     * Pools that leaked connections are reported as a warning.
+     *
+     * @param dataSource the data source of the database
+     * @param pool the pool of the database
+     */
+    private void report(JDBCDataSource dataSource, PooledDataSource pool) {
+        PooledDataSourceMetrics metrics = pool.reset();
+        String message = "Database '{}' borrowed {} connections waiting at most {} ms, {} leaked.";
+        Object[] arguments = {
+            dataSource.getUrl(),
+            metrics.getBorrows(),
+            NANOSECONDS.toMillis(metrics.getMaxWaitNanos()),
+            metrics.getLeaks()
+        };
+
+        if (metrics.getLeaks() == 0) {
+            LOGGER.debug(message, arguments);
+        } else {
+            LOGGER.warn(message, arguments);
+        }
+    }
+
+    /**
+     * Get the baseline of the database of the given data source before the
+     * need is first used. A database that has no tables is not captured.
+     *
+     * @param dataSource the data source of the database
+     * @return the baseline of the database
+     */
+    HSQLSnapshot baseline(JDBCDataSource dataSource) {
+        return HSQLSnapshot.isEmpty(dataSource) ? HSQLSnapshot.EMPTY : HSQLSnapshot.capture(dataSource);
+    }
+
+    @Override
+    public void destroy(NeedDescriptor descriptor, JDBCDataSource configuration) {
+        dirtyTables.remove(configuration.getUrl());
+        PooledDataSource pool = pools.remove(configuration.getUrl());
+
+        if (pool != null) {
+            //connections leaked by the last test are only reported before
+            //the pool is closed
+            report(configuration, pool);
+            pool.close();
+        }
+
+        QueryRecorder recorder = recorders.remove(configuration.getUrl());
+
+        if (recorder != null) {
+            QueryReports.INSTANCE.remove(recorder);
+        }
+
+        try {
+            HSQLDatabases.INSTANCE.check(configuration);
+        } finally {
+            HSQLDatabases.INSTANCE.remove(configuration);
+        }
+    }
+
 }
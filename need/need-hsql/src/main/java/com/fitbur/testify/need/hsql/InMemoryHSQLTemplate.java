@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.need.hsql;
+
+import static com.fitbur.guava.common.base.Preconditions.checkState;
+import com.fitbur.testify.need.NeedDescriptor;
+import com.fitbur.testify.need.NeedInstance;
+import static java.lang.String.format;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.sql.DataSource;
+import org.hsqldb.jdbc.JDBCDataSource;
+
+/**
+ * An in memory HSQL test need provider whose databases are cloned from a
+ * template. The template database is built once per provider class by
+ * {@link #build(javax.sql.DataSource)}, captured in memory and shutdown, and
+ * the database of every need is then restored from the captured snapshot
+ * instead of being built again. The snapshot is also the baseline the tables
+ * of the database are reset to when the need is cleaned. Extend this class
+ * and build the schema and seed data of your tests in
+ * {@link #build(javax.sql.DataSource)}.
+ *
+ * @author saden
+ */
+public abstract class InMemoryHSQLTemplate extends InMemoryHSQL {
+
+    private static final ConcurrentMap<Class<?>, HSQLSnapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+
+    /**
+     * Build the schema and seed data of the template database.
+     *
+     * @param dataSource the data source of the template database
+     * @throws SQLException if the template database could not be built
+     */
+    protected abstract void build(DataSource dataSource) throws SQLException;
+
+    @Override
+    public Map<String, NeedInstance> init(NeedDescriptor descriptor, JDBCDataSource configuration) {
+        snapshot().restore(configuration);
+
+        return super.init(descriptor, configuration);
+    }
+
+    @Override
+    HSQLSnapshot baseline(JDBCDataSource dataSource) {
+        //the database was restored from the snapshot when it was initialized
+        return snapshot();
+    }
+
+    HSQLSnapshot snapshot() {
+        return SNAPSHOTS.computeIfAbsent(getClass(), this::template);
+    }
+
+    HSQLSnapshot template(Class<?> type) {
+        JDBCDataSource dataSource = new JDBCDataSource();
+        dataSource.setUrl(format("jdbc:hsqldb:mem:template_%s_%s", type.getSimpleName(), UUID.randomUUID()));
+        dataSource.setUser("sa");
+        dataSource.setPassword("");
+
+        try {
+            build(dataSource);
+
+            return HSQLSnapshot.capture(dataSource);
+        } catch (SQLException e) {
+            checkState(false, "Template database of '%s' could not be built.\n%s",
+                    type.getSimpleName(), e.getMessage());
+            //not reachable
+            throw new IllegalStateException(e);
+        } finally {
+            //the snapshot is all that is needed to clone the template
+            HSQLDatabases.shutdown(dataSource);
+        }
+    }
+
+}
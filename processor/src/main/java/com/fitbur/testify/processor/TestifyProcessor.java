@@ -0,0 +1,194 @@
+/*
+ * Copyright 2015 Sharmarke Aden.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fitbur.testify.processor;
+
+import static com.fitbur.testify.TestAnalysis.GENERATED_LOCATION;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import static java.util.stream.Collectors.joining;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import static javax.lang.model.util.ElementFilter.fieldsIn;
+import static javax.lang.model.util.ElementFilter.methodsIn;
+import static javax.tools.Diagnostic.Kind.ERROR;
+import javax.tools.FileObject;
+import static javax.tools.StandardLocation.CLASS_OUTPUT;
+
+/**
+ * An optional annotation processor that generates the analysis of test classes
+ * at compile time. For every test class that uses testify annotations an
+ * analysis resource is generated that describes its fields and methods. Test
+ * runners load these resources instead of parsing class files with ASM. The
+ * analysis of a class under test is not generated because the class under test
+ * can be recompiled without recompiling the test class, which would leave a
+ * stale analysis behind. To enable the processor add it to the test classpath.
+ *
+ * @author saden
+ */
+@SupportedAnnotationTypes({
+    "com.fitbur.testify.Cut",
+    "com.fitbur.testify.Fake",
+    "com.fitbur.testify.Real",
+    "com.fitbur.testify.Config"
+})
+public class TestifyProcessor extends AbstractProcessor {
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                generateTestAnalysis((TypeElement) element.getEnclosingElement());
+            }
+        }
+
+        //other processors are free to process testify annotations
+        return false;
+    }
+
+    void generateTestAnalysis(TypeElement type) {
+        if (!generated.add(getBinaryName(type))) {
+            return;
+        }
+
+        StringBuilder members = new StringBuilder();
+
+        for (VariableElement field : fieldsIn(type.getEnclosedElements())) {
+            members.append(String.format("field %d %s %s%n",
+                    getAccess(field),
+                    field.getSimpleName(),
+                    getDescriptor(field.asType())));
+        }
+
+        for (ExecutableElement method : methodsIn(type.getEnclosedElements())) {
+            members.append(String.format("method %d %s %s%n",
+                    getAccess(method),
+                    method.getSimpleName(),
+                    getDescriptor(method)));
+        }
+
+        write(type, members);
+    }
+
+    void write(TypeElement type, StringBuilder members) {
+        String resource = GENERATED_LOCATION + getBinaryName(type);
+
+        try {
+            FileObject file = processingEnv.getFiler()
+                    .createResource(CLASS_OUTPUT, "", resource, type);
+
+            try (Writer writer = file.openWriter()) {
+                writer.write(members.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(ERROR,
+                    String.format("Analysis '%s' could not be generated.%n%s", resource, e.getMessage()),
+                    type);
+        }
+    }
+
+    String getBinaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    String getDescriptor(ExecutableElement method) {
+        List<? extends VariableElement> parameters = method.getParameters();
+
+        return parameters.stream()
+                .map(p -> getDescriptor(p.asType()))
+                .collect(joining("", "(", ")"))
+                + getDescriptor(method.getReturnType());
+    }
+
+    String getDescriptor(TypeMirror type) {
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+
+        switch (erasure.getKind()) {
+            case BOOLEAN:
+                return "Z";
+            case BYTE:
+                return "B";
+            case CHAR:
+                return "C";
+            case SHORT:
+                return "S";
+            case INT:
+                return "I";
+            case LONG:
+                return "J";
+            case FLOAT:
+                return "F";
+            case DOUBLE:
+                return "D";
+            case VOID:
+                return "V";
+            case ARRAY:
+                return "[" + getDescriptor(((ArrayType) erasure).getComponentType());
+            case DECLARED:
+                TypeElement element = (TypeElement) ((DeclaredType) erasure).asElement();
+                return "L" + getBinaryName(element).replace('.', '/') + ";";
+            default:
+                return "Ljava/lang/Object;";
+        }
+    }
+
+    int getAccess(Element element) {
+        Set<Modifier> modifiers = element.getModifiers();
+        int access = 0;
+
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            access |= 0x0001;
+        }
+
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            access |= 0x0002;
+        }
+
+        if (modifiers.contains(Modifier.PROTECTED)) {
+            access |= 0x0004;
+        }
+
+        if (modifiers.contains(Modifier.STATIC)) {
+            access |= 0x0008;
+        }
+
+        if (modifiers.contains(Modifier.FINAL)) {
+            access |= 0x0010;
+        }
+
+        return access;
+    }
+
+}
@@ -18,6 +18,7 @@ package com.fitbur.testify.server.undertow;
 import com.fitbur.testify.server.ServerInstance;
 import io.undertow.Undertow;
 import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
 import java.lang.reflect.Field;
 import java.net.ServerSocket;
 import java.net.URI;
@@ -27,6 +28,7 @@ import java.util.Objects;
 import java.util.Optional;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
+import javax.servlet.ServletException;
 import org.xnio.StreamConnection;
 import org.xnio.channels.AcceptingChannel;
 
@@ -38,11 +40,13 @@ import org.xnio.channels.AcceptingChannel;
 public class UndertowServerInstance implements ServerInstance<Undertow> {
 
     private final Undertow undertow;
+    private final DeploymentManager manager;
     private final DeploymentInfo deploymentInfo;
     private URI baseURI;
 
-    UndertowServerInstance(Undertow undertow, DeploymentInfo deploymentInfo) {
+    UndertowServerInstance(Undertow undertow, DeploymentManager manager, DeploymentInfo deploymentInfo) {
         this.undertow = undertow;
+        this.manager = manager;
         this.deploymentInfo = deploymentInfo;
     }
 
@@ -66,6 +70,13 @@ public class UndertowServerInstance implements ServerInstance<Undertow> {
     @Override
     public void stop() {
         undertow.stop();
+
+        try {
+            manager.stop();
+            manager.undeploy();
+        } catch (ServletException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     @Override
@@ -75,7 +75,9 @@ public class UndertowServerProvider implements ServerProvider<DeploymentInfo> {
     @Override
     public ServerInstance init(ServerDescriptor descriptor, DeploymentInfo deploymentInfo) {
         try {
-            DeploymentManager manager = Servlets.defaultContainer()
+            //every server gets its own servlet container so deployments of
+            //concurrently running test classes never collide by name
+            DeploymentManager manager = Servlets.newContainer()
                     .addDeployment(deploymentInfo);
 
             manager.deploy();
@@ -89,7 +91,7 @@ public class UndertowServerProvider implements ServerProvider<DeploymentInfo> {
                     .addHttpListener(0, deploymentInfo.getHostName(), pathHandler)
                     .build();
 
-            return new UndertowServerInstance(undertow, deploymentInfo);
+            return new UndertowServerInstance(undertow, manager, deploymentInfo);
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }